@@ -0,0 +1,114 @@
+package com.example.backend.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares a JMH JSON result file ({@code -rf json}) against a stored
+ * baseline, benchmark by benchmark and parameter set by parameter set. A
+ * score that is worse by more than the tolerance in the direction of its mode
+ * (lower throughput, higher time per operation), or more bytes allocated per
+ * operation when both runs used {@code -prof gc}, counts as a regression, and
+ * the exit status is 1 if there are any.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.example.backend.benchmark.BaselineComparison baseline.json result.json [tolerance %]
+ * </pre>
+ */
+public final class BaselineComparison {
+
+    private static final String ALLOCATION_METRIC = "gc.alloc.rate.norm";
+
+    private BaselineComparison() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BaselineComparison <baseline.json> <result.json> [tolerance %]");
+            System.exit(2);
+        }
+        double tolerance = args.length > 2 ? Double.parseDouble(args[2]) / 100 : 0.10;
+        Map<String, JsonNode> baseline = load(new File(args[0]));
+        Map<String, JsonNode> result = load(new File(args[1]));
+
+        int regressions = 0;
+        System.out.printf("%-70s %14s %14s %8s %12s %12s %8s%n",
+                "benchmark", "baseline", "result", "change", "base B/op", "B/op", "change");
+        for (Map.Entry<String, JsonNode> entry : result.entrySet()) {
+            JsonNode previous = baseline.get(entry.getKey());
+            if (previous == null) {
+                System.out.printf("%-70s %14s%n", entry.getKey(), "(new)");
+                continue;
+            }
+            JsonNode current = entry.getValue();
+            double before = previous.path("primaryMetric").path("score").asDouble();
+            double after = current.path("primaryMetric").path("score").asDouble();
+            double change = (after - before) / before;
+            // Throughput regresses when it drops, every other mode when it grows
+            boolean higherIsBetter = "thrpt".equals(current.path("mode").asText());
+            boolean slower = higherIsBetter ? change < -tolerance : change > tolerance;
+
+            JsonNode allocationBefore = previous.path("secondaryMetrics").path(ALLOCATION_METRIC).path("score");
+            JsonNode allocationAfter = current.path("secondaryMetrics").path(ALLOCATION_METRIC).path("score");
+            String allocationColumns = "";
+            boolean moreGarbage = false;
+            if (allocationBefore.isNumber() && allocationAfter.isNumber()) {
+                double bytesBefore = allocationBefore.asDouble();
+                double bytesAfter = allocationAfter.asDouble();
+                double allocationChange = bytesBefore == 0
+                        ? (bytesAfter == 0 ? 0 : 1)
+                        : (bytesAfter - bytesBefore) / bytesBefore;
+                // A few bytes per operation are profiler noise even for allocation-free code
+                moreGarbage = allocationChange > tolerance && bytesAfter - bytesBefore > 16;
+                allocationColumns = String.format(" %12.0f %12.0f %+7.1f%%", bytesBefore, bytesAfter,
+                        allocationChange * 100);
+            }
+
+            String unit = current.path("primaryMetric").path("scoreUnit").asText();
+            System.out.printf("%-70s %14s %14s %+7.1f%%%s%s%n", entry.getKey(),
+                    format(before, unit), format(after, unit), change * 100, allocationColumns,
+                    slower || moreGarbage ? "  REGRESSION" : "");
+            if (slower || moreGarbage) {
+                regressions++;
+            }
+        }
+        for (String missing : baseline.keySet()) {
+            if (!result.containsKey(missing)) {
+                System.out.printf("%-70s %14s%n", missing, "(not run)");
+            }
+        }
+
+        System.out.printf("%d regression(s) beyond %.0f%%%n", regressions, tolerance * 100);
+        System.exit(regressions > 0 ? 1 : 0);
+    }
+
+    private static Map<String, JsonNode> load(File file) throws IOException {
+        Map<String, JsonNode> runs = new TreeMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(file)) {
+            runs.put(key(run), run);
+        }
+        return runs;
+    }
+
+    private static String key(JsonNode run) {
+        String benchmark = run.path("benchmark").asText().replace("com.example.backend.benchmark.", "");
+        Map<String, String> params = new LinkedHashMap<>();
+        Iterator<Map.Entry<String, JsonNode>> fields = run.path("params").fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            params.put(field.getKey(), field.getValue().asText());
+        }
+        return params.isEmpty() ? benchmark : benchmark + params;
+    }
+
+    private static String format(double score, String unit) {
+        return String.format(score >= 100 ? "%.0f %s" : "%.3f %s", score, unit);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.backend.benchmark;
+
+import com.example.backend.BackendAiTaskApplication;
+import com.example.reactive.ReactiveApplication;
+import org.springframework.boot.Banner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Boots the backend application context, by default without a web server, using
+ * the "bench" profile. Arguments are passed through as Spring properties,
+ * e.g. {@code --users.bulk.chunk-size=1000}.
+ */
+public final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    public static ConfigurableApplicationContext start(String... args) {
+        return start(WebApplicationType.NONE, args);
+    }
+
+    /**
+     * Same, with the embedded web server listening on {@code --server.port}
+     * (random when 0), for driving the HTTP endpoints.
+     */
+    public static ConfigurableApplicationContext startWeb(String... args) {
+        return start(WebApplicationType.SERVLET, args);
+    }
+
+    /**
+     * Boots the reactive read API on Netty in the "bench-reactive" profile,
+     * reading the same database as {@link #start}.
+     */
+    public static ConfigurableApplicationContext startReactive(String... args) {
+        return run(new Class<?>[] {ReactiveApplication.class, ReactorNettyServer.class},
+                WebApplicationType.REACTIVE, "bench-reactive", args);
+    }
+
+    private static ConfigurableApplicationContext start(WebApplicationType webApplicationType, String... args) {
+        return run(new Class<?>[] {BackendAiTaskApplication.class}, webApplicationType, "bench", args);
+    }
+
+    private static ConfigurableApplicationContext run(Class<?>[] sources, WebApplicationType webApplicationType,
+                                                      String profile, String... args) {
+        SpringApplication application = new SpringApplication(sources);
+        application.setWebApplicationType(webApplicationType);
+        application.setBannerMode(Banner.Mode.OFF);
+        application.setAdditionalProfiles(profile);
+        return application.run(args);
+    }
+
+    /**
+     * Tomcat is on the classpath for the servlet application, and Spring Boot
+     * would prefer it for a reactive context too.
+     */
+    @Configuration(proxyBeanMethods = false)
+    static class ReactorNettyServer {
+
+        @Bean
+        NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+            return new NettyReactiveWebServerFactory();
+        }
+    }
+}
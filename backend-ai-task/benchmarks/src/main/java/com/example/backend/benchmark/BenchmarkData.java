@@ -0,0 +1,54 @@
+package com.example.backend.benchmark;
+
+import com.example.backend.dto.AddressDto;
+import com.example.backend.dto.CompanyDto;
+import com.example.backend.dto.GeoDto;
+import com.example.backend.dto.UserDto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deterministic, fully populated users for seeding benchmarks.
+ */
+public final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    public static UserDto user(int i) {
+        GeoDto geo = new GeoDto();
+        geo.setLat(String.valueOf(-80 + (i % 160)));
+        geo.setLng(String.valueOf(-170 + (i % 340)));
+
+        AddressDto address = new AddressDto();
+        address.setStreet(i + " Bench Street");
+        address.setSuite("Suite " + (i % 1000));
+        address.setCity("City " + (i % 50));
+        address.setZipcode(String.format("%05d", i % 100_000));
+        address.setGeo(geo);
+
+        CompanyDto company = new CompanyDto();
+        company.setName("Company " + (i % 200));
+        company.setCatchPhrase("Benchmarked synergy " + i);
+        company.setBs("measure everything");
+
+        UserDto dto = new UserDto();
+        dto.setName("Bench User " + i);
+        dto.setUsername("bench" + i);
+        dto.setEmail("bench" + i + "@example.com");
+        dto.setPhone("555-" + String.format("%04d", i % 10_000));
+        dto.setWebsite("bench" + i + ".example.com");
+        dto.setAddress(address);
+        dto.setCompany(company);
+        return dto;
+    }
+
+    public static List<UserDto> users(int count) {
+        List<UserDto> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            users.add(user(i));
+        }
+        return users;
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.backend.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop HTTP clients for the load tests: each client sends its next
+ * request as soon as the previous one completes, alternating
+ * {@code GET /api/users/{id}} for a random seeded id and
+ * {@code GET /api/users/page}. Requests started during the warmup are not
+ * recorded.
+ */
+final class ClosedLoopLoad {
+
+    static final Duration WARMUP = Duration.ofSeconds(5);
+
+    private ClosedLoopLoad() {
+    }
+
+    static void printHeader(String label) {
+        System.out.printf("%-9s %8s %10s %9s %9s %9s %8s %16s%n",
+                label, "clients", "req/s", "p50 ms", "p99 ms", "max ms", "errors", "platform threads");
+    }
+
+    static Result drive(String baseUrl, long[] ids, int clients, Duration duration) throws Exception {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        LongAdder errors = new LongAdder();
+        AtomicReference<String> firstError = new AtomicReference<>();
+        long[][] latencies = new long[clients][];
+        int[] counts = new int[clients];
+
+        // Clients are virtual threads too, so the load generator never runs out of threads first
+        try (HttpClient client = HttpClient.newHttpClient();
+             ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            long measureFrom = System.nanoTime() + WARMUP.toNanos();
+            long end = measureFrom + duration.toNanos();
+            threads.resetPeakThreadCount();
+            for (int c = 0; c < clients; c++) {
+                int slot = c;
+                executor.submit(() -> {
+                    long[] own = new long[1024];
+                    int count = 0;
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (long now = System.nanoTime(); now < end; now = System.nanoTime()) {
+                        String path = (count & 1) == 0
+                                ? "/api/users/" + ids[random.nextInt(ids.length)]
+                                : "/api/users/page?limit=20";
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(
+                                    HttpRequest.newBuilder(URI.create(baseUrl + path)).build(),
+                                    HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200 && start >= measureFrom) {
+                                errors.increment();
+                                firstError.compareAndSet(null, "HTTP " + response.statusCode() + " for " + path);
+                            }
+                        } catch (Exception ex) {
+                            if (start >= measureFrom) {
+                                errors.increment();
+                                firstError.compareAndSet(null, ex.toString());
+                            }
+                        }
+                        if (start >= measureFrom) {
+                            if (count == own.length) {
+                                own = Arrays.copyOf(own, count * 2);
+                            }
+                            own[count++] = System.nanoTime() - start;
+                        }
+                    }
+                    latencies[slot] = own;
+                    counts[slot] = count;
+                    return null;
+                });
+            }
+            executor.shutdown();
+            executor.awaitTermination(duration.plus(WARMUP).toSeconds() + 60, TimeUnit.SECONDS);
+        }
+
+        int total = Arrays.stream(counts).sum();
+        long[] all = new long[total];
+        int offset = 0;
+        for (int c = 0; c < clients; c++) {
+            System.arraycopy(latencies[c], 0, all, offset, counts[c]);
+            offset += counts[c];
+        }
+        Arrays.sort(all);
+        return new Result(clients, duration, total, errors.sum(), firstError.get(), all, threads.getPeakThreadCount());
+    }
+
+    record Result(int clients, Duration duration, long requests, long errors, String firstError, long[] sortedNanos,
+                  int peakPlatformThreads) {
+
+        double percentileMillis(double quantile) {
+            if (sortedNanos.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.min(sortedNanos.length - 1L, (long) Math.ceil(quantile * sortedNanos.length) - 1);
+            return sortedNanos[Math.max(0, index)] / 1_000_000.0;
+        }
+
+        void print(String label) {
+            System.out.printf("%-9s %8d %10.0f %9.1f %9.1f %9.1f %8d %16d%n",
+                    label, clients, requests / (double) duration.toSeconds(),
+                    percentileMillis(0.50), percentileMillis(0.99), percentileMillis(1.0),
+                    errors, peakPlatformThreads);
+            if (firstError != null) {
+                System.out.println("  first error: " + firstError);
+            }
+        }
+    }
+}
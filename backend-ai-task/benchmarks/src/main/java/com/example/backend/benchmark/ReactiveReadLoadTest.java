@@ -0,0 +1,60 @@
+package com.example.backend.benchmark;
+
+import com.example.backend.dto.BulkItemResult;
+import com.example.backend.service.UserService;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.Duration;
+
+/**
+ * Closed-loop HTTP load on the user read endpoints of the servlet application
+ * (Tomcat, JDBC) and of the reactive module (Netty, R2DBC), one after the
+ * other, over the same seeded users. Both stacks get a 20-connection database
+ * pool; Tomcat's connection limit is raised to the client count so every client
+ * holds an open connection on either stack. The user cache is off so every
+ * request reaches the database. The reactive stack runs first, so its peak
+ * platform thread count is not inflated by Tomcat's idle workers.
+ *
+ * <p>The H2 R2DBC driver blocks on the event loop, so the reactive numbers only
+ * mean something against PostgreSQL: export {@code SPRING_DATASOURCE_URL} and
+ * {@code SPRING_R2DBC_URL} (and their credentials) for the same database.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.example.backend.benchmark.ReactiveReadLoadTest [clients] [seconds] [users]
+ * </pre>
+ */
+public final class ReactiveReadLoadTest {
+
+    private ReactiveReadLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        Duration duration = Duration.ofSeconds(args.length > 1 ? Long.parseLong(args[1]) : 20);
+        int users = args.length > 2 ? Integer.parseInt(args[2]) : 10_000;
+
+        try (ConfigurableApplicationContext servlet = BenchmarkApplication.startWeb(
+                "--server.port=0",
+                "--spring.cache.type=none",
+                "--spring.datasource.hikari.maximum-pool-size=20",
+                "--server.tomcat.max-connections=" + clients)) {
+            long[] ids = servlet.getBean(UserService.class)
+                    .createUsers(BenchmarkData.users(users).iterator()).getResults().stream()
+                    .mapToLong(BulkItemResult::getId)
+                    .toArray();
+
+            ClosedLoopLoad.printHeader("stack");
+            try (ConfigurableApplicationContext reactive = BenchmarkApplication.startReactive(
+                    "--server.port=0",
+                    "--spring.r2dbc.pool.initial-size=20",
+                    "--spring.r2dbc.pool.max-size=20")) {
+                ClosedLoopLoad.drive(baseUrl(reactive), ids, clients, duration).print("reactive");
+            }
+            ClosedLoopLoad.drive(baseUrl(servlet), ids, clients, duration).print("servlet");
+        }
+    }
+
+    private static String baseUrl(ConfigurableApplicationContext context) {
+        return "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.backend.benchmark;
+
+import com.example.backend.dto.BulkItemResult;
+import com.example.backend.service.UserService;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Closed-loop HTTP load on the user read endpoints, first with Tomcat on
+ * platform threads and then in the {@code virtual-threads} profile, at the
+ * same concurrency and connection-pool size. Each client alternates
+ * {@code GET /api/users/{id}} and {@code GET /api/users/page}; the user cache
+ * is off so every request reaches the database.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.example.backend.benchmark.ThreadModelLoadTest [clients] [seconds] [users]
+ * </pre>
+ */
+public final class ThreadModelLoadTest {
+
+    private ThreadModelLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 1_000;
+        Duration duration = Duration.ofSeconds(args.length > 1 ? Long.parseLong(args[1]) : 20);
+        int users = args.length > 2 ? Integer.parseInt(args[2]) : 10_000;
+
+        ClosedLoopLoad.printHeader("threads");
+        for (boolean virtual : new boolean[] {false, true}) {
+            List<String> appArgs = new ArrayList<>(List.of(
+                    "--server.port=0",
+                    "--spring.cache.type=none",
+                    "--spring.datasource.hikari.maximum-pool-size=20",
+                    "--spring.threads.virtual.enabled=" + virtual));
+            if (virtual) {
+                appArgs.add("--spring.profiles.active=virtual-threads");
+            }
+            try (ConfigurableApplicationContext context = BenchmarkApplication.startWeb(appArgs.toArray(String[]::new))) {
+                long[] ids = context.getBean(UserService.class)
+                        .createUsers(BenchmarkData.users(users).iterator()).getResults().stream()
+                        .mapToLong(BulkItemResult::getId)
+                        .toArray();
+                String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+                ClosedLoopLoad.drive(baseUrl, ids, clients, duration).print(virtual ? "virtual" : "platform");
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.backend.benchmark;
+
+import com.example.backend.dto.BulkChangeResponse;
+import com.example.backend.dto.BulkDeleteRequest;
+import com.example.backend.dto.BulkItemResult;
+import com.example.backend.dto.BulkUpdateRequest;
+import com.example.backend.repository.UserRepository;
+import com.example.backend.service.UserService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rows per second for deleting and updating users one id at a time through
+ * {@code deleteUser} / {@code patchUser} versus the set-based
+ * {@code deleteUsers} / {@code updateUsers}. Every invocation starts from
+ * freshly inserted rows; seeding is not measured.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserBulkChangeBenchmark {
+
+    private static final int ROWS = 1_000;
+
+    @Param({"100", "1000"})
+    private int chunkSize;
+
+    private ConfigurableApplicationContext context;
+    private UserService userService;
+    private UserRepository userRepository;
+    private List<Long> ids;
+    private int round;
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = BenchmarkApplication.start("--users.bulk.chunk-size=" + chunkSize);
+        userService = context.getBean(UserService.class);
+        userRepository = context.getBean(UserRepository.class);
+    }
+
+    @Setup(Level.Invocation)
+    public void seed() {
+        userRepository.deleteAllInBatch();
+        ids = userService.createUsers(BenchmarkData.users(ROWS).iterator()).getResults().stream()
+                .map(BulkItemResult::getId)
+                .toList();
+        round++;
+    }
+
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void singleDelete() {
+        for (Long id : ids) {
+            userService.deleteUser(id);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public BulkChangeResponse bulkDelete() {
+        return userService.deleteUsers(new BulkDeleteRequest(ids, null));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void singleUpdate() {
+        JsonNode patch = phonePatch();
+        for (Long id : ids) {
+            userService.patchUser(id, patch, null);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public BulkChangeResponse bulkUpdate() {
+        return userService.updateUsers(new BulkUpdateRequest(ids, null, phonePatch()));
+    }
+
+    // A value no seeded row holds, so every row is really written
+    private JsonNode phonePatch() {
+        return JsonNodeFactory.instance.objectNode().put("phone", "555-bench-" + round);
+    }
+}
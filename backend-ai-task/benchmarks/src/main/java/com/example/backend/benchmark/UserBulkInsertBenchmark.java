@@ -0,0 +1,81 @@
+package com.example.backend.benchmark;
+
+import com.example.backend.dto.BulkCreateResponse;
+import com.example.backend.dto.UserDto;
+import com.example.backend.repository.UserRepository;
+import com.example.backend.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rows per second for {@code UserService.createUser} called once per row
+ * versus {@code UserService.createUsers} writing JDBC batches.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserBulkInsertBenchmark {
+
+    private static final int ROWS = 1_000;
+
+    @Param({"100", "500", "1000"})
+    private int chunkSize;
+
+    private ConfigurableApplicationContext context;
+    private UserService userService;
+    private UserRepository userRepository;
+    private List<UserDto> userDtos;
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = BenchmarkApplication.start("--users.bulk.chunk-size=" + chunkSize);
+        userService = context.getBean(UserService.class);
+        userRepository = context.getBean(UserRepository.class);
+
+        userDtos = BenchmarkData.users(ROWS);
+    }
+
+    @TearDown(Level.Iteration)
+    public void truncate() {
+        userRepository.deleteAllInBatch();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void singleInsert(Blackhole blackhole) {
+        for (UserDto dto : userDtos) {
+            blackhole.consume(userService.createUser(dto));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public BulkCreateResponse bulkInsert() {
+        return userService.createUsers(userDtos.iterator());
+    }
+}
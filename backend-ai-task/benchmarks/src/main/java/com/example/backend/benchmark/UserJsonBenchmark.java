@@ -0,0 +1,75 @@
+package com.example.backend.benchmark;
+
+import com.example.backend.dto.UserDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization and deserialization of {@link UserDto}, alone and as
+ * the lists the list and bulk endpoints exchange, with an {@link ObjectMapper}
+ * configured the way Spring Boot configures the application's. Readers and
+ * writers are resolved once, as the message converters cache them. Run with
+ * {@code -prof gc} to see allocation per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserJsonBenchmark {
+
+    @Param({"1", "100"})
+    private int users;
+
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private List<UserDto> dtos;
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        dtos = BenchmarkData.users(users);
+        for (int i = 0; i < dtos.size(); i++) {
+            dtos.get(i).setId((long) i + 1);
+        }
+        if (users == 1) {
+            writer = objectMapper.writerFor(UserDto.class);
+            reader = objectMapper.readerFor(UserDto.class);
+            json = writer.writeValueAsBytes(dtos.get(0));
+        } else {
+            writer = objectMapper.writerFor(
+                    objectMapper.getTypeFactory().constructCollectionType(List.class, UserDto.class));
+            reader = objectMapper.readerForListOf(UserDto.class);
+            json = writer.writeValueAsBytes(dtos);
+        }
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return writer.writeValueAsBytes(users == 1 ? dtos.get(0) : dtos);
+    }
+
+    @Benchmark
+    public Object deserialize() throws IOException {
+        return reader.readValue(json);
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.backend.benchmark;
+
+import com.example.backend.domain.User;
+import com.example.backend.dto.AddressDto;
+import com.example.backend.dto.CompanyDto;
+import com.example.backend.dto.GeoDto;
+import com.example.backend.dto.UserDto;
+import com.example.backend.repository.UserRepository;
+import com.example.backend.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of the list endpoint's service call: the read-only projection path
+ * ({@code projection}) against loading managed entities in a read-write
+ * transaction and copying them into DTOs ({@code entityReadWrite}), which is
+ * what {@code getAllUsers} used to do. Run with {@code -prof gc} to compare
+ * allocation per call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserListBenchmark {
+
+    @Param({"100", "1000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private UserService userService;
+    private UserRepository userRepository;
+    private TransactionTemplate transactionTemplate;
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = BenchmarkApplication.start();
+        userService = context.getBean(UserService.class);
+        userRepository = context.getBean(UserRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        userService.createUsers(BenchmarkData.users(rows).iterator());
+    }
+
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<UserDto> projection() {
+        return userService.getAllUsers();
+    }
+
+    @Benchmark
+    public List<UserDto> entityReadWrite() {
+        return transactionTemplate.execute(status -> {
+            List<UserDto> dtos = new ArrayList<>();
+            for (User user : userRepository.findAll()) {
+                dtos.add(toDto(user));
+            }
+            return dtos;
+        });
+    }
+
+    private static UserDto toDto(User user) {
+        UserDto dto = new UserDto();
+        dto.setId(user.getId());
+        dto.setName(user.getName());
+        dto.setUsername(user.getUsername());
+        dto.setEmail(user.getEmail());
+        dto.setPhone(user.getPhone());
+        dto.setWebsite(user.getWebsite());
+        if (user.getAddress() != null) {
+            AddressDto address = new AddressDto();
+            address.setStreet(user.getAddress().getStreet());
+            address.setSuite(user.getAddress().getSuite());
+            address.setCity(user.getAddress().getCity());
+            address.setZipcode(user.getAddress().getZipcode());
+            if (user.getAddress().getGeo() != null) {
+                GeoDto geo = new GeoDto();
+                geo.setLat(Objects.toString(user.getAddress().getGeo().getLat(), null));
+                geo.setLng(Objects.toString(user.getAddress().getGeo().getLng(), null));
+                address.setGeo(geo);
+            }
+            dto.setAddress(address);
+        }
+        if (user.getCompany() != null) {
+            CompanyDto company = new CompanyDto();
+            company.setName(user.getCompany().getName());
+            company.setCatchPhrase(user.getCompany().getCatchPhrase());
+            company.setBs(user.getCompany().getBs());
+            dto.setCompany(company);
+        }
+        return dto;
+    }
+}
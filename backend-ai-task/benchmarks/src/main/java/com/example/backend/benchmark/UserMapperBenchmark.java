@@ -0,0 +1,74 @@
+package com.example.backend.benchmark;
+
+import com.example.backend.domain.User;
+import com.example.backend.dto.UserDto;
+import com.example.backend.repository.UserRow;
+import com.example.backend.service.UserMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the {@link UserMapper} conversions behind every user endpoint, on a
+ * fully populated user. {@code updateUserFromDto} writes into the same entity
+ * each time, as a PUT does to the managed instance it loaded. Run with
+ * {@code -prof gc} to see allocation per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserMapperBenchmark {
+
+    private UserDto dto;
+    private User entity;
+    private UserRow row;
+
+    @Setup
+    public void setUp() {
+        dto = BenchmarkData.user(42);
+        entity = UserMapper.convertToEntity(dto);
+        entity.setId(42L);
+        entity.setVersion(3L);
+        entity.setUpdatedAt(Instant.parse("2024-01-01T00:00:00Z"));
+        row = new UserRow(entity.getId(), entity.getName(), entity.getUsername(), entity.getEmail(),
+                entity.getAddress().getStreet(), entity.getAddress().getSuite(), entity.getAddress().getCity(),
+                entity.getAddress().getZipcode(), entity.getAddress().getGeo().getLat(),
+                entity.getAddress().getGeo().getLng(), entity.getPhone(), entity.getWebsite(),
+                entity.getCompany().getName(), entity.getCompany().getCatchPhrase(), entity.getCompany().getBs(),
+                entity.getVersion(), entity.getUpdatedAt());
+    }
+
+    @Benchmark
+    public UserDto entityToDto() {
+        return UserMapper.convertToDto(entity);
+    }
+
+    @Benchmark
+    public UserDto rowToDto() {
+        return UserMapper.convertToDto(row);
+    }
+
+    @Benchmark
+    public User dtoToEntity() {
+        return UserMapper.convertToEntity(dto);
+    }
+
+    @Benchmark
+    public User updateFromDto() {
+        UserMapper.updateUserFromDto(entity, dto);
+        return entity;
+    }
+}
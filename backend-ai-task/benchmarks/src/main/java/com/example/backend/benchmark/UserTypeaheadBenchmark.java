@@ -0,0 +1,89 @@
+package com.example.backend.benchmark;
+
+import com.example.backend.dto.UserSuggestionDto;
+import com.example.backend.service.UserTypeaheadIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Query latency of the in-memory typeahead index for top-10 lookups, from a
+ * one-letter prefix up to a two-term query. Setup prints the heap the index
+ * retains, measured after GC and scaled to a million users.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class UserTypeaheadBenchmark {
+
+    private static final String[] FIRST_NAMES = {
+        "Maria", "James", "Anna", "John", "Sofia", "Mohammed", "Olga", "Li", "Carlos", "Emma",
+        "Ivan", "Fatima", "Lucas", "Chloe", "Mateo", "Aiko", "Noah", "Zara", "Pavel", "Grace"
+    };
+    private static final String[] LAST_NAMES = {
+        "Smith", "Garcia", "Ivanova", "Chen", "Santos", "Kowalski", "Nguyen", "Muller", "Rossi", "Kim",
+        "Johnson", "Silva", "Petrov", "Tanaka", "Brown", "Lopez", "Novak", "Haddad", "Larsen", "Okafor"
+    };
+    private static final String[] DOMAINS = {"gmail.com", "example.org", "corp.io", "mail.net"};
+
+    @Param({"100000", "1000000"})
+    private int users;
+
+    @Param({"m", "san", "maria san", "mkowalski12"})
+    private String query;
+
+    private UserTypeaheadIndex index;
+
+    @Setup(Level.Trial)
+    public void buildIndex() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long before = usedHeapAfterGc(memory);
+
+        index = new UserTypeaheadIndex();
+        SplittableRandom random = new SplittableRandom(42);
+        long start = System.nanoTime();
+        for (int i = 1; i <= users; i++) {
+            String first = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+            String last = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            String username = (first.charAt(0) + last).toLowerCase() + i;
+            index.put(i, first + " " + last, username, username + "@" + DOMAINS[i % DOMAINS.length]);
+        }
+        long buildMillis = (System.nanoTime() - start) / 1_000_000;
+
+        long retained = usedHeapAfterGc(memory) - before;
+        System.out.printf("%n[typeahead] %,d users indexed in %,d ms; retained %,d KB measured, %,d KB estimated;"
+                        + " %.0f bytes/user, ~%,d MB per million users%n",
+                users, buildMillis, retained / 1024, index.estimatedHeapBytes() / 1024,
+                (double) retained / users, retained * (1_000_000L / users) / (1024 * 1024));
+    }
+
+    @Benchmark
+    public List<UserSuggestionDto> top10() {
+        return index.suggest(query, 10);
+    }
+
+    private static long usedHeapAfterGc(MemoryMXBean memory) {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
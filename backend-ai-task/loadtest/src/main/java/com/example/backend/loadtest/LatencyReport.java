@@ -0,0 +1,120 @@
+package com.example.backend.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency of every measured request, one HDR histogram per operation, in
+ * microseconds with three significant digits. Anything that is not a 2xx
+ * response, including transport failures, counts as an error and is recorded
+ * in the histogram as well, so slow failures still show up in the tail.
+ */
+final class LatencyReport {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Map<Operation, Recorder> recorders = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+    private final Map<Operation, String> firstErrors = new ConcurrentHashMap<>();
+    private final LongAdder dropped = new LongAdder();
+
+    LatencyReport() {
+        for (Operation operation : Operation.values()) {
+            recorders.put(operation, new Recorder(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS));
+            errors.put(operation, new LongAdder());
+        }
+    }
+
+    void record(Operation operation, long latencyNanos, int status) {
+        recordLatency(operation, latencyNanos);
+        if (status < 200 || status >= 300) {
+            recordError(operation, "HTTP " + status);
+        }
+    }
+
+    void recordFailure(Operation operation, long latencyNanos, Exception failure) {
+        recordLatency(operation, latencyNanos);
+        recordError(operation, failure.toString());
+    }
+
+    /**
+     * Counts an open-model arrival that was not sent because too many
+     * requests were already outstanding.
+     */
+    void recordDropped() {
+        dropped.increment();
+    }
+
+    /**
+     * Prints throughput and percentiles per endpoint and writes each
+     * histogram's full percentile distribution to {@code <out>/<operation>.hgrm}
+     * (plottable with HdrHistogram's plotter), plus {@code total.hgrm}.
+     */
+    void print(PrintStream out, Duration measured, Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Histogram total = new Histogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+        long totalErrors = 0;
+
+        out.printf("%-24s %9s %9s %7s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "req/s", "errors", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = recorders.get(operation).getIntervalHistogram();
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            long operationErrors = errors.get(operation).sum();
+            printRow(out, operation.endpoint(), histogram, operationErrors, measured);
+            write(histogram, directory.resolve(operation.key() + ".hgrm"));
+            total.add(histogram);
+            totalErrors += operationErrors;
+        }
+        printRow(out, "total", total, totalErrors, measured);
+        write(total, directory.resolve("total.hgrm"));
+
+        if (dropped.sum() > 0) {
+            out.printf("%d arrivals dropped at the in-flight limit%n", dropped.sum());
+        }
+        firstErrors.forEach((operation, error) -> out.printf("first %s error: %s%n", operation.key(), error));
+        out.printf("histograms written to %s%n", directory.toAbsolutePath());
+    }
+
+    private void recordLatency(Operation operation, long latencyNanos) {
+        long micros = Math.min(Math.max(TimeUnit.NANOSECONDS.toMicros(latencyNanos), 1), HIGHEST_TRACKABLE_MICROS);
+        recorders.get(operation).recordValue(micros);
+    }
+
+    private void recordError(Operation operation, String description) {
+        errors.get(operation).increment();
+        firstErrors.putIfAbsent(operation, description);
+    }
+
+    private static void printRow(PrintStream out, String label, Histogram histogram, long errors,
+                                 Duration measured) {
+        out.printf("%-24s %9d %9.1f %7d %9.2f %9.2f %9.2f %9.2f%n", label, histogram.getTotalCount(),
+                histogram.getTotalCount() / (measured.toMillis() / 1000.0), errors,
+                millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(99)),
+                millis(histogram.getValueAtPercentile(99.9)), millis(histogram.getMaxValue()));
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    private static void write(Histogram histogram, Path file) throws IOException {
+        try (PrintStream stream = new PrintStream(Files.newOutputStream(file))) {
+            histogram.outputPercentileDistribution(stream, 1000.0);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.backend.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives a {@link Workload} under the closed or the open model. Both run a
+ * warm-up first and only record requests that start inside the measured
+ * window, on virtual threads so thousands of outstanding requests cost no
+ * more than the sockets they hold.
+ */
+final class LoadDriver {
+
+    private final Workload workload;
+    private final OperationMix mix;
+    private final LatencyReport report;
+
+    LoadDriver(Workload workload, OperationMix mix, LatencyReport report) {
+        this.workload = workload;
+        this.mix = mix;
+        this.report = report;
+    }
+
+    /**
+     * Each of {@code clients} clients sends its next request as soon as the
+     * previous one returns, so throughput is whatever the application sustains
+     * at that concurrency and latency is measured from the actual send.
+     */
+    void runClosed(int clients, long warmupNanos, long durationNanos) throws InterruptedException {
+        long measureFrom = System.nanoTime() + warmupNanos;
+        long end = measureFrom + durationNanos;
+        List<Thread> threads = new ArrayList<>(clients);
+        for (int i = 0; i < clients; i++) {
+            threads.add(Thread.ofVirtual().name("client-" + i).start(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long start;
+                while ((start = System.nanoTime()) < end) {
+                    send(mix.next(random), random, start, start >= measureFrom);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    /**
+     * Requests arrive at {@code rate} per second on a fixed schedule no matter
+     * how long earlier ones take. Latency is measured from the time a request
+     * was due rather than when it was sent, so a stall in the application is
+     * charged to every request that queued behind it instead of being hidden
+     * by a generator that slowed down with it (coordinated omission). Arrivals
+     * while {@code maxInFlight} requests are outstanding are dropped and
+     * counted.
+     */
+    void runOpen(int rate, int maxInFlight, long warmupNanos, long durationNanos) throws InterruptedException {
+        long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        long begin = System.nanoTime();
+        long measureFrom = begin + warmupNanos;
+        long end = measureFrom + durationNanos;
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (long intended = begin; intended < end; intended += interval) {
+                long wait = intended - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                boolean measured = intended >= measureFrom;
+                if (!inFlight.tryAcquire()) {
+                    if (measured) {
+                        report.recordDropped();
+                    }
+                    continue;
+                }
+                Operation operation = mix.next(random);
+                long due = intended;
+                executor.execute(() -> {
+                    try {
+                        send(operation, ThreadLocalRandom.current(), due, measured);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+    }
+
+    private void send(Operation operation, ThreadLocalRandom random, long start, boolean measured) {
+        try {
+            int status = workload.execute(operation, random);
+            if (measured) {
+                report.record(operation, System.nanoTime() - start, status);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            if (measured) {
+                report.recordFailure(operation, System.nanoTime() - start, e);
+            }
+        }
+    }
+}
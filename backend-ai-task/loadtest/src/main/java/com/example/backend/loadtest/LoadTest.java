@@ -0,0 +1,71 @@
+package com.example.backend.loadtest;
+
+import com.example.backend.BackendAiTaskApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.Banner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.http.HttpClient;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * End-to-end HTTP load test of the auth and user endpoints. Starts the
+ * application in-process on a random port (in-memory H2 unless the usual
+ * {@code spring.datasource.*} settings say otherwise), or targets one that is
+ * already running with {@code --target=http://host:port}; seeds users, drives
+ * the operation mix under the closed or open model and prints throughput and
+ * p50/p99/p99.9 latency per endpoint.
+ *
+ * <pre>
+ * java -jar target/loadtest.jar --model=closed --clients=64 --duration=30
+ * java -jar target/loadtest.jar --model=open --rate=500 --mix=get=80,list=20
+ * </pre>
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        ConfigurableApplicationContext context = options.target() == null ? start(options.applicationArgs()) : null;
+        try {
+            String baseUrl = context == null
+                    ? options.target().replaceAll("/+$", "")
+                    : "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            HttpClient client = HttpClient.newHttpClient();
+            ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+            Workload workload = Workload.prepare(client, baseUrl, objectMapper, options.users());
+            System.out.printf("%s against %s with %d seeded users%n", options.describe(), baseUrl,
+                    workload.seededUsers());
+
+            LatencyReport report = new LatencyReport();
+            LoadDriver driver = new LoadDriver(workload, options.mix(), report);
+            long warmup = options.warmup().toNanos();
+            long duration = options.duration().toNanos();
+            switch (options.model()) {
+                case CLOSED -> driver.runClosed(options.clients(), warmup, duration);
+                case OPEN -> driver.runOpen(options.rate(), options.maxInFlight(), warmup, duration);
+            }
+            report.print(System.out, options.duration(), options.out());
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext start(String[] applicationArgs) {
+        List<String> args = new ArrayList<>(List.of("--server.port=0"));
+        args.addAll(List.of(applicationArgs));
+        SpringApplication application = new SpringApplication(BackendAiTaskApplication.class);
+        application.setWebApplicationType(WebApplicationType.SERVLET);
+        application.setBannerMode(Banner.Mode.OFF);
+        application.setAdditionalProfiles("loadtest");
+        return application.run(args.toArray(String[]::new));
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.backend.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Command-line options of a load-test run, given as {@code --name=value}.
+ * Arguments the harness does not know are passed on to the application it
+ * starts, so {@code --spring.datasource.url=...} points an in-process run at
+ * another database.
+ */
+record LoadTestOptions(
+        Model model,
+        int clients,
+        int rate,
+        int maxInFlight,
+        Duration warmup,
+        Duration duration,
+        int users,
+        OperationMix mix,
+        String target,
+        Path out,
+        String[] applicationArgs) {
+
+    /**
+     * Closed: a fixed number of clients, each sending its next request when
+     * the previous one returns. Open: requests arrive at a fixed rate whether
+     * or not earlier ones have returned.
+     */
+    enum Model {
+        CLOSED, OPEN
+    }
+
+    private static final Set<String> NAMES = Set.of(
+            "model", "clients", "rate", "max-in-flight", "warmup", "duration", "users", "mix", "target", "out");
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        List<String> applicationArgs = new ArrayList<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            String name = arg.startsWith("--") && equals > 2 ? arg.substring(2, equals) : null;
+            if (name != null && NAMES.contains(name)) {
+                values.put(name, arg.substring(equals + 1));
+            } else {
+                applicationArgs.add(arg);
+            }
+        }
+
+        int rate = Integer.parseInt(values.getOrDefault("rate", "200"));
+        LoadTestOptions options = new LoadTestOptions(
+                Model.valueOf(values.getOrDefault("model", "closed").toUpperCase()),
+                Integer.parseInt(values.getOrDefault("clients", "64")),
+                rate,
+                Integer.parseInt(values.getOrDefault("max-in-flight", String.valueOf(Math.max(rate * 10, 1_000)))),
+                Duration.ofSeconds(Long.parseLong(values.getOrDefault("warmup", "10"))),
+                Duration.ofSeconds(Long.parseLong(values.getOrDefault("duration", "30"))),
+                Integer.parseInt(values.getOrDefault("users", "1000")),
+                OperationMix.parse(values.getOrDefault("mix", OperationMix.DEFAULT)),
+                values.get("target"),
+                Path.of(values.getOrDefault("out", "target/loadtest")),
+                applicationArgs.toArray(String[]::new));
+        if (options.clients < 1 || options.rate < 1 || options.maxInFlight < 1 || options.users < 1) {
+            throw new IllegalArgumentException("clients, rate, max-in-flight and users must be positive");
+        }
+        return options;
+    }
+
+    String describe() {
+        String load = model == Model.CLOSED
+                ? clients + " clients"
+                : rate + " req/s, at most " + maxInFlight + " in flight";
+        return String.format("%s model, %s, %ds warm-up, %ds measured, %d users, mix %s",
+                model.name().toLowerCase(), load, warmup.toSeconds(), duration.toSeconds(), users, mix);
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.backend.loadtest;
+
+import java.util.Locale;
+
+/**
+ * The requests a workload can mix, keyed by their lower-case name in a mix
+ * specification such as {@code get=50,list=20,login=5}.
+ */
+enum Operation {
+    LOGIN("POST /api/auth/login"),
+    LIST("GET /api/users/page"),
+    GET("GET /api/users/{id}"),
+    CREATE("POST /api/users"),
+    UPDATE("PUT /api/users/{id}"),
+    DELETE("DELETE /api/users/{id}");
+
+    private final String endpoint;
+
+    Operation(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    String endpoint() {
+        return endpoint;
+    }
+
+    String key() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    static Operation fromKey(String key) {
+        for (Operation operation : values()) {
+            if (operation.key().equals(key.trim().toLowerCase(Locale.ROOT))) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation '" + key + "'");
+    }
+}
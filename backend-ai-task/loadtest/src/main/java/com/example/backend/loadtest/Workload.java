@@ -0,0 +1,195 @@
+package com.example.backend.loadtest;
+
+import com.example.backend.dto.AddressDto;
+import com.example.backend.dto.BulkCreateResponse;
+import com.example.backend.dto.BulkItemResult;
+import com.example.backend.dto.CompanyDto;
+import com.example.backend.dto.GeoDto;
+import com.example.backend.dto.LoginRequest;
+import com.example.backend.dto.RegisterRequest;
+import com.example.backend.dto.UserDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Issues the requests behind each {@link Operation} against one running
+ * application. Reads and updates target the users seeded up front, which are
+ * never deleted; deletes consume users created during the run, creating an
+ * unmeasured victim first when none is left, so every request hits a row
+ * that exists.
+ */
+final class Workload {
+
+    private static final int SEED_CHUNK = 500;
+    private static final String PASSWORD = "load-test-password";
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final ObjectMapper objectMapper;
+    private final String email;
+    private final String bearer;
+    private final long[] seededIds;
+    private final Queue<Long> createdIds = new ConcurrentLinkedQueue<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    private Workload(HttpClient client, String baseUrl, ObjectMapper objectMapper, String email, String token,
+                     long[] seededIds) {
+        this.client = client;
+        this.baseUrl = baseUrl;
+        this.objectMapper = objectMapper;
+        this.email = email;
+        this.bearer = "Bearer " + token;
+        this.seededIds = seededIds;
+    }
+
+    /**
+     * Registers the account the run logs in with and seeds {@code users} users
+     * through the bulk endpoint.
+     */
+    static Workload prepare(HttpClient client, String baseUrl, ObjectMapper objectMapper, int users)
+            throws IOException, InterruptedException {
+        RegisterRequest register = new RegisterRequest();
+        register.setName("Load Test");
+        register.setUsername("loadtest");
+        register.setEmail("loadtest-" + System.currentTimeMillis() + "@example.com");
+        register.setPassword(PASSWORD);
+        HttpResponse<byte[]> registered = send(client, json(baseUrl + "/api/auth/register", "POST",
+                objectMapper.writeValueAsBytes(register)).build());
+        String token = objectMapper.readTree(registered.body()).path("token").asText();
+
+        List<Long> ids = new ArrayList<>(users);
+        for (int from = 0; from < users; from += SEED_CHUNK) {
+            List<UserDto> chunk = new ArrayList<>();
+            for (int i = from; i < Math.min(users, from + SEED_CHUNK); i++) {
+                chunk.add(user("seed" + i, i));
+            }
+            HttpResponse<byte[]> seeded = send(client, json(baseUrl + "/api/users/bulk", "POST",
+                    objectMapper.writeValueAsBytes(chunk)).header("Authorization", "Bearer " + token).build());
+            BulkCreateResponse response = objectMapper.readValue(seeded.body(), BulkCreateResponse.class);
+            response.getResults().stream()
+                    .filter(result -> result.getStatus() == BulkItemResult.Status.CREATED)
+                    .forEach(result -> ids.add(result.getId()));
+        }
+        if (ids.isEmpty()) {
+            throw new IllegalStateException("No users could be seeded");
+        }
+        return new Workload(client, baseUrl, objectMapper, register.getEmail(), token,
+                ids.stream().mapToLong(Long::longValue).toArray());
+    }
+
+    int seededUsers() {
+        return seededIds.length;
+    }
+
+    /**
+     * Sends one request for the operation and returns its HTTP status.
+     */
+    int execute(Operation operation, ThreadLocalRandom random) throws IOException, InterruptedException {
+        return switch (operation) {
+            case LOGIN -> {
+                LoginRequest login = new LoginRequest();
+                login.setEmail(email);
+                login.setPassword(PASSWORD);
+                yield send(json(baseUrl + "/api/auth/login", "POST", objectMapper.writeValueAsBytes(login)))
+                        .statusCode();
+            }
+            case LIST -> send(authorized(baseUrl + "/api/users/page?limit=20").GET()).statusCode();
+            case GET -> send(authorized(baseUrl + "/api/users/" + randomSeededId(random)).GET()).statusCode();
+            case CREATE -> create().statusCode();
+            case UPDATE -> {
+                long id = randomSeededId(random);
+                UserDto user = user("updated" + sequence.incrementAndGet(), (int) id);
+                yield send(authorizedJson(baseUrl + "/api/users/" + id, "PUT", objectMapper.writeValueAsBytes(user)))
+                        .statusCode();
+            }
+            case DELETE -> {
+                Long id = createdIds.poll();
+                if (id == null) {
+                    create();
+                    id = createdIds.poll();
+                }
+                yield id == null ? 0 : send(authorized(baseUrl + "/api/users/" + id).DELETE()).statusCode();
+            }
+        };
+    }
+
+    private HttpResponse<byte[]> create() throws IOException, InterruptedException {
+        UserDto user = user("created" + sequence.incrementAndGet(), random().nextInt(1_000_000));
+        HttpResponse<byte[]> response =
+                send(authorizedJson(baseUrl + "/api/users", "POST", objectMapper.writeValueAsBytes(user)));
+        if (response.statusCode() == 200) {
+            createdIds.add(objectMapper.readTree(response.body()).path("id").asLong());
+        }
+        return response;
+    }
+
+    private long randomSeededId(ThreadLocalRandom random) {
+        return seededIds[random.nextInt(seededIds.length)];
+    }
+
+    private HttpRequest.Builder authorized(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).header("Authorization", bearer);
+    }
+
+    private HttpRequest.Builder authorizedJson(String url, String method, byte[] body) {
+        return json(url, method, body).header("Authorization", bearer);
+    }
+
+    private HttpResponse<byte[]> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return send(client, request.build());
+    }
+
+    private static HttpRequest.Builder json(String url, String method, byte[] body) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofByteArray(body));
+    }
+
+    private static HttpResponse<byte[]> send(HttpClient client, HttpRequest request)
+            throws IOException, InterruptedException {
+        return client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static ThreadLocalRandom random() {
+        return ThreadLocalRandom.current();
+    }
+
+    private static UserDto user(String handle, int i) {
+        GeoDto geo = new GeoDto();
+        geo.setLat(String.valueOf(-80 + (i % 160)));
+        geo.setLng(String.valueOf(-170 + (i % 340)));
+
+        AddressDto address = new AddressDto();
+        address.setStreet(i + " Load Street");
+        address.setSuite("Suite " + (i % 1000));
+        address.setCity("City " + (i % 50));
+        address.setZipcode(String.format("%05d", i % 100_000));
+        address.setGeo(geo);
+
+        CompanyDto company = new CompanyDto();
+        company.setName("Company " + (i % 200));
+        company.setCatchPhrase("Loaded synergy " + i);
+        company.setBs("measure everything");
+
+        UserDto dto = new UserDto();
+        dto.setName("Load User " + handle);
+        dto.setUsername(handle);
+        dto.setEmail(handle + "@example.com");
+        dto.setPhone("555-" + String.format("%04d", i % 10_000));
+        dto.setWebsite(handle + ".example.com");
+        dto.setAddress(address);
+        dto.setCompany(company);
+        return dto;
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.reactive;
+
+import com.example.backend.dto.UserDto;
+import com.example.backend.dto.UserPageDto;
+import com.example.backend.exception.BadRequestException;
+import com.example.backend.exception.ResourceNotFoundException;
+import com.example.backend.service.PageCursor;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of the servlet {@code UserController} read endpoints,
+ * with the same paths and response shapes. Writes stay on the servlet
+ * application.
+ */
+@RestController
+@RequestMapping("/api/users")
+@RequiredArgsConstructor
+public class ReactiveUserController {
+
+    private final ReactiveUserRepository userRepository;
+
+    @Value("${users.pagination.default-limit:20}")
+    private int defaultPageLimit;
+
+    @Value("${users.pagination.max-limit:100}")
+    private int maxPageLimit;
+
+    @Value("${users.stream.fetch-size:1000}")
+    private int streamFetchSize;
+
+    /**
+     * Streams the table as a JSON array, or one user per line for
+     * {@code application/x-ndjson}. Either way rows are only read as fast as the
+     * client takes them.
+     */
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<UserDto> getAllUsers() {
+        return userRepository.findAll(streamFetchSize);
+    }
+
+    @GetMapping("/page")
+    public Mono<UserPageDto> getUsersPage(@RequestParam(required = false) String cursor,
+                                          @RequestParam(required = false) Integer limit) {
+        int pageLimit = resolvePageLimit(limit);
+        long afterId = cursor == null || cursor.isBlank() ? 0L : PageCursor.decode(cursor);
+
+        // Fetch one extra row to learn whether another page follows without counting
+        return Mono.zip(userRepository.findAfter(afterId, pageLimit + 1).collectList(), userRepository.estimateCount())
+                .map(result -> {
+                    List<UserDto> rows = result.getT1();
+                    boolean hasMore = rows.size() > pageLimit;
+                    List<UserDto> items = hasMore ? rows.subList(0, pageLimit) : rows;
+                    String next = hasMore ? PageCursor.encode(items.get(items.size() - 1).getId()) : null;
+                    return new UserPageDto(items, next, result.getT2());
+                });
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<UserDto>> getUserById(@PathVariable Long id, ServerWebExchange exchange) {
+        return userRepository.findById(id)
+                .switchIfEmpty(Mono.error(() ->
+                        new ResourceNotFoundException("User not found with id : '" + id + "'")))
+                .map(user -> {
+                    String etag = "\"" + user.getVersion() + "\"";
+                    if (exchange.checkNotModified(etag, user.getUpdatedAt())) {
+                        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                                .eTag(etag)
+                                .lastModified(user.getUpdatedAt())
+                                .build();
+                    }
+                    return ResponseEntity.ok()
+                            .eTag(etag)
+                            .lastModified(user.getUpdatedAt())
+                            .body(user);
+                });
+    }
+
+    private int resolvePageLimit(Integer limit) {
+        if (limit == null) {
+            return defaultPageLimit;
+        }
+        if (limit < 1) {
+            throw new BadRequestException("Page limit must be positive");
+        }
+        return Math.min(limit, maxPageLimit);
+    }
+}
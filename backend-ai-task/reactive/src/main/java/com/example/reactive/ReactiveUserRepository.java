@@ -0,0 +1,132 @@
+package com.example.reactive;
+
+import com.example.backend.dto.AddressDto;
+import com.example.backend.dto.CompanyDto;
+import com.example.backend.dto.GeoDto;
+import com.example.backend.dto.UserDto;
+import com.example.backend.service.UserMapper;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Readable;
+import java.time.OffsetDateTime;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reads the Flyway-managed {@code users} table over R2DBC and maps rows straight
+ * to {@link UserDto}, the same way the servlet application maps its read-only
+ * row projection.
+ */
+@Repository
+public class ReactiveUserRepository {
+
+    private static final String SELECT_ROW = "SELECT id, user_name, username, email, street, suite, city, zipcode, "
+            + "geo_lat, geo_lng, phone, website, company_name, company_catch_phrase, company_bs, version, updated_at "
+            + "FROM users ";
+
+    private static final String POSTGRES_ESTIMATE_SQL =
+            "SELECT reltuples::bigint FROM pg_class WHERE oid = 'users'::regclass";
+
+    private final DatabaseClient databaseClient;
+    private final boolean postgres;
+
+    public ReactiveUserRepository(DatabaseClient databaseClient, ConnectionFactory connectionFactory) {
+        this.databaseClient = databaseClient;
+        this.postgres = "PostgreSQL".equalsIgnoreCase(connectionFactory.getMetadata().getName());
+    }
+
+    /**
+     * Every user in id order. Rows are fetched {@code fetchSize} at a time as
+     * the subscriber asks for them (a portal on PostgreSQL), so a slow client
+     * holds back the query instead of the rows piling up in memory.
+     */
+    public Flux<UserDto> findAll(int fetchSize) {
+        return databaseClient.sql(SELECT_ROW + "ORDER BY id")
+                .filter(statement -> statement.fetchSize(fetchSize))
+                .map(ReactiveUserRepository::toDto)
+                .all();
+    }
+
+    public Mono<UserDto> findById(long id) {
+        return databaseClient.sql(SELECT_ROW + "WHERE id = :id")
+                .bind("id", id)
+                .map(ReactiveUserRepository::toDto)
+                .one();
+    }
+
+    public Flux<UserDto> findAfter(long afterId, int limit) {
+        return databaseClient.sql(SELECT_ROW + "WHERE id > :afterId ORDER BY id LIMIT :limit")
+                .bind("afterId", afterId)
+                .bind("limit", limit)
+                .map(ReactiveUserRepository::toDto)
+                .all();
+    }
+
+    public Mono<Long> estimateCount() {
+        Mono<Long> count = databaseClient.sql("SELECT COUNT(*) FROM users")
+                .map(row -> row.get(0, Long.class))
+                .one();
+        if (!postgres) {
+            return count;
+        }
+        // reltuples is -1 until the table has been vacuumed or analyzed once
+        return databaseClient.sql(POSTGRES_ESTIMATE_SQL)
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .filter(estimate -> estimate >= 0)
+                .switchIfEmpty(count);
+    }
+
+    private static UserDto toDto(Readable row) {
+        UserDto dto = new UserDto();
+        dto.setId(row.get("id", Long.class));
+        dto.setName(row.get("user_name", String.class));
+        dto.setUsername(row.get("username", String.class));
+        dto.setEmail(row.get("email", String.class));
+        dto.setPhone(row.get("phone", String.class));
+        dto.setWebsite(row.get("website", String.class));
+        dto.setVersion(row.get("version", Long.class));
+        OffsetDateTime updatedAt = row.get("updated_at", OffsetDateTime.class);
+        dto.setUpdatedAt(updatedAt != null ? updatedAt.toInstant() : null);
+
+        String street = row.get("street", String.class);
+        String suite = row.get("suite", String.class);
+        String city = row.get("city", String.class);
+        String zipcode = row.get("zipcode", String.class);
+        Double geoLat = row.get("geo_lat", Double.class);
+        Double geoLng = row.get("geo_lng", Double.class);
+
+        // Mirror Hibernate's embeddable handling: an all-null group maps to null
+        boolean hasGeo = geoLat != null || geoLng != null;
+        if (hasGeo || street != null || suite != null || city != null || zipcode != null) {
+            AddressDto addressDto = new AddressDto();
+            addressDto.setStreet(street);
+            addressDto.setSuite(suite);
+            addressDto.setCity(city);
+            addressDto.setZipcode(zipcode);
+
+            if (hasGeo) {
+                GeoDto geoDto = new GeoDto();
+                geoDto.setLat(UserMapper.formatCoordinate(geoLat));
+                geoDto.setLng(UserMapper.formatCoordinate(geoLng));
+                addressDto.setGeo(geoDto);
+            }
+
+            dto.setAddress(addressDto);
+        }
+
+        String companyName = row.get("company_name", String.class);
+        String companyCatchPhrase = row.get("company_catch_phrase", String.class);
+        String companyBs = row.get("company_bs", String.class);
+        if (companyName != null || companyCatchPhrase != null || companyBs != null) {
+            CompanyDto companyDto = new CompanyDto();
+            companyDto.setName(companyName);
+            companyDto.setCatchPhrase(companyCatchPhrase);
+            companyDto.setBs(companyBs);
+            dto.setCompany(companyDto);
+        }
+
+        return dto;
+    }
+}
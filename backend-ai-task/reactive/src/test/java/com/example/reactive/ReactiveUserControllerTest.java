@@ -0,0 +1,156 @@
+package com.example.reactive;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.backend.dto.UserDto;
+import com.example.backend.dto.UserPageDto;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.test.StepVerifier;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class ReactiveUserControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private ReactiveUserRepository userRepository;
+
+    private Long firstId;
+
+    @BeforeEach
+    void setUp() {
+        databaseClient.sql("DELETE FROM users").then().block();
+        for (int i = 1; i <= 5; i++) {
+            databaseClient.sql("INSERT INTO users (user_name, username, email, city, geo_lat, geo_lng, company_name) "
+                            + "VALUES (:name, :username, :email, 'Gwenborough', -37.3159, 81.1496, 'Romaguera-Crona')")
+                    .bind("name", "User " + i)
+                    .bind("username", "user" + i)
+                    .bind("email", "user" + i + "@example.com")
+                    .then()
+                    .block();
+        }
+        firstId = databaseClient.sql("SELECT MIN(id) FROM users")
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .block();
+    }
+
+    @Test
+    void getAllUsers_ShouldStreamJsonArrayInIdOrder() {
+        List<UserDto> users = webTestClient.get().uri("/api/users")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(UserDto.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertThat(users).extracting(UserDto::getUsername)
+                .containsExactly("user1", "user2", "user3", "user4", "user5");
+        assertThat(users.get(0).getAddress().getGeo().getLat()).isEqualTo("-37.3159");
+        assertThat(users.get(0).getAddress().getStreet()).isNull();
+        assertThat(users.get(0).getCompany().getName()).isEqualTo("Romaguera-Crona");
+    }
+
+    @Test
+    void getAllUsers_AsNdjson_ShouldWriteOneUserPerLine() {
+        String body = webTestClient.get().uri("/api/users")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertThat(body.lines()).hasSize(5);
+        assertThat(body.lines().findFirst().orElseThrow()).contains("\"username\":\"user1\"");
+    }
+
+    @Test
+    void findAll_ShouldOnlyEmitWhatTheSubscriberRequests() {
+        StepVerifier.create(userRepository.findAll(2), 1)
+                .assertNext(user -> assertThat(user.getUsername()).isEqualTo("user1"))
+                .expectNoEvent(Duration.ofMillis(100))
+                .thenRequest(4)
+                .expectNextCount(4)
+                .verifyComplete();
+    }
+
+    @Test
+    void getUserById_ShouldReturnUserWithValidators() {
+        webTestClient.get().uri("/api/users/{id}", firstId)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"0\"")
+                .expectHeader().exists(HttpHeaders.LAST_MODIFIED)
+                .expectBody()
+                .jsonPath("$.username").isEqualTo("user1")
+                .jsonPath("$.version").doesNotExist();
+    }
+
+    @Test
+    void getUserById_WithMatchingIfNoneMatch_ShouldReturnNotModified() {
+        webTestClient.get().uri("/api/users/{id}", firstId)
+                .header(HttpHeaders.IF_NONE_MATCH, "W/\"0\"")
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+    }
+
+    @Test
+    void getUserById_WhenMissing_ShouldReturnNotFound() {
+        webTestClient.get().uri("/api/users/{id}", firstId + 1000)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void getUsersPage_ShouldWalkAllUsersWithCursors() {
+        UserPageDto first = webTestClient.get().uri("/api/users/page?limit=3")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(UserPageDto.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertThat(first.getItems()).extracting(UserDto::getUsername).containsExactly("user1", "user2", "user3");
+        assertThat(first.getApproximateTotal()).isEqualTo(5);
+        assertThat(first.getNext()).isNotNull();
+
+        UserPageDto second = webTestClient.get().uri("/api/users/page?limit=3&cursor={cursor}", first.getNext())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(UserPageDto.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertThat(second.getItems()).extracting(UserDto::getUsername).containsExactly("user4", "user5");
+        assertThat(second.getNext()).isNull();
+    }
+
+    @Test
+    void getUsersPage_WithInvalidLimitOrCursor_ShouldReturnBadRequest() {
+        webTestClient.get().uri("/api/users/page?limit=0")
+                .exchange()
+                .expectStatus().isBadRequest();
+        webTestClient.get().uri("/api/users/page?cursor=not-a-cursor")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+}
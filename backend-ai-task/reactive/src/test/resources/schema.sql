@@ -0,0 +1,19 @@
+CREATE TABLE IF NOT EXISTS users (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_name VARCHAR(255) NOT NULL,
+    username VARCHAR(255) NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    street VARCHAR(255),
+    suite VARCHAR(255),
+    city VARCHAR(255),
+    zipcode VARCHAR(255),
+    geo_lat DOUBLE PRECISION,
+    geo_lng DOUBLE PRECISION,
+    phone VARCHAR(255),
+    website VARCHAR(255),
+    company_name VARCHAR(255),
+    company_catch_phrase VARCHAR(255),
+    company_bs VARCHAR(255),
+    version BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
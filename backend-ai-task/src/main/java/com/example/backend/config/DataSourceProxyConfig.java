@@ -0,0 +1,71 @@
+package com.example.backend.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Wraps the application's data sources in a JDBC proxy that sees every
+ * statement with its execution time, for the {@link SlowQueryLog} and the
+ * per-request statement counts and times in {@link RequestStatistics}. The
+ * pool behind the proxy is unchanged and still reports its own metrics.
+ */
+@Configuration
+public class DataSourceProxyConfig {
+
+    @Bean
+    public static BeanPostProcessor dataSourceProxyPostProcessor(ObjectProvider<MeterRegistry> meterRegistry,
+                                                                 Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ProxyDataSource) {
+                    return bean;
+                }
+                SlowQueryLog slowQueryLog = new SlowQueryLog(
+                        environment.getProperty("db.slow-query.threshold", Duration.class, Duration.ofMillis(200)),
+                        environment.getProperty("db.slow-query.sample-rate", Double.class, 1.0),
+                        meterRegistry.getObject());
+                return ProxyDataSourceBuilder.create(beanName, dataSource)
+                        .listener(slowQueryLog)
+                        .listener(new RequestStatementCounter())
+                        .build();
+            }
+        };
+    }
+
+    private static final class RequestStatementCounter implements QueryExecutionListener {
+
+        private static final String START = "requestStatistics.start";
+
+        @Override
+        public void beforeQuery(ExecutionInfo execution, List<QueryInfo> queries) {
+            if (RequestStatistics.current() != null) {
+                execution.addCustomValue(START, System.nanoTime());
+            }
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execution, List<QueryInfo> queries) {
+            RequestStatistics statistics = RequestStatistics.current();
+            Long start = execution.getCustomValue(START, Long.class);
+            if (statistics != null && start != null) {
+                // A batch is one round trip of one statement, however many rows it carries
+                statistics.statementExecuted(queries.isEmpty() ? "" : queries.get(0).getQuery(),
+                        System.nanoTime() - start);
+            }
+        }
+    }
+}
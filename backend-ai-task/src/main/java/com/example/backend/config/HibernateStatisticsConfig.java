@@ -0,0 +1,102 @@
+package com.example.backend.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.AutoFlushEventListener;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.FlushEventListener;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.jpa.boot.spi.JpaSettings;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Attributes Hibernate entity loads and flushes to the current
+ * {@link RequestStatistics}. Session-factory wide totals come from Hibernate's
+ * own statistics ({@code hibernate.generate_statistics}), which Spring Boot
+ * publishes as the {@code hibernate.*} meters, to which this adds the hit ratio
+ * of each second-level cache region.
+ */
+@Configuration
+public class HibernateStatisticsConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer requestStatisticsIntegrator() {
+        return properties -> properties.put(JpaSettings.INTEGRATOR_PROVIDER,
+                (IntegratorProvider) () -> List.of(new RequestStatisticsIntegrator()));
+    }
+
+    /**
+     * {@code hibernate.cache.region.hit.ratio}: hits over lookups since startup
+     * for each second-level cache region, including the natural-id regions.
+     * The hit and miss counts themselves are in
+     * {@code hibernate.second.level.cache.requests}.
+     */
+    @Bean
+    public MeterBinder cacheRegionHitRatios(EntityManagerFactory entityManagerFactory) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getStatistics();
+        return registry -> {
+            for (String region : statistics.getSecondLevelCacheRegionNames()) {
+                Gauge.builder("hibernate.cache.region.hit.ratio", statistics, stats -> hitRatio(stats, region))
+                        .description("Share of second-level cache lookups in the region that were hits")
+                        .tag("region", region)
+                        .register(registry);
+            }
+        };
+    }
+
+    static double hitRatio(Statistics statistics, String region) {
+        CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+        if (regionStatistics == null) {
+            return Double.NaN;
+        }
+        long lookups = regionStatistics.getHitCount() + regionStatistics.getMissCount();
+        return lookups == 0 ? Double.NaN : (double) regionStatistics.getHitCount() / lookups;
+    }
+
+    static final class RequestStatisticsIntegrator implements Integrator {
+
+        @Override
+        public void integrate(Metadata metadata, BootstrapContext bootstrapContext,
+                              SessionFactoryImplementor sessionFactory) {
+            EventListenerRegistry listeners = sessionFactory.getServiceRegistry()
+                    .getService(EventListenerRegistry.class);
+            listeners.appendListeners(EventType.POST_LOAD,
+                    (PostLoadEventListener) event -> count(RequestStatistics::entityLoaded));
+            listeners.appendListeners(EventType.FLUSH,
+                    (FlushEventListener) event -> count(RequestStatistics::flushed));
+            // Runs after the default listener, which decides whether the query needed a flush
+            listeners.appendListeners(EventType.AUTO_FLUSH, (AutoFlushEventListener) event -> {
+                if (event.isFlushRequired()) {
+                    count(RequestStatistics::flushed);
+                }
+            });
+        }
+
+        @Override
+        public void disintegrate(SessionFactoryImplementor sessionFactory,
+                                 SessionFactoryServiceRegistry serviceRegistry) {
+        }
+
+        private static void count(Consumer<RequestStatistics> counter) {
+            RequestStatistics statistics = RequestStatistics.current();
+            if (statistics != null) {
+                counter.accept(statistics);
+            }
+        }
+    }
+}
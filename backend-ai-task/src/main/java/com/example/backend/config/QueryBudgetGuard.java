@@ -0,0 +1,80 @@
+package com.example.backend.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checks each request's statements against the budget for its endpoint, keyed
+ * as {@code "GET /api/users/{id}"} under {@code db.query-budget.endpoints}
+ * and falling back to {@code default-limit}, and against repetition: the same
+ * statement shape run {@code repeated-statement-limit} times or more in one
+ * request is reported as a probable N+1. Violations are always counted under
+ * {@code request.db.budget.violations}; with {@code db.query-budget.warn} on
+ * they are logged as well.
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(QueryBudgetGuard.Budgets.class)
+public class QueryBudgetGuard {
+
+    @ConfigurationProperties("db.query-budget")
+    public record Budgets(boolean warn, @DefaultValue("10") int defaultLimit,
+                          @DefaultValue("5") int repeatedStatementLimit, Map<String, Integer> endpoints) {
+
+        public Budgets {
+            endpoints = endpoints == null ? Map.of() : Map.copyOf(endpoints);
+        }
+    }
+
+    private final Budgets budgets;
+    private final MeterRegistry meterRegistry;
+
+    public QueryBudgetGuard(Budgets budgets, MeterRegistry meterRegistry) {
+        this.budgets = budgets;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public int budgetFor(String endpoint) {
+        return budgets.endpoints().getOrDefault(endpoint, budgets.defaultLimit());
+    }
+
+    /**
+     * Describes every way the request broke its budget; empty when it did not.
+     */
+    public List<String> violations(String endpoint, RequestStatistics statistics) {
+        List<String> violations = new ArrayList<>();
+        int budget = budgetFor(endpoint);
+        if (statistics.statements() > budget) {
+            violations.add(String.format("%s ran %d statements, over its budget of %d",
+                    endpoint, statistics.statements(), budget));
+        }
+        statistics.repeatedStatements(budgets.repeatedStatementLimit()).forEach((shape, times) ->
+                violations.add(String.format("%s ran the same statement %d times, a likely N+1: %s",
+                        endpoint, times, shape)));
+        return violations;
+    }
+
+    void check(String method, String uri, RequestStatistics statistics) {
+        List<String> violations = violations(method + " " + uri, statistics);
+        if (violations.isEmpty()) {
+            return;
+        }
+        Counter.builder("request.db.budget.violations")
+                .description("Requests over their statement budget or repeating a statement shape")
+                .tags("method", method, "uri", uri)
+                .register(meterRegistry)
+                .increment();
+        if (budgets.warn()) {
+            violations.forEach(log::warn);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * With {@code db.replicas.enabled}, replaces the single data source with a
+ * {@link ReadWriteRoutingDataSource}: the primary is the pool configured under
+ * {@code spring.datasource}, and each URL in {@code db.replicas.urls} gets a
+ * pool of its own with the same settings, read-only and with a short
+ * connection timeout so a dead replica is skipped quickly. Flyway, Hibernate
+ * and every read-write transaction keep using the primary.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "db.replicas", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(ReadReplicaConfig.Replicas.class)
+public class ReadReplicaConfig {
+
+    @ConfigurationProperties("db.replicas")
+    public record Replicas(boolean enabled, List<String> urls, String username, String password,
+                           @DefaultValue("5s") Duration healthCheckInterval,
+                           @DefaultValue("1s") Duration connectionTimeout,
+                           @DefaultValue("0s") Duration readYourWrites) {
+
+        public Replicas {
+            urls = urls == null ? List.of() : List.copyOf(urls);
+        }
+    }
+
+    @Bean
+    public ReadWriteRoutingDataSource dataSource(DataSourceProperties properties, Replicas replicas,
+                                                 Environment environment, MeterRegistry meterRegistry) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+
+        List<HikariDataSource> replicaPools = new ArrayList<>();
+        for (int i = 0; i < replicas.urls().size(); i++) {
+            HikariDataSource replica = new HikariDataSource();
+            primary.copyStateTo(replica);
+            replica.setPoolName("replica-" + (i + 1));
+            replica.setJdbcUrl(replicas.urls().get(i));
+            if (replicas.username() != null) {
+                replica.setUsername(replicas.username());
+                replica.setPassword(replicas.password());
+            }
+            replica.setReadOnly(true);
+            replica.setConnectionTimeout(replicas.connectionTimeout().toMillis());
+            // Start even when a replica is down; the health checks bring it in later
+            replica.setInitializationFailTimeout(-1);
+            replica.setMetricRegistry(meterRegistry);
+            replicaPools.add(replica);
+        }
+        return new ReadWriteRoutingDataSource(primary, replicaPools, replicas.healthCheckInterval(), meterRegistry);
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(Replicas replicas) {
+        return new ReadYourWritesFilter(replicas.readYourWrites());
+    }
+}
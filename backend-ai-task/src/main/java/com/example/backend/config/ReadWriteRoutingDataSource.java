@@ -0,0 +1,176 @@
+package com.example.backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions to the replicas and everything else to the
+ * primary. Connections are handed out lazily, so the choice is made at the
+ * first statement, once the transaction has marked its connection read-only.
+ *
+ * <p>Reads go round-robin to the replicas that passed their last health
+ * check. A replica that fails to give a connection is taken out until a later
+ * check finds it answering again, and when no replica is up reads fall back to
+ * the primary. A thread pinned with {@link #pinToPrimary()} reads from the
+ * primary too, to see its client's own recent writes.
+ *
+ * <p>Closing it closes every pool and stops the health checks. It is
+ * {@link AutoCloseable} rather than a {@code DisposableBean} so that closing
+ * the JDBC proxy the context hands out, which only passes {@code close()} on,
+ * closes the pools too.
+ */
+@Slf4j
+public class ReadWriteRoutingDataSource extends LazyConnectionDataSourceProxy implements AutoCloseable {
+
+    private static final ThreadLocal<Boolean> PINNED_TO_PRIMARY = new ThreadLocal<>();
+
+    private final HikariDataSource primary;
+    private final List<Replica> replicas;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final ScheduledExecutorService healthChecks;
+    private final Counter primaryReads;
+
+    public ReadWriteRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas,
+                                      Duration healthCheckInterval, MeterRegistry meterRegistry) {
+        super(primary);
+        this.primary = primary;
+        this.replicas = replicas.stream().map(pool -> new Replica(pool, meterRegistry)).toList();
+        this.primaryReads = readCounter("primary", meterRegistry);
+        setReadOnlyDataSource(new ReplicaDataSource());
+
+        this.healthChecks = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "db-replica-health");
+            thread.setDaemon(true);
+            return thread;
+        });
+        healthChecks.scheduleWithFixedDelay(this::checkReplicas, 0, healthCheckInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Sends the current thread's reads to the primary until {@link #unpin()}.
+     */
+    public static void pinToPrimary() {
+        PINNED_TO_PRIMARY.set(Boolean.TRUE);
+    }
+
+    public static void unpin() {
+        PINNED_TO_PRIMARY.remove();
+    }
+
+    /**
+     * Marks each replica up or down by whether it gives a valid connection
+     * within its connection timeout. A failing replica's pooled connections are
+     * dropped, so none opened before it went away is handed out once it is back.
+     */
+    void checkReplicas() {
+        for (Replica replica : replicas) {
+            boolean valid;
+            try (Connection connection = replica.pool.getConnection()) {
+                valid = connection.isValid((int) Math.max(1, replica.pool.getValidationTimeout() / 1000));
+            } catch (SQLException ex) {
+                valid = false;
+            }
+            if (valid) {
+                replica.markUp();
+            } else {
+                replica.markDown("health check failed");
+                if (replica.pool.getHikariPoolMXBean() != null) {
+                    replica.pool.getHikariPoolMXBean().softEvictConnections();
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        healthChecks.shutdownNow();
+        replicas.forEach(replica -> replica.pool.close());
+        primary.close();
+    }
+
+    private static Counter readCounter(String target, MeterRegistry meterRegistry) {
+        return Counter.builder("db.routing.reads")
+                .description("Read-only connections handed out, by the database behind them")
+                .tag("target", target)
+                .register(meterRegistry);
+    }
+
+    /**
+     * What read-only connections are taken from: the next replica that is up,
+     * or the primary.
+     */
+    private final class ReplicaDataSource extends AbstractDataSource {
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (PINNED_TO_PRIMARY.get() == null) {
+                for (int tried = 0; tried < replicas.size(); tried++) {
+                    Replica replica = replicas.get(Math.floorMod(nextReplica.getAndIncrement(), replicas.size()));
+                    if (!replica.up) {
+                        continue;
+                    }
+                    try {
+                        Connection connection = replica.pool.getConnection();
+                        replica.reads.increment();
+                        return connection;
+                    } catch (SQLException ex) {
+                        replica.markDown(ex.getMessage());
+                    }
+                }
+            }
+            primaryReads.increment();
+            return primary.getConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            throw new UnsupportedOperationException("Replica connections use the configured credentials");
+        }
+    }
+
+    private static final class Replica {
+
+        final HikariDataSource pool;
+        final Counter reads;
+        // Down until the first health check has passed
+        volatile boolean up;
+
+        Replica(HikariDataSource pool, MeterRegistry meterRegistry) {
+            this.pool = pool;
+            this.reads = readCounter(pool.getPoolName(), meterRegistry);
+            Gauge.builder("db.replica.up", this, replica -> replica.up ? 1 : 0)
+                    .description("Whether the replica is taking reads (1) or was taken out after a failure (0)")
+                    .tag("replica", pool.getPoolName())
+                    .register(meterRegistry);
+        }
+
+        void markUp() {
+            if (!up) {
+                up = true;
+                log.info("Replica {} is taking reads", pool.getPoolName());
+            }
+        }
+
+        void markDown(String reason) {
+            if (up) {
+                up = false;
+                log.warn("Replica {} taken out of the read rotation: {}", pool.getPoolName(), reason);
+            }
+        }
+    }
+}
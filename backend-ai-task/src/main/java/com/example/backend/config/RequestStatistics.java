@@ -0,0 +1,111 @@
+package com.example.backend.config;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Database work done for the HTTP request the current thread is serving: the
+ * JDBC statements it executed and the time they took, grouped by statement
+ * shape, and the entities Hibernate loaded and the flushes it ran on its
+ * behalf. {@link RequestStatisticsFilter} opens one per request and records
+ * it when the request completes. Work on other threads, such as a streamed
+ * response body, is not attributed to the request, and outside a request
+ * {@link #current()} is null.
+ */
+public final class RequestStatistics {
+
+    /**
+     * Request attribute holding the statistics of the request, for reading
+     * them after it completed, as tests do.
+     */
+    public static final String ATTRIBUTE = RequestStatistics.class.getName();
+
+    private static final ThreadLocal<RequestStatistics> CURRENT = new ThreadLocal<>();
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private int statements;
+    private long statementNanos;
+    private int entityLoads;
+    private int flushes;
+    private final Map<String, Integer> statementShapes = new HashMap<>();
+
+    private RequestStatistics() {
+    }
+
+    static RequestStatistics begin() {
+        RequestStatistics statistics = new RequestStatistics();
+        CURRENT.set(statistics);
+        return statistics;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    public static RequestStatistics current() {
+        return CURRENT.get();
+    }
+
+    void statementExecuted(String sql, long nanos) {
+        statements++;
+        statementNanos += nanos;
+        statementShapes.merge(shape(sql), 1, Integer::sum);
+    }
+
+    void entityLoaded() {
+        entityLoads++;
+    }
+
+    void flushed() {
+        flushes++;
+    }
+
+    public int statements() {
+        return statements;
+    }
+
+    public Duration statementTime() {
+        return Duration.ofNanos(statementNanos);
+    }
+
+    public int entityLoads() {
+        return entityLoads;
+    }
+
+    public int flushes() {
+        return flushes;
+    }
+
+    /**
+     * Statement shapes executed at least {@code times} times in this request,
+     * with their counts, most repeated first. The same shape run once per row
+     * of an earlier result is the signature of an N+1 query.
+     */
+    public Map<String, Integer> repeatedStatements(int times) {
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        statementShapes.entrySet().stream()
+                .filter(entry -> entry.getValue() >= times)
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .forEach(entry -> repeated.put(entry.getKey(), entry.getValue()));
+        return repeated;
+    }
+
+    /**
+     * Reduces a statement to its shape: literals become {@code ?}, lists of
+     * parameters collapse to one, and whitespace is normalized, so statements
+     * that differ only in their values compare equal.
+     */
+    static String shape(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = PARAMETER_LIST.matcher(shape).replaceAll("(?)");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.backend.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Records the {@link RequestStatistics} of every request as distributions
+ * tagged with the method and URI pattern, the same tags as
+ * {@code http.server.requests}: {@code request.db.statements},
+ * {@code request.db.time}, {@code request.hibernate.entity.loads} and
+ * {@code request.hibernate.flushes}, then has the {@link QueryBudgetGuard}
+ * check them. Runs ahead of the security filters so token checks that reach
+ * the database are counted too.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+@RequiredArgsConstructor
+public class RequestStatisticsFilter extends OncePerRequestFilter {
+
+    // Per-request counts are small; these buckets make budgets like "at most 3 statements" readable
+    private static final double[] BUCKETS = {1, 2, 3, 5, 10, 20, 50, 100};
+
+    private final MeterRegistry meterRegistry;
+    private final QueryBudgetGuard queryBudgetGuard;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestStatistics statistics = RequestStatistics.begin();
+        request.setAttribute(RequestStatistics.ATTRIBUTE, statistics);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestStatistics.end();
+            String uri = uri(request);
+            Tags tags = Tags.of("method", request.getMethod(), "uri", uri);
+            summary("request.db.statements", "JDBC statements executed per request", tags)
+                    .record(statistics.statements());
+            Timer.builder("request.db.time")
+                    .description("Time spent executing JDBC statements per request")
+                    .tags(tags)
+                    .register(meterRegistry)
+                    .record(statistics.statementTime());
+            summary("request.hibernate.entity.loads", "Entities loaded by Hibernate per request", tags)
+                    .record(statistics.entityLoads());
+            summary("request.hibernate.flushes", "Hibernate session flushes per request", tags)
+                    .record(statistics.flushes());
+            queryBudgetGuard.check(request.getMethod(), uri, statistics);
+        }
+    }
+
+    static String uri(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern == null ? "UNKNOWN" : pattern.toString();
+    }
+
+    private DistributionSummary summary(String name, String description, Tags tags) {
+        return DistributionSummary.builder(name)
+                .description(description)
+                .tags(tags)
+                .serviceLevelObjectives(BUCKETS)
+                .register(meterRegistry);
+    }
+}
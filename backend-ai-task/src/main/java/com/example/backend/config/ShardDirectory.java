@@ -0,0 +1,342 @@
+package com.example.backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Where each user row lives and where new user ids come from.
+ *
+ * <p>A user's bucket is its id modulo {@link #BUCKETS}, and every bucket lives
+ * on exactly one shard. The assignment is kept in {@code user_shard_buckets}
+ * on shard 0 and read on first use; until a rebalance moves them, all buckets
+ * are on shard 0. Writes hold the {@linkplain #placementLock() placement lock}
+ * shared while they run, and the rebalancer takes it exclusively to switch a
+ * bucket over, so no write lands on a shard that is losing its bucket.
+ *
+ * <p>The assignment and the placement lock are per process, so a rebalance
+ * needs every other instance stopped. On PostgreSQL each instance holds an
+ * advisory lock on shard 0 shared for as long as it runs;
+ * {@link #lockOutOtherInstances()} takes it exclusively, which only succeeds
+ * while no other instance holds it, and keeps instances that start meanwhile
+ * waiting.
+ *
+ * <p>Ids are handed out in blocks of {@value #ID_BLOCK_SIZE} from each shard's
+ * own {@code users_id_seq}, taking the shards in turn. Shard {@code k} draws
+ * from the range starting at {@code k << }{@value #SHARD_ID_BITS}, so ids are
+ * unique across shards without a shared sequence. Which shard an id was drawn
+ * from says nothing about where its row is stored. The sequences are moved
+ * into their ranges once, by {@link #provisionShards()} when the shards are
+ * set up; drawing ids only checks that they were.
+ */
+@Slf4j
+public class ShardDirectory implements InitializingBean, DisposableBean {
+
+    public static final int BUCKETS = 1024;
+
+    // The increment of users_id_seq (V3), which Hibernate's pooled optimizer reads the same way
+    static final int ID_BLOCK_SIZE = 50;
+    static final int SHARD_ID_BITS = 40;
+
+    // Serialises provisioning across instances starting together; any fixed key shared by them works
+    private static final long PROVISIONING_LOCK = 0x7573657273L;
+    // Held shared by every running instance, and exclusively by one while it rebalances
+    private static final long INSTANCE_LOCK = 0x7573657269L;
+    // Lets the rebalancer copy and delete one bucket's rows without scanning the table
+    private static final String BUCKET_INDEX_SQL =
+            "CREATE INDEX IF NOT EXISTS idx_users_shard_bucket ON users ((mod(id, " + BUCKETS + ")), id)";
+
+    private final List<HikariDataSource> shards;
+    private final JdbcTemplate directory;
+    private final IdBlock[] idBlocks;
+    private final AtomicInteger nextIdShard = new AtomicInteger();
+    private final ReadWriteLock placementLock = new ReentrantReadWriteLock();
+    private volatile int[] owners;
+    // The shard 0 session holding INSTANCE_LOCK; null off PostgreSQL
+    private JdbcTemplate instanceSession;
+    private Connection instanceConnection;
+
+    public ShardDirectory(List<HikariDataSource> shards) {
+        this.shards = List.copyOf(shards);
+        this.directory = new JdbcTemplate(shards.get(0));
+        this.idBlocks = new IdBlock[shards.size()];
+        for (int shard = 0; shard < shards.size(); shard++) {
+            idBlocks[shard] = new IdBlock(shard);
+        }
+    }
+
+    /**
+     * Takes the instance lock shared, waiting while another instance
+     * rebalances.
+     */
+    @Override
+    public void afterPropertiesSet() throws SQLException {
+        if (!isPostgres(directory)) {
+            return;
+        }
+        Connection connection = shards.get(0).getConnection();
+        try {
+            JdbcTemplate session = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+            session.execute("SELECT pg_advisory_lock_shared(" + INSTANCE_LOCK + ")");
+            instanceConnection = connection;
+            instanceSession = session;
+        } catch (DataAccessException ex) {
+            connection.close();
+            throw ex;
+        }
+    }
+
+    public int shardCount() {
+        return shards.size();
+    }
+
+    public HikariDataSource shard(int shard) {
+        return shards.get(shard);
+    }
+
+    public static int bucketOf(long id) {
+        return (int) Math.floorMod(id, (long) BUCKETS);
+    }
+
+    public int shardOf(long id) {
+        return owners()[bucketOf(id)];
+    }
+
+    public int ownerOf(int bucket) {
+        return owners()[bucket];
+    }
+
+    /**
+     * Shards that hold at least one bucket, in shard order. Shards added since
+     * the last rebalance hold none and are left out of scatter-gather reads.
+     */
+    public List<Integer> owningShards() {
+        int[] current = owners();
+        boolean[] owning = new boolean[shards.size()];
+        for (int owner : current) {
+            owning[owner] = true;
+        }
+        List<Integer> result = new ArrayList<>();
+        for (int shard = 0; shard < owning.length; shard++) {
+            if (owning[shard]) {
+                result.add(shard);
+            }
+        }
+        return result;
+    }
+
+    public int bucketCount(int shard) {
+        return (int) Arrays.stream(owners()).filter(owner -> owner == shard).count();
+    }
+
+    /**
+     * Held shared by every write for as long as it runs, and exclusively while
+     * a bucket switches shards.
+     */
+    public ReadWriteLock placementLock() {
+        return placementLock;
+    }
+
+    /**
+     * Records that the bucket now lives on the shard. Only the rebalancer calls
+     * this, holding the placement lock, once the bucket's rows are in place.
+     */
+    synchronized void assign(int bucket, int shard) {
+        directory.update("UPDATE user_shard_buckets SET shard = ? WHERE bucket = ?", shard, bucket);
+        int[] updated = owners().clone();
+        updated[bucket] = shard;
+        owners = updated;
+    }
+
+    /**
+     * A new user id, drawn from the next shard's block. A shard whose sequence
+     * cannot be reached is skipped.
+     */
+    public long nextId() {
+        DataAccessException lastFailure = null;
+        for (int tried = 0; tried < idBlocks.length; tried++) {
+            IdBlock block = idBlocks[Math.floorMod(nextIdShard.getAndIncrement(), idBlocks.length)];
+            try {
+                return block.next();
+            } catch (DataAccessException ex) {
+                log.warn("Could not draw user ids from shard {}: {}", block.shard, ex.getMessage());
+                lastFailure = ex;
+            }
+        }
+        throw lastFailure;
+    }
+
+    /**
+     * Moves every shard's {@code users_id_seq} into the shard's id range if it
+     * is not there yet. Runs once the shards are migrated, before any id is
+     * drawn. On PostgreSQL this also creates the bucket index the rebalancer
+     * reads by, which only sharded deployments need, and each shard is
+     * provisioned under an advisory lock, so of several instances starting
+     * together only the first does the work and the others find it done.
+     */
+    public void provisionShards() {
+        for (IdBlock block : idBlocks) {
+            block.provision();
+        }
+    }
+
+    /**
+     * Whether no other instance is running. If so, instances starting from now
+     * on wait until {@link #admitOtherInstances()}. Always true off
+     * PostgreSQL, where instances are not tracked.
+     */
+    public synchronized boolean lockOutOtherInstances() {
+        return instanceSession == null || Boolean.TRUE.equals(
+                instanceSession.queryForObject("SELECT pg_try_advisory_lock(" + INSTANCE_LOCK + ")", Boolean.class));
+    }
+
+    public synchronized void admitOtherInstances() {
+        if (instanceSession != null) {
+            instanceSession.execute("SELECT pg_advisory_unlock(" + INSTANCE_LOCK + ")");
+        }
+    }
+
+    @Override
+    public void destroy() throws SQLException {
+        synchronized (this) {
+            if (instanceConnection != null) {
+                // The connection goes back to the pool, which would keep the session and its locks
+                instanceSession.execute("SELECT pg_advisory_unlock_all()");
+                instanceConnection.close();
+                instanceConnection = null;
+                instanceSession = null;
+            }
+        }
+        shards.forEach(HikariDataSource::close);
+    }
+
+    private int[] owners() {
+        int[] current = owners;
+        if (current == null) {
+            synchronized (this) {
+                current = owners;
+                if (current == null) {
+                    current = loadOwners();
+                    owners = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private int[] loadOwners() {
+        int[] loaded = new int[BUCKETS];
+        Arrays.fill(loaded, -1);
+        directory.query("SELECT bucket, shard FROM user_shard_buckets", rs -> {
+            loaded[rs.getInt("bucket")] = rs.getInt("shard");
+        });
+        if (Arrays.stream(loaded).allMatch(owner -> owner == -1)) {
+            // First start with sharding on: every existing row is still on shard 0
+            List<Object[]> rows = new ArrayList<>(BUCKETS);
+            for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                rows.add(new Object[] {bucket, 0});
+            }
+            directory.batchUpdate("INSERT INTO user_shard_buckets (bucket, shard) VALUES (?, ?)", rows);
+            Arrays.fill(loaded, 0);
+        }
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            if (loaded[bucket] < 0 || loaded[bucket] >= shards.size()) {
+                throw new IllegalStateException("Bucket " + bucket + " is on shard " + loaded[bucket]
+                        + ", but only " + shards.size() + " shards are configured");
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * The buckets the shard holds, or NaN while the assignment has not been
+     * loaded yet; unlike {@link #bucketCount} it never loads it.
+     */
+    double loadedBucketCount(int shard) {
+        int[] current = owners;
+        return current == null ? Double.NaN : Arrays.stream(current).filter(owner -> owner == shard).count();
+    }
+
+    private static boolean isPostgres(JdbcTemplate jdbc) {
+        return Boolean.TRUE.equals(jdbc.execute((ConnectionCallback<Boolean>) connection ->
+                "PostgreSQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName())));
+    }
+
+    /**
+     * The ids left in the block last drawn from one shard's sequence.
+     */
+    private final class IdBlock {
+
+        final int shard;
+        final JdbcTemplate jdbc;
+        final long rangeStart;
+        final long rangeEnd;
+        long next;
+        long last = -1;
+        String nextValueSql;
+
+        IdBlock(int shard) {
+            this.shard = shard;
+            this.jdbc = new JdbcTemplate(shards.get(shard));
+            this.rangeStart = (long) shard << SHARD_ID_BITS;
+            this.rangeEnd = (long) (shard + 1) << SHARD_ID_BITS;
+        }
+
+        synchronized long next() {
+            if (next > last) {
+                long high = nextValue();
+                if (high - ID_BLOCK_SIZE < rangeStart) {
+                    throw new IllegalStateException("Shard " + shard + "'s users_id_seq is below its id range; "
+                            + "provision the shard first");
+                }
+                if (high >= rangeEnd) {
+                    throw new IllegalStateException("Shard " + shard + " has used up its user id range");
+                }
+                next = high - ID_BLOCK_SIZE + 1;
+                last = high;
+            }
+            return next++;
+        }
+
+        /**
+         * Restarts a fresh sequence, or one still below this shard's range, at
+         * the range's first block, and on PostgreSQL creates the bucket index.
+         * The block drawn to look is given up.
+         */
+        void provision() {
+            new TransactionTemplate(new DataSourceTransactionManager(shards.get(shard))).executeWithoutResult(status -> {
+                if (isPostgres(jdbc)) {
+                    jdbc.execute("SELECT pg_advisory_xact_lock(" + PROVISIONING_LOCK + ")");
+                    jdbc.execute(BUCKET_INDEX_SQL);
+                }
+                if (nextValue() - ID_BLOCK_SIZE < rangeStart) {
+                    jdbc.execute("ALTER SEQUENCE users_id_seq RESTART WITH " + (rangeStart + ID_BLOCK_SIZE));
+                    log.info("Moved users_id_seq on shard {} into its id range from {}", shard, rangeStart);
+                }
+            });
+        }
+
+        private long nextValue() {
+            if (nextValueSql == null) {
+                nextValueSql = isPostgres(jdbc) ? "SELECT nextval('users_id_seq')" : "SELECT NEXT VALUE FOR users_id_seq";
+            }
+            return jdbc.queryForObject(nextValueSql, Long.class);
+        }
+    }
+}
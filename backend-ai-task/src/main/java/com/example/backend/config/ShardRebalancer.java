@@ -0,0 +1,268 @@
+package com.example.backend.config;
+
+import com.example.backend.exception.ConflictException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Spreads the user buckets evenly over the configured shards, for after a
+ * shard was added to {@code db.shards.urls}. {@code GET /actuator/shards}
+ * shows how buckets and rows are spread; {@code POST /actuator/shards} moves
+ * buckets until every shard holds its share.
+ *
+ * <p>A bucket moves in three steps. Its rows are copied to the new shard while
+ * writes go on. Then, holding the placement lock so writes to the bucket
+ * wait, the rows written or deleted since the copy are caught up and the
+ * directory is pointed at the new shard. Last, the rows are deleted from the
+ * old shard. Reads never wait, and may see a row on both shards meanwhile,
+ * which the gathering merge drops.
+ *
+ * <p>The placement lock and the bucket assignment are per process, so a
+ * rebalance is refused with 409 while other instances are running; on
+ * PostgreSQL the {@link ShardDirectory} can tell. Elsewhere, stop the other
+ * instances first.
+ */
+@Slf4j
+@Component
+@Endpoint(id = "shards")
+@ConditionalOnProperty(prefix = "db.shards", name = "enabled", havingValue = "true")
+public class ShardRebalancer {
+
+    // Every mapped users column; search_vector and search_text are generated from them
+    private static final String COLUMNS = "id, user_name, username, email, street, suite, city, zipcode, "
+            + "geo_lat, geo_lng, phone, website, company_name, company_catch_phrase, company_bs, version, updated_at";
+    private static final int COLUMN_COUNT = COLUMNS.split(",").length;
+
+    private static final String SELECT_BUCKET_SQL = "SELECT " + COLUMNS + " FROM users "
+            + "WHERE MOD(id, " + ShardDirectory.BUCKETS + ") = ? AND id > ? ORDER BY id LIMIT ?";
+    private static final String INSERT_SQL = "INSERT INTO users (" + COLUMNS + ") VALUES ("
+            + String.join(", ", Collections.nCopies(COLUMN_COUNT, "?")) + ")";
+    private static final String DELETE_BUCKET_SQL =
+            "DELETE FROM users WHERE MOD(id, " + ShardDirectory.BUCKETS + ") = ?";
+    private static final String BUCKET_VERSIONS_SQL =
+            "SELECT id, version FROM users WHERE MOD(id, " + ShardDirectory.BUCKETS + ") = ?";
+    private static final String DELETE_ROW_SQL = "DELETE FROM users WHERE id = ?";
+
+    private static final RowMapper<Object[]> ROW_MAPPER = (rs, rowNum) -> {
+        Object[] row = new Object[COLUMN_COUNT];
+        for (int i = 0; i < COLUMN_COUNT; i++) {
+            row[i] = rs.getObject(i + 1);
+        }
+        return row;
+    };
+
+    private final ShardDirectory directory;
+    private final int copyChunkSize;
+
+    public ShardRebalancer(ShardDirectory directory,
+                           @Value("${db.shards.copy-chunk-size:1000}") int copyChunkSize) {
+        this.directory = directory;
+        this.copyChunkSize = copyChunkSize;
+    }
+
+    @ReadOperation
+    public Map<String, Object> shards() {
+        List<Map<String, Object>> shards = new ArrayList<>();
+        for (int shard = 0; shard < directory.shardCount(); shard++) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("shard", shard);
+            entry.put("buckets", directory.bucketCount(shard));
+            entry.put("users", jdbc(shard).queryForObject("SELECT COUNT(*) FROM users", Long.class));
+            shards.add(entry);
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("bucketCount", ShardDirectory.BUCKETS);
+        result.put("shards", shards);
+        return result;
+    }
+
+    @WriteOperation
+    public synchronized Map<String, Object> rebalance() {
+        if (!directory.lockOutOtherInstances()) {
+            throw new ConflictException("Other instances are running; stop them before rebalancing");
+        }
+        try {
+            return rebalanceBuckets();
+        } finally {
+            directory.admitOtherInstances();
+        }
+    }
+
+    private Map<String, Object> rebalanceBuckets() {
+        long started = System.nanoTime();
+        int strays = deleteStrays();
+        int[] counts = new int[directory.shardCount()];
+        for (int shard = 0; shard < counts.length; shard++) {
+            counts[shard] = directory.bucketCount(shard);
+        }
+
+        // Consecutive ids land in consecutive buckets, so buckets first go to bucket % shards where they can,
+        // spreading new users over every shard; the second pass evens out what is left
+        int movedBuckets = 0;
+        long movedUsers = 0;
+        for (boolean striped : new boolean[] {true, false}) {
+            for (int bucket = 0; bucket < ShardDirectory.BUCKETS; bucket++) {
+                int from = directory.ownerOf(bucket);
+                if (counts[from] <= share(from)) {
+                    continue;
+                }
+                int to = striped ? bucket % counts.length : 0;
+                while (!striped && counts[to] >= share(to)) {
+                    to++;
+                }
+                if (to == from || counts[to] >= share(to)) {
+                    continue;
+                }
+                movedUsers += move(bucket, from, to);
+                counts[from]--;
+                counts[to]++;
+                movedBuckets++;
+            }
+        }
+        log.info("Rebalanced users over {} shards: moved {} buckets holding {} users in {} ms, "
+                        + "deleted {} stray users", counts.length, movedBuckets, movedUsers,
+                (System.nanoTime() - started) / 1_000_000, strays);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("movedBuckets", movedBuckets);
+        result.put("movedUsers", movedUsers);
+        result.put("deletedStrays", strays);
+        result.put("shards", shards().get("shards"));
+        return result;
+    }
+
+    /**
+     * The buckets a shard holds once balanced: an even split, with the
+     * remainder going to the lowest shards.
+     */
+    private int share(int shard) {
+        int shards = directory.shardCount();
+        return ShardDirectory.BUCKETS / shards + (shard < ShardDirectory.BUCKETS % shards ? 1 : 0);
+    }
+
+    /**
+     * Deletes rows a shard holds in buckets it does not own: Flyway's seed rows
+     * on a new shard, or the leftovers of a move that stopped before its last
+     * step.
+     */
+    private int deleteStrays() {
+        int deleted = 0;
+        for (int shard = 0; shard < directory.shardCount(); shard++) {
+            List<Object[]> foreign = new ArrayList<>();
+            for (int bucket = 0; bucket < ShardDirectory.BUCKETS; bucket++) {
+                if (directory.ownerOf(bucket) != shard) {
+                    foreign.add(new Object[] {bucket});
+                }
+            }
+            for (int count : jdbc(shard).batchUpdate(DELETE_BUCKET_SQL, foreign)) {
+                deleted += Math.max(count, 0);
+            }
+        }
+        return deleted;
+    }
+
+    private long move(int bucket, int from, int to) {
+        copy(bucket, from, to);
+        return switchOver(bucket, from, to);
+    }
+
+    /**
+     * Copies the bucket's rows to the target shard, replacing any it held
+     * there. Writes to the bucket go on meanwhile.
+     */
+    void copy(int bucket, int from, int to) {
+        JdbcTemplate target = jdbc(to);
+        JdbcTemplate source = jdbc(from);
+        inTransaction(to, () -> {
+            target.update(DELETE_BUCKET_SQL, bucket);
+            long afterId = Long.MIN_VALUE;
+            while (true) {
+                List<Object[]> chunk = source.query(SELECT_BUCKET_SQL, ROW_MAPPER, bucket, afterId, copyChunkSize);
+                if (chunk.isEmpty()) {
+                    return;
+                }
+                target.batchUpdate(INSERT_SQL, chunk);
+                afterId = ((Number) chunk.get(chunk.size() - 1)[0]).longValue();
+            }
+        });
+    }
+
+    /**
+     * With writes held back, brings the target's copy level with the source
+     * and points the directory at the target; then deletes the source's rows.
+     * Every write bumps a row's version, so rows whose version differs between
+     * the shards, or that are on one only, are the ones written since the
+     * copy. Returns the rows the bucket holds.
+     */
+    long switchOver(int bucket, int from, int to) {
+        long rows;
+        Lock lock = directory.placementLock().writeLock();
+        lock.lock();
+        try {
+            Map<Long, Long> source = versions(from, bucket);
+            Map<Long, Long> target = versions(to, bucket);
+            List<Object[]> outdated = new ArrayList<>();
+            target.forEach((id, version) -> {
+                if (!Objects.equals(version, source.get(id))) {
+                    outdated.add(new Object[] {id});
+                }
+            });
+            List<Long> missing = new ArrayList<>();
+            source.forEach((id, version) -> {
+                if (!Objects.equals(version, target.get(id))) {
+                    missing.add(id);
+                }
+            });
+            inTransaction(to, () -> {
+                jdbc(to).batchUpdate(DELETE_ROW_SQL, outdated);
+                for (int start = 0; start < missing.size(); start += copyChunkSize) {
+                    List<Long> ids = missing.subList(start, Math.min(start + copyChunkSize, missing.size()));
+                    String select = "SELECT " + COLUMNS + " FROM users WHERE id IN ("
+                            + String.join(", ", Collections.nCopies(ids.size(), "?")) + ")";
+                    jdbc(to).batchUpdate(INSERT_SQL, jdbc(from).query(select, ROW_MAPPER, ids.toArray()));
+                }
+            });
+            directory.assign(bucket, to);
+            rows = source.size();
+        } finally {
+            lock.unlock();
+        }
+        jdbc(from).update(DELETE_BUCKET_SQL, bucket);
+        return rows;
+    }
+
+    private Map<Long, Long> versions(int shard, int bucket) {
+        Map<Long, Long> versions = new HashMap<>();
+        jdbc(shard).query(BUCKET_VERSIONS_SQL, rs -> {
+            versions.put(rs.getLong("id"), rs.getLong("version"));
+        }, bucket);
+        return versions;
+    }
+
+    private void inTransaction(int shard, Runnable work) {
+        new TransactionTemplate(new DataSourceTransactionManager(directory.shard(shard)))
+                .executeWithoutResult(status -> work.run());
+    }
+
+    private JdbcTemplate jdbc(int shard) {
+        return new JdbcTemplate(directory.shard(shard));
+    }
+}
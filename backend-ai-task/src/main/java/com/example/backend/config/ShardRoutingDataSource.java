@@ -0,0 +1,81 @@
+package com.example.backend.config;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Sends each transaction to the shard it was routed to with
+ * {@link #useShard(int)}, and to shard 0 when it was not routed. Connections
+ * are handed out lazily, so a transaction can be routed after it began, as
+ * long as it has not run a statement yet; the route holds until it completes.
+ * Shard 0 also keeps everything that is not sharded, such as the accounts.
+ */
+public class ShardRoutingDataSource extends LazyConnectionDataSourceProxy {
+
+    private static final ThreadLocal<Integer> CURRENT_SHARD = new ThreadLocal<>();
+
+    public ShardRoutingDataSource(ShardDirectory directory) {
+        super(new ShardDataSource(directory));
+    }
+
+    /**
+     * Routes the current transaction to the shard. A transaction stays on one
+     * shard: routing it elsewhere once it has a shard fails.
+     */
+    public static void useShard(int shard) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Only a transaction can be routed to a shard");
+        }
+        Integer current = CURRENT_SHARD.get();
+        if (current != null) {
+            if (current != shard) {
+                throw new IllegalStateException("The transaction is on shard " + current
+                        + " and cannot move to shard " + shard);
+            }
+            return;
+        }
+        bind(shard);
+    }
+
+    private static void bind(int shard) {
+        CURRENT_SHARD.set(shard);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                CURRENT_SHARD.remove();
+            }
+        });
+    }
+
+    private static final class ShardDataSource extends AbstractDataSource {
+
+        private final ShardDirectory directory;
+
+        ShardDataSource(ShardDirectory directory) {
+            this.directory = directory;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            Integer shard = CURRENT_SHARD.get();
+            if (shard == null) {
+                shard = 0;
+                // Pin the transaction, so routing it to another shard now fails instead of being ignored
+                if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                    bind(shard);
+                }
+            }
+            return directory.shard(shard).getConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            throw new UnsupportedOperationException("Shard connections use the configured credentials");
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.backend.config;
+
+import com.example.backend.domain.User;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.flywaydb.core.Flyway;
+import org.hibernate.Interceptor;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * With {@code db.shards.enabled}, spreads the users table over several
+ * databases. Shard 0 is the database configured under
+ * {@code spring.datasource}; each URL in {@code db.shards.urls} adds a shard
+ * with a pool of the same settings. Flyway migrates every shard. The data
+ * source handed to Hibernate and JDBC is a {@link ShardRoutingDataSource} that
+ * {@code UserShards} routes per transaction.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "db.shards", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(ShardingConfig.Shards.class)
+public class ShardingConfig {
+
+    @ConfigurationProperties("db.shards")
+    public record Shards(boolean enabled, List<String> urls, String username, String password) {
+
+        public Shards {
+            urls = urls == null ? List.of() : List.copyOf(urls);
+        }
+    }
+
+    @Bean
+    public ShardDirectory shardDirectory(DataSourceProperties properties, Shards shards,
+                                         Environment environment, MeterRegistry meterRegistry) {
+        if (environment.getProperty("db.replicas.enabled", Boolean.class, false)) {
+            throw new IllegalStateException("db.shards and db.replicas cannot be enabled together");
+        }
+        HikariDataSource first = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(first));
+        first.setPoolName("shard-0");
+        first.setMetricRegistry(meterRegistry);
+
+        List<HikariDataSource> pools = new ArrayList<>();
+        pools.add(first);
+        for (int i = 0; i < shards.urls().size(); i++) {
+            HikariDataSource shard = new HikariDataSource();
+            first.copyStateTo(shard);
+            shard.setPoolName("shard-" + (i + 1));
+            shard.setJdbcUrl(shards.urls().get(i));
+            if (shards.username() != null) {
+                shard.setUsername(shards.username());
+                shard.setPassword(shards.password());
+            }
+            shard.setMetricRegistry(meterRegistry);
+            pools.add(shard);
+        }
+        return new ShardDirectory(pools);
+    }
+
+    /**
+     * {@code db.shard.buckets}: the user buckets each shard holds.
+     */
+    @Bean
+    public MeterBinder shardBucketCounts(ShardDirectory directory) {
+        return registry -> {
+            for (int shard = 0; shard < directory.shardCount(); shard++) {
+                int tag = shard;
+                Gauge.builder("db.shard.buckets", () -> directory.loadedBucketCount(tag))
+                        .description("User buckets stored on the shard")
+                        .tag("shard", Integer.toString(shard))
+                        .register(registry);
+            }
+        };
+    }
+
+    @Bean
+    public ShardRoutingDataSource dataSource(ShardDirectory directory) {
+        return new ShardRoutingDataSource(directory);
+    }
+
+    /**
+     * Each transaction is routed on its own, so a session must not keep its
+     * connection from one transaction to the next, as the open-in-view session
+     * of a request otherwise does. New users are given their ids before they
+     * are persisted, so they can be routed first; Hibernate would take a user
+     * with an id as detached, but one that has no version yet was never written.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer shardedHibernateProperties() {
+        return properties -> {
+            properties.put(AvailableSettings.CONNECTION_HANDLING,
+                    PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+            properties.put(AvailableSettings.INTERCEPTOR, new PreassignedUserIds());
+        };
+    }
+
+    /**
+     * Migrates the other shards with the same settings after shard 0, then
+     * provisions them: each shard's id sequence moves into its range and
+     * gets the bucket index, which the migrations leave out as unsharded
+     * deployments do not need it. The other shards get the
+     * seed rows too; the rebalancer deletes rows a shard holds outside its own
+     * buckets before it moves any bucket there.
+     */
+    @Bean
+    public FlywayMigrationStrategy shardMigrations(ShardDirectory directory) {
+        return flyway -> {
+            flyway.migrate();
+            for (int shard = 1; shard < directory.shardCount(); shard++) {
+                Flyway.configure()
+                        .configuration(flyway.getConfiguration())
+                        .dataSource(directory.shard(shard))
+                        .load()
+                        .migrate();
+            }
+            directory.provisionShards();
+        };
+    }
+
+    static final class PreassignedUserIds implements Interceptor {
+
+        @Override
+        public Boolean isTransient(Object entity) {
+            boolean preassigned = entity instanceof User user && user.getId() != null && user.getVersion() == null;
+            return preassigned ? Boolean.TRUE : null;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.backend.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Logs statements that take longer than {@code threshold}, in place of
+ * {@code show-sql}, which printed every statement. Every slow statement is
+ * counted under {@code db.queries.slow}, but only {@code sampleRate} of them
+ * are logged, so a database that slows down across the board does not flood
+ * the log as well.
+ */
+@Slf4j
+public class SlowQueryLog implements QueryExecutionListener {
+
+    private final long thresholdMillis;
+    private final double sampleRate;
+    private final Counter slowQueries;
+
+    public SlowQueryLog(Duration threshold, double sampleRate, MeterRegistry meterRegistry) {
+        this.thresholdMillis = threshold.toMillis();
+        this.sampleRate = sampleRate;
+        this.slowQueries = Counter.builder("db.queries.slow")
+                .description("Statements slower than the slow-query threshold, logged or not")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execution, List<QueryInfo> queries) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execution, List<QueryInfo> queries) {
+        if (execution.getElapsedTime() < thresholdMillis) {
+            return;
+        }
+        slowQueries.increment();
+        if (log.isWarnEnabled() && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            log.warn("Slow statement took {} ms{}: {}", execution.getElapsedTime(),
+                    execution.isBatch() ? " (batch of " + execution.getBatchSize() + ")" : "",
+                    queries.stream().map(QueryInfo::getQuery).collect(Collectors.joining("; ")));
+        }
+    }
+}
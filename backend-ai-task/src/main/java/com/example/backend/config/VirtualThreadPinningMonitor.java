@@ -0,0 +1,140 @@
+package com.example.backend.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Watches the JDK's {@code jdk.VirtualThreadPinned} JFR event while virtual
+ * threads are enabled. A virtual thread that blocks inside a synchronized block
+ * or a native frame keeps its carrier thread busy, which quietly caps
+ * concurrency at the number of carriers. Each pinning is timed under
+ * {@code jvm.threads.virtual.pinned}, tagged with the library it happened in,
+ * and the code sites responsible are listed at {@code /actuator/pinning}.
+ */
+@Component
+@Endpoint(id = "pinning")
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadPinningMonitor implements InitializingBean, DisposableBean {
+
+    static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private static final int MAX_SITES = 100;
+    private static final String OTHER_SITE = "(other)";
+
+    private final MeterRegistry meterRegistry;
+    private final Duration threshold;
+    private final Map<String, Site> sites = new ConcurrentHashMap<>();
+    private RecordingStream recording;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry,
+                                       @Value("${users.diagnostics.pinning-threshold:20ms}") Duration threshold) {
+        this.meterRegistry = meterRegistry;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        recording = new RecordingStream();
+        recording.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        recording.onEvent(PINNED_EVENT, this::record);
+        recording.startAsync();
+    }
+
+    @Override
+    public void destroy() {
+        if (recording != null) {
+            recording.close();
+        }
+    }
+
+    @ReadOperation
+    public Map<String, Object> pinning() {
+        List<Map<String, Object>> bySite = sites.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, Site> entry) -> entry.getValue().count.sum())
+                        .reversed())
+                .map(entry -> {
+                    Map<String, Object> site = new LinkedHashMap<>();
+                    site.put("site", entry.getKey());
+                    site.put("count", entry.getValue().count.sum());
+                    site.put("maxMillis", entry.getValue().maxNanos.get() / 1_000_000.0);
+                    return site;
+                })
+                .toList();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("thresholdMillis", threshold.toMillis());
+        result.put("sites", bySite);
+        return result;
+    }
+
+    void record(RecordedEvent event) {
+        List<RecordedFrame> frames = event.getStackTrace() == null ? List.of() : event.getStackTrace().getFrames();
+        RecordedFrame frame = firstApplicationFrame(frames);
+        String library = frame == null ? "jdk" : library(frame.getMethod().getType().getName());
+        Timer.builder("jvm.threads.virtual.pinned")
+                .description("Time virtual threads spent pinned to their carrier thread")
+                .tag("library", library)
+                .register(meterRegistry)
+                .record(event.getDuration());
+
+        String siteName = frame == null ? OTHER_SITE : describe(frame);
+        Site site = sites.get(siteName);
+        if (site == null) {
+            site = sites.size() < MAX_SITES
+                    ? sites.computeIfAbsent(siteName, key -> new Site())
+                    : sites.computeIfAbsent(OTHER_SITE, key -> new Site());
+        }
+        site.count.increment();
+        site.maxNanos.accumulate(event.getDuration().toNanos());
+    }
+
+    /**
+     * The frame that matters is the first one outside the JDK: the library or
+     * application code that held the monitor while blocking.
+     */
+    private static RecordedFrame firstApplicationFrame(List<RecordedFrame> frames) {
+        for (RecordedFrame frame : frames) {
+            String type = frame.getMethod().getType().getName();
+            if (frame.isJavaFrame() && !type.startsWith("java.") && !type.startsWith("jdk.")
+                    && !type.startsWith("sun.")) {
+                return frame;
+            }
+        }
+        return null;
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+
+    // Two package segments keep the tag's cardinality low: org.postgresql, org.hibernate, com.zaxxer, ...
+    private static String library(String className) {
+        int first = className.indexOf('.');
+        int second = first < 0 ? -1 : className.indexOf('.', first + 1);
+        return second < 0 ? className : className.substring(0, second);
+    }
+
+    private static final class Site {
+        private final LongAdder count = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    }
+}
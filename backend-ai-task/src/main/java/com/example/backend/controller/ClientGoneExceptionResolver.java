@@ -0,0 +1,31 @@
+package com.example.backend.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.servlet.ModelAndView;
+
+/**
+ * Ends quietly a request whose client went away after the response was
+ * committed, typically a change feed stream that fails on its next write.
+ * Tomcat then dispatches to the error page, where the failure would otherwise
+ * be logged as an error for every closed stream although there is no one
+ * left to answer.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ClientGoneExceptionResolver implements HandlerExceptionResolver {
+
+    @Override
+    public ModelAndView resolveException(HttpServletRequest request, HttpServletResponse response,
+                                         Object handler, Exception ex) {
+        if (ex instanceof IOException && response.isCommitted()) {
+            return new ModelAndView();
+        }
+        return null;
+    }
+}
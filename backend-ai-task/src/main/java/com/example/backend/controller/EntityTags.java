@@ -0,0 +1,49 @@
+package com.example.backend.controller;
+
+/**
+ * Formats entity tags and evaluates {@code If-None-Match} / {@code If-Match}
+ * header values against them (RFC 9110, section 13.1).
+ */
+final class EntityTags {
+
+    private EntityTags() {
+    }
+
+    static String of(Object opaqueTag) {
+        return "\"" + opaqueTag + "\"";
+    }
+
+    /**
+     * Weak comparison, as {@code If-None-Match} requires: {@code W/"1"} matches
+     * {@code "1"}.
+     */
+    static boolean noneMatchHit(String header, String etag) {
+        return matches(header, etag, true);
+    }
+
+    /**
+     * Strong comparison, as {@code If-Match} requires: weak tags never match.
+     */
+    static boolean ifMatchHit(String header, String etag) {
+        return matches(header, etag, false);
+    }
+
+    private static boolean matches(String header, String etag, boolean weak) {
+        if (header.trim().equals("*")) {
+            return true;
+        }
+        for (String candidate : header.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                if (!weak) {
+                    continue;
+                }
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
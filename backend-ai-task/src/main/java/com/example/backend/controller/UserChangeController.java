@@ -0,0 +1,28 @@
+package com.example.backend.controller;
+
+import com.example.backend.service.UserChangeFeed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/users/changes")
+@RequiredArgsConstructor
+public class UserChangeController {
+
+    private final UserChangeFeed userChangeFeed;
+
+    /**
+     * Server-Sent Events stream of committed user changes: {@code created},
+     * {@code updated} and {@code deleted} events carrying the change, and
+     * {@code reset} when the feed cannot resume from {@code Last-Event-ID}.
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter changes(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return userChangeFeed.subscribe(lastEventId);
+    }
+}
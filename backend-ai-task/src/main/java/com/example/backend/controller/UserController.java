@@ -1,17 +1,47 @@
 package com.example.backend.controller;
 
+import com.example.backend.dto.BulkChangeResponse;
+import com.example.backend.dto.BulkCreateResponse;
+import com.example.backend.dto.BulkDeleteRequest;
+import com.example.backend.dto.BulkUpdateRequest;
+import com.example.backend.dto.NearbyUserDto;
 import com.example.backend.dto.UserDto;
+import com.example.backend.dto.UserPageDto;
+import com.example.backend.dto.UserSearchPageDto;
+import com.example.backend.dto.UserSuggestionDto;
+import com.example.backend.exception.PreconditionFailedException;
+import com.example.backend.repository.UserVersion;
+import com.example.backend.service.UserCreateBatcher;
 import com.example.backend.service.UserService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
@@ -19,16 +49,102 @@ import org.springframework.web.bind.annotation.RestController;
 @RequiredArgsConstructor
 public class UserController {
 
+    static final String MERGE_PATCH_JSON_VALUE = "application/merge-patch+json";
+
     private final UserService userService;
+    private final UserCreateBatcher userCreateBatcher;
+    private final ObjectMapper objectMapper;
 
+    /**
+     * The list ETag hashes every (id, version) pair, so it changes on creates and
+     * deletes as well as updates; Last-Modified alone would miss deletes.
+     * Spring answers a matching {@code If-None-Match} with 304 before the body is
+     * written.
+     */
     @GetMapping
     public ResponseEntity<List<UserDto>> getAllUsers() {
-        return ResponseEntity.ok(userService.getAllUsers());
+        List<UserDto> users = userService.getAllUsers();
+        long hash = 1125899906842597L;
+        Instant lastModified = null;
+        for (UserDto user : users) {
+            hash = 31 * hash + Objects.hashCode(user.getId());
+            hash = 31 * hash + Objects.hashCode(user.getVersion());
+            if (user.getUpdatedAt() != null && (lastModified == null || user.getUpdatedAt().isAfter(lastModified))) {
+                lastModified = user.getUpdatedAt();
+            }
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(EntityTags.of(users.size() + "-" + Long.toHexString(hash)));
+        if (lastModified != null) {
+            response.lastModified(lastModified);
+        }
+        return response.body(users);
+    }
+
+    @GetMapping("/page")
+    public ResponseEntity<UserPageDto> getUsersPage(@RequestParam(required = false) String cursor,
+                                                    @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(userService.getUsersPage(cursor, limit));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<UserSearchPageDto> searchUsers(@RequestParam String q,
+                                                         @RequestParam(required = false) String cursor,
+                                                         @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(userService.searchUsers(q, cursor, limit));
+    }
+
+    @GetMapping("/typeahead")
+    public ResponseEntity<List<UserSuggestionDto>> typeahead(@RequestParam String q,
+                                                             @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(userService.typeahead(q, limit));
     }
 
+    @GetMapping("/nearby")
+    public ResponseEntity<List<NearbyUserDto>> findNearby(@RequestParam double lat,
+                                                          @RequestParam double lng,
+                                                          @RequestParam(required = false) Double radiusKm,
+                                                          @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(userService.findNearby(lat, lng, radiusKm, limit));
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void exportUsers(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        // Let the servlet buffer decide when to flush instead of flushing after every row
+        ObjectWriter writer = objectMapper.writerFor(UserDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            userService.exportUsers(user -> {
+                try {
+                    writer.writeValue(generator, user);
+                    generator.writeRaw('\n');
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        }
+    }
+
+    /**
+     * A revalidation is answered from the version column alone, without loading
+     * or serializing the user.
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<UserDto> getUserById(@PathVariable Long id) {
-        return ResponseEntity.ok(userService.getUserById(id));
+    public ResponseEntity<UserDto> getUserById(@PathVariable Long id,
+                                               @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                               String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            UserVersion current = userService.getUserVersion(id);
+            String etag = EntityTags.of(current.version());
+            if (EntityTags.noneMatchHit(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(etag)
+                        .lastModified(current.updatedAt())
+                        .build();
+            }
+        }
+        return withValidators(userService.getUserById(id));
     }
 
     @PostMapping
@@ -36,9 +152,52 @@ public class UserController {
         return ResponseEntity.ok(userService.createUser(userDto));
     }
 
+    /**
+     * Creates a user through the write-behind queue, committed together with
+     * other creates that arrive within {@code users.write-behind.max-delay}.
+     * Answers like {@code POST /api/users} once the row has committed, or 429
+     * when too many creates are already waiting.
+     */
+    @PostMapping("/batched")
+    public CompletableFuture<ResponseEntity<UserDto>> createUserBatched(@RequestBody UserDto userDto) {
+        return userCreateBatcher.submit(userDto).thenApply(ResponseEntity::ok);
+    }
+
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BulkCreateResponse> createUsers(@RequestBody List<UserDto> userDtos) {
+        return ResponseEntity.ok(userService.createUsers(userDtos.iterator()));
+    }
+
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<BulkCreateResponse> createUsersFromStream(HttpServletRequest request) throws IOException {
+        try (MappingIterator<UserDto> userDtos = objectMapper.readerFor(UserDto.class)
+                .readValues(request.getInputStream())) {
+            return ResponseEntity.ok(userService.createUsers(userDtos));
+        }
+    }
+
+    @PostMapping("/bulk/update")
+    public ResponseEntity<BulkChangeResponse> updateUsers(@RequestBody BulkUpdateRequest request) {
+        return ResponseEntity.ok(userService.updateUsers(request));
+    }
+
+    @PostMapping("/bulk/delete")
+    public ResponseEntity<BulkChangeResponse> deleteUsers(@RequestBody BulkDeleteRequest request) {
+        return ResponseEntity.ok(userService.deleteUsers(request));
+    }
+
     @PutMapping("/{id}")
-    public ResponseEntity<UserDto> updateUser(@PathVariable Long id, @RequestBody UserDto userDto) {
-        return ResponseEntity.ok(userService.updateUser(id, userDto));
+    public ResponseEntity<UserDto> updateUser(@PathVariable Long id, @RequestBody UserDto userDto,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+                                              String ifMatch) {
+        return withValidators(userService.updateUser(id, userDto, expectedVersion(id, ifMatch)));
+    }
+
+    @PatchMapping(value = "/{id}", consumes = {MERGE_PATCH_JSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<UserDto> patchUser(@PathVariable Long id, @RequestBody JsonNode patch,
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+                                             String ifMatch) {
+        return withValidators(userService.patchUser(id, patch, expectedVersion(id, ifMatch)));
     }
 
     @DeleteMapping("/{id}")
@@ -46,4 +205,27 @@ public class UserController {
         userService.deleteUser(id);
         return ResponseEntity.noContent().build();
     }
+
+    /**
+     * Resolves an {@code If-Match} header to the version the write must find,
+     * or null when there is none. The header may list several tags, so the
+     * current version is pinned if any of them matches.
+     */
+    private Long expectedVersion(Long id, String ifMatch) {
+        if (ifMatch == null) {
+            return null;
+        }
+        UserVersion current = userService.getUserVersion(id);
+        if (!EntityTags.ifMatchHit(ifMatch, EntityTags.of(current.version()))) {
+            throw new PreconditionFailedException("User " + id + " does not match " + ifMatch);
+        }
+        return current.version();
+    }
+
+    private static ResponseEntity<UserDto> withValidators(UserDto user) {
+        return ResponseEntity.ok()
+                .eTag(EntityTags.of(user.getVersion()))
+                .lastModified(user.getUpdatedAt())
+                .body(user);
+    }
 } 
\ No newline at end of file
@@ -2,11 +2,26 @@ package com.example.backend.domain;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
+/**
+ * Accounts are looked up by email on every login, so the email is the natural
+ * id and both the account and the email-to-id resolution live in the
+ * second-level cache, in the regions below.
+ */
 @Data
 @Entity
 @Table(name = "auth_users")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = AuthUser.CACHE_REGION)
+@NaturalIdCache(region = AuthUser.NATURAL_ID_CACHE_REGION)
 public class AuthUser {
+
+    public static final String CACHE_REGION = "auth-users";
+    public static final String NATURAL_ID_CACHE_REGION = "auth-users-by-email";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -14,9 +29,10 @@ public class AuthUser {
     @Column(nullable = false)
     private String name;
     
+    @NaturalId
     @Column(nullable = false, unique = true)
     private String email;
     
     @Column(nullable = false)
     private String passwordHash;
-} 
\ No newline at end of file
+}
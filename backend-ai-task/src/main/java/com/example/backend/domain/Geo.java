@@ -8,7 +8,7 @@ import lombok.Data;
 @Embeddable
 public class Geo {
     @Column(name = "geo_lat")
-    private String lat;
+    private Double lat;
     @Column(name = "geo_lng")
-    private String lng;
+    private Double lng;
 } 
\ No newline at end of file
@@ -6,21 +6,31 @@ import jakarta.persistence.Column;
 import jakarta.persistence.Embedded;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.Instant;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@DynamicUpdate
 @Table(name = "users")
 public class User {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "users_id_seq")
+    @GenericGenerator(name = "users_id_seq", type = UserIdGenerator.class, parameters = {
+            @Parameter(name = "sequence_name", value = "users_id_seq"),
+            @Parameter(name = "increment_size", value = "50")})
     private Long id;
 
     @Column(name = "user_name")
@@ -43,7 +53,7 @@ public class User {
 
     @Embedded
     @AttributeOverrides({
-        @AttributeOverride(name = "name", column = @Column(name = "company_name", insertable = false, updatable = false)),
+        @AttributeOverride(name = "name", column = @Column(name = "company_name")),
         @AttributeOverride(name = "catchPhrase", column = @Column(name = "company_catch_phrase")),
         @AttributeOverride(name = "bs", column = @Column(name = "company_bs"))
     })
@@ -54,4 +64,12 @@ public class User {
 
     @Column(name = "website")
     private String website;
+
+    @Version
+    @Column(name = "version")
+    private Long version;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private Instant updatedAt;
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.example.backend.domain;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+/**
+ * Draws user ids from the pooled users_id_seq sequence, unless the user was
+ * given one before it was persisted; with sharding on, ids are drawn ahead so
+ * the write can be routed to the shard that will hold the user.
+ */
+public class UserIdGenerator extends SequenceStyleGenerator {
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        if (object instanceof User user && user.getId() != null) {
+            return user.getId();
+        }
+        return super.generate(session, object);
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.backend.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The shard holding each bucket of users when sharding is on. Read and
+ * written over JDBC by {@code ShardDirectory}; mapped so that Hibernate
+ * creates the table for tests and validates it against the migration.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "user_shard_buckets")
+public class UserShardBucket {
+    @Id
+    @Column(name = "bucket")
+    private Integer bucket;
+
+    @Column(name = "shard", nullable = false)
+    private Integer shard;
+}
@@ -0,0 +1,15 @@
+package com.example.backend.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkCreateResponse {
+    private int created;
+    private int failed;
+    private List<BulkItemResult> results;
+}
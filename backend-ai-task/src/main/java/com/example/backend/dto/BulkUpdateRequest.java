@@ -0,0 +1,17 @@
+package com.example.backend.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkUpdateRequest {
+    private List<Long> ids;
+    private UserFilterDto filter;
+    // Merge-patch style values: {"company": {"name": "Acme"}, "website": null}
+    private JsonNode set;
+}
@@ -0,0 +1,12 @@
+package com.example.backend.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class ChangePasswordRequest {
+    private String email;
+    private String currentPassword;
+    private String newPassword;
+}
@@ -1,5 +1,7 @@
 package com.example.backend.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import java.time.Instant;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -15,4 +17,10 @@ public class UserDto {
     private String phone;
     private String website;
     private CompanyDto company;
+
+    // Validators for ETag and Last-Modified; sent as headers, not in the body
+    @JsonIgnore
+    private Long version;
+    @JsonIgnore
+    private Instant updatedAt;
 } 
\ No newline at end of file
@@ -0,0 +1,15 @@
+package com.example.backend.dto;
+
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserFilterDto {
+    private String city;
+    private String companyName;
+    private Instant updatedBefore;
+}
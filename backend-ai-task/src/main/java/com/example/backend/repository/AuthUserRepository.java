@@ -4,10 +4,7 @@ import com.example.backend.domain.AuthUser;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
-import java.util.Optional;
-
 @Repository
-public interface AuthUserRepository extends JpaRepository<AuthUser, Long> {
-    Optional<AuthUser> findByEmail(String email);
+public interface AuthUserRepository extends JpaRepository<AuthUser, Long>, AuthUserRepositoryCustom {
     boolean existsByEmail(String email);
-} 
\ No newline at end of file
+}
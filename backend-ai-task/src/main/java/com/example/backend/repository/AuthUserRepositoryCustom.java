@@ -0,0 +1,23 @@
+package com.example.backend.repository;
+
+import com.example.backend.domain.AuthUser;
+
+import java.util.Optional;
+
+public interface AuthUserRepositoryCustom {
+
+    /**
+     * Loads the account by its natural id. The email resolves through the
+     * natural-id cache and the account through the entity cache, so a warm
+     * lookup runs no SQL, and a second lookup in the same transaction is
+     * answered by the persistence context.
+     */
+    Optional<AuthUser> findByEmail(String email);
+
+    /**
+     * Drops the account and its email resolution from the second-level cache,
+     * for writes that must not be served stale copies and changes made behind
+     * Hibernate's back.
+     */
+    void evictFromCache(String email, Long id);
+}
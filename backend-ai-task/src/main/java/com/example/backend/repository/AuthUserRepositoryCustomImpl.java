@@ -0,0 +1,47 @@
+package com.example.backend.repository;
+
+import com.example.backend.domain.AuthUser;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceUnit;
+import org.hibernate.Session;
+import org.hibernate.cache.spi.access.NaturalIdDataAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+
+import java.util.Optional;
+
+public class AuthUserRepositoryCustomImpl implements AuthUserRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @PersistenceUnit
+    private EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public Optional<AuthUser> findByEmail(String email) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(AuthUser.class)
+                .loadOptional(email);
+    }
+
+    @Override
+    public void evictFromCache(String email, Long id) {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        if (id != null) {
+            sessionFactory.getCache().evictEntityData(AuthUser.class, id);
+        }
+        EntityPersister persister = sessionFactory.getMappingMetamodel().getEntityDescriptor(AuthUser.class);
+        NaturalIdDataAccess naturalIds = persister.getNaturalIdCacheAccessStrategy();
+        if (naturalIds == null) {
+            return;
+        }
+        // Cache keys are built against a session; this one never touches the database
+        try (SessionImplementor session = sessionFactory.openTemporarySession()) {
+            naturalIds.evict(naturalIds.generateCacheKey(email, persister, session));
+        }
+    }
+}
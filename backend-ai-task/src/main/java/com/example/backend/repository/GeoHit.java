@@ -0,0 +1,7 @@
+package com.example.backend.repository;
+
+/**
+ * A user found by a nearby query and its great-circle distance from the query point.
+ */
+public record GeoHit(Long id, double distanceMeters) {
+}
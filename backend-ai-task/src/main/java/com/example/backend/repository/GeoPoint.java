@@ -0,0 +1,4 @@
+package com.example.backend.repository;
+
+public record GeoPoint(Long id, Double lat, Double lng) {
+}
@@ -0,0 +1,7 @@
+package com.example.backend.repository;
+
+/**
+ * A user found by a search and its rank; higher ranks come first.
+ */
+public record SearchHit(UserRow row, double score) {
+}
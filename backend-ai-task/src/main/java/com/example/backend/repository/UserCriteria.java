@@ -0,0 +1,13 @@
+package com.example.backend.repository;
+
+import java.time.Instant;
+
+/**
+ * Filter for set-based operations; every non-null criterion must hold.
+ */
+public record UserCriteria(String city, String companyName, Instant updatedBefore) {
+
+    public boolean isEmpty() {
+        return city == null && companyName == null && updatedBefore == null;
+    }
+}
@@ -1,13 +1,52 @@
 package com.example.backend.repository;
 
 import com.example.backend.domain.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
+
+    String SELECT_ROW = "select new com.example.backend.repository.UserRow("
+            + "u.id, u.name, u.username, u.email, "
+            + "u.address.street, u.address.suite, u.address.city, u.address.zipcode, "
+            + "u.address.geo.lat, u.address.geo.lng, u.phone, u.website, "
+            + "u.company.name, u.company.catchPhrase, u.company.bs, u.version, u.updatedAt) from User u ";
+
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
-} 
\ No newline at end of file
+
+    @Query(SELECT_ROW + "order by u.id")
+    List<UserRow> findAllRows();
+
+    @Query(SELECT_ROW + "where u.id = :id")
+    Optional<UserRow> findRowById(Long id);
+
+    @Query("select new com.example.backend.repository.UserVersion(u.version, u.updatedAt) from User u where u.id = :id")
+    Optional<UserVersion> findVersionById(Long id);
+
+    @Query(SELECT_ROW + "where u.id > :afterId order by u.id")
+    List<UserRow> findRowsAfter(Long afterId, Limit limit);
+
+    @Query(SELECT_ROW + "where u.id in :ids")
+    List<UserRow> findRowsByIds(Collection<Long> ids);
+
+    @Query("select u.id from User u where u.id in :ids")
+    List<Long> findExistingIds(Collection<Long> ids);
+
+    // One statement, where deleteById would first load the entity to remove it
+    @Modifying
+    @Query("delete from User u where u.id = :id")
+    int deleteRowById(Long id);
+
+    @Query("select new com.example.backend.repository.GeoPoint(u.id, u.address.geo.lat, u.address.geo.lng) "
+            + "from User u where u.address.geo.lat is not null and u.address.geo.lng is not null")
+    List<GeoPoint> findAllGeoPoints();
+}
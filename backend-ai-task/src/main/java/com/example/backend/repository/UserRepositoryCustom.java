@@ -0,0 +1,71 @@
+package com.example.backend.repository;
+
+import com.example.backend.domain.User;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+public interface UserRepositoryCustom {
+
+    /**
+     * Approximate row count of the users table, taken from planner statistics
+     * where the database provides them instead of running COUNT(*).
+     */
+    long estimateCount();
+
+    /**
+     * Walks every user in id order over a forward-only cursor read with the given
+     * JDBC fetch size. Entities are loaded read-only and detached as soon as the
+     * action returns, so the persistence context never grows with the table.
+     */
+    void forEachUser(int fetchSize, Consumer<User> action);
+
+    /**
+     * Inserts the users as a single JDBC batch, then clears the persistence
+     * context. Ids come from the pooled users_id_seq sequence, unless the users
+     * were given theirs beforehand.
+     */
+    void persistBatch(List<User> users);
+
+    /**
+     * Ranked search over name, username, email, city and company name. Uses the
+     * full-text and trigram indexes on PostgreSQL and a LIKE scan elsewhere.
+     * Every whitespace-separated term must match; terms match as prefixes.
+     * Hits come best first, ties by id.
+     */
+    List<SearchHit> search(String query, int limit, long offset);
+
+    /**
+     * Whether {@link #findNearby} is served by the database's spatial index.
+     * Only PostgreSQL (cube/earthdistance) has one.
+     */
+    boolean supportsNearbyQueries();
+
+    /**
+     * Up to {@code limit} users nearest to the point, closest first, optionally
+     * restricted to a great-circle radius. Requires {@link #supportsNearbyQueries()}.
+     */
+    List<GeoHit> findNearby(double lat, double lng, Double radiusMeters, int limit);
+
+    /**
+     * Up to {@code limit} ids of users matching the criteria, in id order after
+     * {@code afterId}, so large matches can be walked chunk by chunk.
+     */
+    List<Long> findIdsMatching(UserCriteria criteria, long afterId, int limit);
+
+    /**
+     * Deletes the users with the given ids in one statement and returns the ids
+     * that existed.
+     */
+    List<Long> deleteByIds(Collection<Long> ids);
+
+    /**
+     * Sets the given columns on the users with the given ids in one statement and
+     * bumps their version, skipping rows that already hold those values. Column
+     * names must come from a fixed list, never from input. Returns the ids of
+     * the rows that changed.
+     */
+    List<Long> updateByIds(Collection<Long> ids, Map<String, Object> columnValues);
+}
@@ -0,0 +1,295 @@
+package com.example.backend.repository;
+
+import com.example.backend.domain.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.Timestamp;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    private static final String POSTGRES_ESTIMATE_SQL =
+            "SELECT reltuples::bigint FROM pg_class WHERE oid = 'users'::regclass";
+
+    private static final String ROW_COLUMNS = "id, user_name, username, email, street, suite, city, zipcode, "
+            + "geo_lat, geo_lng, phone, website, company_name, company_catch_phrase, company_bs, version, updated_at";
+
+    // Only the prefix query filters; trigram similarity just orders close matches above looser ones
+    private static final String POSTGRES_SEARCH_SQL = "SELECT " + ROW_COLUMNS + ", "
+            + "ts_rank(search_vector, to_tsquery('simple', ?)) + word_similarity(?, search_text) AS score FROM users "
+            + "WHERE search_vector @@ to_tsquery('simple', ?) "
+            + "ORDER BY score DESC, id LIMIT ? OFFSET ?";
+
+    // ll_to_earth(geo_lat, geo_lng) must match the expression of idx_users_geo_earth
+    private static final String POSTGRES_NEAREST_SQL = "SELECT id, "
+            + "earth_distance(ll_to_earth(geo_lat, geo_lng), ll_to_earth(?, ?)) AS distance FROM users "
+            + "WHERE geo_lat IS NOT NULL AND geo_lng IS NOT NULL "
+            + "ORDER BY ll_to_earth(geo_lat, geo_lng) <-> ll_to_earth(?, ?) LIMIT ?";
+
+    private static final String POSTGRES_WITHIN_SQL = "SELECT id, "
+            + "earth_distance(ll_to_earth(geo_lat, geo_lng), ll_to_earth(?, ?)) AS distance FROM users "
+            + "WHERE earth_box(ll_to_earth(?, ?), ?) @> ll_to_earth(geo_lat, geo_lng) "
+            + "AND earth_distance(ll_to_earth(geo_lat, geo_lng), ll_to_earth(?, ?)) <= ? "
+            + "ORDER BY ll_to_earth(geo_lat, geo_lng) <-> ll_to_earth(?, ?) LIMIT ?";
+
+    private static final RowMapper<GeoHit> GEO_HIT_MAPPER = (rs, rowNum) ->
+            new GeoHit(rs.getLong("id"), rs.getDouble("distance"));
+
+    private static final String[] SEARCH_COLUMNS = {"user_name", "username", "email", "city", "company_name"};
+
+    static final RowMapper<UserRow> USER_ROW_MAPPER = (rs, rowNum) -> new UserRow(
+            rs.getLong("id"),
+            rs.getString("user_name"),
+            rs.getString("username"),
+            rs.getString("email"),
+            rs.getString("street"),
+            rs.getString("suite"),
+            rs.getString("city"),
+            rs.getString("zipcode"),
+            rs.getObject("geo_lat", Double.class),
+            rs.getObject("geo_lng", Double.class),
+            rs.getString("phone"),
+            rs.getString("website"),
+            rs.getString("company_name"),
+            rs.getString("company_catch_phrase"),
+            rs.getString("company_bs"),
+            rs.getLong("version"),
+            rs.getObject("updated_at", OffsetDateTime.class).toInstant());
+
+    private static final RowMapper<SearchHit> SEARCH_HIT_MAPPER = (rs, rowNum) ->
+            new SearchHit(USER_ROW_MAPPER.mapRow(rs, rowNum), rs.getDouble("score"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile Boolean postgres;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public UserRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public long estimateCount() {
+        if (isPostgres()) {
+            Long estimate = jdbcTemplate.queryForObject(POSTGRES_ESTIMATE_SQL, Long.class);
+            // reltuples is -1 until the table has been vacuumed or analyzed once
+            if (estimate != null && estimate >= 0) {
+                return estimate;
+            }
+        }
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Long.class);
+        return count != null ? count : 0L;
+    }
+
+    @Override
+    public void forEachUser(int fetchSize, Consumer<User> action) {
+        try (Stream<User> users = entityManager.createQuery("select u from User u order by u.id", User.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()) {
+            users.forEach(user -> {
+                action.accept(user);
+                entityManager.detach(user);
+            });
+        }
+    }
+
+    @Override
+    public void persistBatch(List<User> users) {
+        Session session = entityManager.unwrap(Session.class);
+        Integer previousBatchSize = session.getJdbcBatchSize();
+        session.setJdbcBatchSize(Math.max(users.size(), 1));
+        try {
+            users.forEach(entityManager::persist);
+            entityManager.flush();
+            entityManager.clear();
+        } finally {
+            session.setJdbcBatchSize(previousBatchSize);
+        }
+    }
+
+    @Override
+    public List<SearchHit> search(String query, int limit, long offset) {
+        List<String> terms = Arrays.stream(query.toLowerCase(Locale.ROOT).split("\\s+"))
+                .map(term -> term.replaceAll("[&|!():*<>'\\\\]", ""))
+                .filter(term -> !term.isEmpty())
+                .toList();
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        return isPostgres() ? searchPostgres(terms, limit, offset) : searchByLike(terms, limit, offset);
+    }
+
+    private List<SearchHit> searchPostgres(List<String> terms, int limit, long offset) {
+        String tsQuery = String.join(" & ", terms.stream().map(term -> term + ":*").toList());
+        String text = String.join(" ", terms);
+        return jdbcTemplate.query(POSTGRES_SEARCH_SQL, SEARCH_HIT_MAPPER, tsQuery, text, tsQuery, limit, offset);
+    }
+
+    /**
+     * Portable fallback (H2 in tests and local runs): like the PostgreSQL prefix
+     * query, every term has to start a word in one of the searched columns;
+     * prefix hits on the names score highest.
+     */
+    private List<SearchHit> searchByLike(List<String> terms, int limit, long offset) {
+        StringBuilder where = new StringBuilder();
+        StringBuilder score = new StringBuilder();
+        List<Object> whereArgs = new ArrayList<>();
+        List<Object> scoreArgs = new ArrayList<>();
+
+        for (String term : terms) {
+            String escaped = term.replace("%", "\\%").replace("_", "\\_");
+            where.append(where.isEmpty() ? "(" : " AND (");
+            for (int i = 0; i < SEARCH_COLUMNS.length; i++) {
+                where.append(i == 0 ? "" : " OR ")
+                        .append("LOWER(").append(SEARCH_COLUMNS[i]).append(") LIKE ? ESCAPE '\\'")
+                        .append(" OR LOWER(").append(SEARCH_COLUMNS[i]).append(") LIKE ? ESCAPE '\\'");
+                whereArgs.add(escaped + "%");
+                whereArgs.add("% " + escaped + "%");
+            }
+            where.append(')');
+
+            score.append(score.isEmpty() ? "" : " + ")
+                    .append("CASE WHEN LOWER(user_name) LIKE ? ESCAPE '\\' OR LOWER(username) LIKE ? ESCAPE '\\' THEN 2 ")
+                    .append("WHEN LOWER(email) LIKE ? ESCAPE '\\' THEN 1 ELSE 0 END");
+            scoreArgs.add(escaped + "%");
+            scoreArgs.add(escaped + "%");
+            scoreArgs.add(escaped + "%");
+        }
+
+        String sql = "SELECT " + ROW_COLUMNS + ", " + score + " AS score FROM users WHERE " + where
+                + " ORDER BY score DESC, id LIMIT ? OFFSET ?";
+        List<Object> args = new ArrayList<>(scoreArgs);
+        args.addAll(whereArgs);
+        args.add(limit);
+        args.add(offset);
+        return jdbcTemplate.query(sql, SEARCH_HIT_MAPPER, args.toArray());
+    }
+
+    @Override
+    public boolean supportsNearbyQueries() {
+        return isPostgres();
+    }
+
+    @Override
+    public List<GeoHit> findNearby(double lat, double lng, Double radiusMeters, int limit) {
+        if (!isPostgres()) {
+            throw new UnsupportedOperationException("Nearby queries need the PostgreSQL earthdistance index");
+        }
+        if (radiusMeters == null) {
+            return jdbcTemplate.query(POSTGRES_NEAREST_SQL, GEO_HIT_MAPPER, lat, lng, lat, lng, limit);
+        }
+        return jdbcTemplate.query(POSTGRES_WITHIN_SQL, GEO_HIT_MAPPER,
+                lat, lng, lat, lng, radiusMeters, lat, lng, radiusMeters, lat, lng, limit);
+    }
+
+    @Override
+    public List<Long> findIdsMatching(UserCriteria criteria, long afterId, int limit) {
+        flushPersistenceContext();
+        StringBuilder sql = new StringBuilder("SELECT id FROM users WHERE id > ?");
+        List<Object> args = new ArrayList<>();
+        args.add(afterId);
+        if (criteria.city() != null) {
+            sql.append(" AND city = ?");
+            args.add(criteria.city());
+        }
+        if (criteria.companyName() != null) {
+            sql.append(" AND company_name = ?");
+            args.add(criteria.companyName());
+        }
+        if (criteria.updatedBefore() != null) {
+            sql.append(" AND updated_at < ?");
+            args.add(Timestamp.from(criteria.updatedBefore()));
+        }
+        sql.append(" ORDER BY id LIMIT ?");
+        args.add(limit);
+        return jdbcTemplate.queryForList(sql.toString(), Long.class, args.toArray());
+    }
+
+    @Override
+    public List<Long> deleteByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        flushPersistenceContext();
+        String idList = placeholders(ids.size());
+        Object[] args = ids.toArray();
+        if (isPostgres()) {
+            return jdbcTemplate.queryForList("DELETE FROM users WHERE id IN (" + idList + ") RETURNING id",
+                    Long.class, args);
+        }
+        List<Long> existing = jdbcTemplate.queryForList("SELECT id FROM users WHERE id IN (" + idList + ")",
+                Long.class, args);
+        jdbcTemplate.update("DELETE FROM users WHERE id IN (" + idList + ")", args);
+        return existing;
+    }
+
+    @Override
+    public List<Long> updateByIds(Collection<Long> ids, Map<String, Object> columnValues) {
+        if (ids.isEmpty() || columnValues.isEmpty()) {
+            return List.of();
+        }
+        flushPersistenceContext();
+        StringBuilder set = new StringBuilder();
+        StringBuilder changed = new StringBuilder();
+        for (String column : columnValues.keySet()) {
+            set.append(column).append(" = ?, ");
+            changed.append(changed.isEmpty() ? "" : " OR ").append(column).append(" IS DISTINCT FROM ?");
+        }
+        String where = "id IN (" + placeholders(ids.size()) + ") AND (" + changed + ")";
+        List<Object> whereArgs = new ArrayList<>(ids);
+        whereArgs.addAll(columnValues.values());
+        List<Object> args = new ArrayList<>(columnValues.values());
+        args.addAll(whereArgs);
+
+        String update = "UPDATE users SET " + set + "version = version + 1, updated_at = CURRENT_TIMESTAMP WHERE " + where;
+        if (isPostgres()) {
+            return jdbcTemplate.queryForList(update + " RETURNING id", Long.class, args.toArray());
+        }
+        List<Long> changing = jdbcTemplate.queryForList("SELECT id FROM users WHERE " + where, Long.class,
+                whereArgs.toArray());
+        jdbcTemplate.update(update, args.toArray());
+        return changing;
+    }
+
+    /**
+     * Writes pending entity changes before a plain JDBC statement reads or
+     * modifies the table, and drops managed copies it may leave stale.
+     */
+    private void flushPersistenceContext() {
+        if (entityManager.isJoinedToTransaction()) {
+            entityManager.flush();
+            entityManager.clear();
+        }
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    protected boolean isPostgres() {
+        Boolean result = postgres;
+        if (result == null) {
+            result = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                    "PostgreSQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName()));
+            postgres = result;
+        }
+        return Boolean.TRUE.equals(result);
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.backend.repository;
+
+import java.time.Instant;
+
+/**
+ * Flat, read-only projection of a users row. Selected through a JPQL
+ * constructor expression, so no entity is hydrated or snapshotted in the
+ * persistence context.
+ */
+public record UserRow(
+        Long id,
+        String name,
+        String username,
+        String email,
+        String street,
+        String suite,
+        String city,
+        String zipcode,
+        Double geoLat,
+        Double geoLng,
+        String phone,
+        String website,
+        String companyName,
+        String companyCatchPhrase,
+        String companyBs,
+        Long version,
+        Instant updatedAt) {
+}
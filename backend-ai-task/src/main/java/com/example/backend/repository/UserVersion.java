@@ -0,0 +1,9 @@
+package com.example.backend.repository;
+
+import java.time.Instant;
+
+/**
+ * Just the validators of a users row, enough to answer a conditional request.
+ */
+public record UserVersion(Long version, Instant updatedAt) {
+}
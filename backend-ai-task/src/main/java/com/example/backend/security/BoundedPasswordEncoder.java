@@ -0,0 +1,204 @@
+package com.example.backend.security;
+
+import com.example.backend.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs password hashing and verification on a small dedicated pool with a
+ * bounded queue (a bulkhead). At most {@code threads} hashes burn CPU at once
+ * and at most {@code threads + queueCapacity} request threads wait for one, so
+ * a burst of logins cannot take over the servlet pool. Work that finds the
+ * queue full, or waits longer than {@code waitTimeout}, fails with
+ * {@link ServiceUnavailableException} (503).
+ *
+ * <p>A timed-out operation that is still queued is taken off the queue. One
+ * that is already hashing cannot be stopped, as BCrypt never checks for
+ * interrupts, so it runs to completion with nobody waiting for it; such
+ * operations are counted in {@code auth.password.abandoned}.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, DisposableBean {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final Duration waitTimeout;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejected;
+    private final Counter abandoned;
+    private final AtomicInteger abandonedActive = new AtomicInteger();
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity,
+                                  Duration waitTimeout, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.waitTimeout = waitTimeout;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+
+        this.encodeTimer = Timer.builder("auth.password.hash")
+                .description("Time spent hashing or verifying a password, excluding queueing")
+                .tag("operation", "encode")
+                .register(meterRegistry);
+        this.matchesTimer = Timer.builder("auth.password.hash")
+                .description("Time spent hashing or verifying a password, excluding queueing")
+                .tag("operation", "matches")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("auth.password.rejected")
+                .description("Password operations refused because the hashing pool was saturated")
+                .register(meterRegistry);
+        this.abandoned = Counter.builder("auth.password.abandoned")
+                .description("Password operations whose caller gave up while they were hashing")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.abandoned.active", abandonedActive, AtomicInteger::get)
+                .description("Password operations still hashing after their caller gave up")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.queue.depth", executor, pool -> pool.getQueue().size())
+                .description("Password operations waiting for a hashing thread")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password operations currently running")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(encodeTimer, () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(matchesTimer, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private <T> T run(Timer timer, Callable<T> work) {
+        AtomicReference<Progress> progress = new AtomicReference<>(Progress.WAITED_FOR);
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                try {
+                    return timer.recordCallable(work);
+                } finally {
+                    if (!progress.compareAndSet(Progress.WAITED_FOR, Progress.DONE)) {
+                        abandonedActive.decrementAndGet();
+                    }
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            rejected.increment();
+            throw new ServiceUnavailableException("Too many concurrent sign-ins, try again shortly");
+        }
+        try {
+            return future.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            if (!giveUp(future, progress)) {
+                // Finished between the timeout and giving up
+                return result(future);
+            }
+            rejected.increment();
+            throw new ServiceUnavailableException("Too many concurrent sign-ins, try again shortly");
+        } catch (InterruptedException ex) {
+            giveUp(future, progress);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", ex);
+        } catch (ExecutionException ex) {
+            throw unwrap(ex);
+        }
+    }
+
+    /**
+     * Takes a queued operation off the queue, or marks a running one as
+     * abandoned. Returns false if it already finished.
+     */
+    private boolean giveUp(Future<?> future, AtomicReference<Progress> progress) {
+        if (executor.remove((Runnable) future)) {
+            return true;
+        }
+        if (progress.compareAndSet(Progress.WAITED_FOR, Progress.ABANDONED)) {
+            abandonedActive.incrementAndGet();
+            abandoned.increment();
+            return true;
+        }
+        return false;
+    }
+
+    private static <T> T result(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", ex);
+        } catch (ExecutionException ex) {
+            throw unwrap(ex);
+        }
+    }
+
+    private static RuntimeException unwrap(ExecutionException ex) {
+        if (ex.getCause() instanceof RuntimeException runtime) {
+            return runtime;
+        }
+        return new IllegalStateException(ex.getCause());
+    }
+
+    /**
+     * Picks the highest BCrypt strength in {@code [minStrength, maxStrength]}
+     * whose hash is expected to take no longer than {@code targetLatency} on this
+     * machine. Each strength step doubles the work, so one timed hash at the
+     * minimum is enough to extrapolate. Never goes below {@code minStrength}.
+     */
+    public static int calibrateStrength(Duration targetLatency, int minStrength, int maxStrength) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(minStrength);
+        probe.encode("calibration");
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            probe.encode("calibration");
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        int strength = minStrength;
+        double nanos = best;
+        while (strength < maxStrength && nanos * 2 <= targetLatency.toNanos()) {
+            nanos *= 2;
+            strength++;
+        }
+        return strength;
+    }
+
+    private enum Progress {
+        WAITED_FOR,
+        ABANDONED,
+        DONE
+    }
+}
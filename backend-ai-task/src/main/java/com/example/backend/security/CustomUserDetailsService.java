@@ -23,6 +23,10 @@ public class CustomUserDetailsService implements UserDetailsService {
         AuthUser authUser = authUserRepository.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
 
+        return toUserDetails(authUser);
+    }
+
+    public static UserDetails toUserDetails(AuthUser authUser) {
         return new User(
                 authUser.getEmail(),
                 authUser.getPasswordHash(),
@@ -1,51 +1,90 @@
 package com.example.backend.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
 import java.util.Date;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 @Component
 public class JwtTokenProvider {
 
-    @Value("${jwt.secret}")
-    private String secret;
+    static final String ROLES_CLAIM = "roles";
 
-    @Value("${jwt.expiration}")
-    private Long expiration;
+    // Token lifetime in milliseconds (jwt.expiration)
+    private final long expiration;
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+    private final Timer validTokens;
+    private final Timer invalidTokens;
 
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = secret.getBytes();
-        return Keys.hmacShaKeyFor(keyBytes);
+    public JwtTokenProvider(String secret, long expiration) {
+        this(secret, expiration, new SimpleMeterRegistry());
     }
 
-    public String generateToken(UserDetails userDetails) {
-        Map<String, Object> claims = new HashMap<>();
-        return createToken(claims, userDetails.getUsername());
+    @Autowired
+    public JwtTokenProvider(@Value("${jwt.secret}") String secret, @Value("${jwt.expiration}") long expiration,
+                            MeterRegistry meterRegistry) {
+        this.expiration = expiration;
+        // Key derivation and parser construction are the expensive parts; do them once
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+        this.validTokens = validationTimer("valid", meterRegistry);
+        this.invalidTokens = validationTimer("invalid", meterRegistry);
     }
 
-    private String createToken(Map<String, Object> claims, String subject) {
+    public String generateToken(UserDetails userDetails) {
+        List<String> roles = userDetails.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList();
+        long now = System.currentTimeMillis();
         return Jwts.builder()
-                .setClaims(claims)
-                .setSubject(subject)
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + expiration * 1000))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .subject(userDetails.getUsername())
+                .claim(ROLES_CLAIM, roles)
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + expiration))
+                .signWith(signingKey, Jwts.SIG.HS256)
                 .compact();
     }
 
+    /**
+     * Verifies the signature and expiry of a token and returns its claims.
+     * Callers should parse a token once and read everything they need from
+     * the result instead of calling the single-claim helpers repeatedly.
+     *
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, tampered with or expired
+     */
+    public ValidatedToken parseToken(String token) {
+        long start = System.nanoTime();
+        try {
+            ValidatedToken validated = ValidatedToken.from(parser.parseSignedClaims(token).getPayload());
+            validTokens.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return validated;
+        } catch (JwtException | IllegalArgumentException ex) {
+            invalidTokens.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw ex;
+        }
+    }
+
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return parseToken(token).username().equals(userDetails.getUsername());
     }
 
     public String extractUsername(String token) {
@@ -57,19 +96,13 @@ public class JwtTokenProvider {
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
-    }
-
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return claimsResolver.apply(parser.parseSignedClaims(token).getPayload());
     }
 
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    private static Timer validationTimer(String outcome, MeterRegistry meterRegistry) {
+        return Timer.builder("auth.jwt.validation")
+                .description("Time spent verifying a token's signature and reading its claims")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
     }
-} 
\ No newline at end of file
+}
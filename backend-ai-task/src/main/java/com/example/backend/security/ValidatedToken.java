@@ -0,0 +1,19 @@
+package com.example.backend.security;
+
+import io.jsonwebtoken.Claims;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Claims of a token whose signature and expiry have already been checked.
+ * {@code roles} is null for tokens issued before the roles claim existed.
+ */
+public record ValidatedToken(String username, List<String> roles, Date issuedAt, Date expiration) {
+
+    static ValidatedToken from(Claims claims) {
+        List<?> rawRoles = claims.get(JwtTokenProvider.ROLES_CLAIM, List.class);
+        List<String> roles = rawRoles == null ? null : rawRoles.stream().map(String::valueOf).toList();
+        return new ValidatedToken(claims.getSubject(), roles, claims.getIssuedAt(), claims.getExpiration());
+    }
+}
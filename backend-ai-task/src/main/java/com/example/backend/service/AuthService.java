@@ -2,10 +2,16 @@ package com.example.backend.service;
 
 import com.example.backend.domain.AuthUser;
 import com.example.backend.dto.AuthResponse;
+import com.example.backend.dto.ChangePasswordRequest;
 import com.example.backend.dto.LoginRequest;
 import com.example.backend.dto.RegisterRequest;
+import com.example.backend.exception.BadRequestException;
 import com.example.backend.repository.AuthUserRepository;
+import com.example.backend.security.CustomUserDetailsService;
 import com.example.backend.security.JwtTokenProvider;
+import com.example.backend.security.UserDetailsCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -14,6 +20,10 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
 
 @Service
 @RequiredArgsConstructor
@@ -23,34 +33,39 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
     private final JwtTokenProvider tokenProvider;
+    private final MeterRegistry meterRegistry;
+    private final UserDetailsCache userDetailsCache;
 
     @Transactional
     public AuthResponse register(RegisterRequest request) {
         if (authUserRepository.existsByEmail(request.getEmail())) {
             throw new RuntimeException("Email already exists");
         }
+        // A cached resolution of this email can only be stale: no account holds it
+        authUserRepository.evictFromCache(request.getEmail(), null);
 
         AuthUser authUser = new AuthUser();
         authUser.setName(request.getName());
         authUser.setEmail(request.getEmail());
-        authUser.setPasswordHash(passwordEncoder.encode(request.getPassword()));
+        authUser.setPasswordHash(timePassword("register", () -> passwordEncoder.encode(request.getPassword())));
 
         authUserRepository.save(authUser);
 
-        Authentication authentication = authenticationManager.authenticate(
-            new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
-        );
-
-        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-        String token = tokenProvider.generateToken(userDetails);
+        // The password was just hashed; authenticating it again would run BCrypt twice
+        String token = tokenProvider.generateToken(CustomUserDetailsService.toUserDetails(authUser));
         return new AuthResponse(token, authUser.getEmail(), authUser.getName());
     }
 
+    /**
+     * Both lookups of the account, the one behind authentication and the one
+     * below, go through the natural-id cache in one persistence context: a
+     * cold login reads the account once and a warm one not at all.
+     */
     @Transactional(readOnly = true)
     public AuthResponse login(LoginRequest request) {
-        Authentication authentication = authenticationManager.authenticate(
+        Authentication authentication = timePassword("login", () -> authenticationManager.authenticate(
             new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
-        );
+        ));
 
         UserDetails userDetails = (UserDetails) authentication.getPrincipal();
         String token = tokenProvider.generateToken(userDetails);
@@ -60,4 +75,52 @@ public class AuthService {
 
         return new AuthResponse(token, authUser.getEmail(), authUser.getName());
     }
-} 
\ No newline at end of file
+
+    /**
+     * Replaces the password after checking the current one. Once the change
+     * commits, the account is evicted from the second-level cache and from
+     * {@link UserDetailsCache}, so no cached copy of the old hash survives it.
+     */
+    @Transactional
+    public void changePassword(ChangePasswordRequest request) {
+        if (request.getNewPassword() == null || request.getNewPassword().isBlank()) {
+            throw new BadRequestException("New password must not be blank");
+        }
+        timePassword("change-password", () -> authenticationManager.authenticate(
+            new UsernamePasswordAuthenticationToken(request.getEmail(), request.getCurrentPassword())
+        ));
+
+        AuthUser authUser = authUserRepository.findByEmail(request.getEmail())
+            .orElseThrow(() -> new RuntimeException("User not found"));
+        authUser.setPasswordHash(timePassword("new-password", () -> passwordEncoder.encode(request.getNewPassword())));
+
+        String email = authUser.getEmail();
+        Long id = authUser.getId();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                authUserRepository.evictFromCache(email, id);
+                userDetailsCache.evict(email);
+            }
+        });
+    }
+
+    /**
+     * Times the BCrypt step of a sign-in as the caller sees it, including the
+     * wait for a hashing thread; {@code auth.password.hash} has the hash alone.
+     */
+    private <T> T timePassword(String operation, Supplier<T> work) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failure";
+        try {
+            T result = work.get();
+            outcome = "success";
+            return result;
+        } finally {
+            sample.stop(Timer.builder("auth.password.check")
+                    .description("Time to hash a new password or authenticate a login, including queueing")
+                    .tags("operation", operation, "outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.example.backend.service;
+
+import com.example.backend.repository.GeoHit;
+import com.example.backend.repository.GeoPoint;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Immutable 3-d tree over user locations projected onto the unit sphere, the
+ * same model PostgreSQL's earthdistance uses. Straight-line (chord) distance
+ * grows monotonically with great-circle distance, so nearest-neighbour pruning
+ * works without special cases for the antimeridian or the poles.
+ *
+ * <p>The tree is implicit: the node for the index range {@code [lo, hi)} sits at
+ * its midpoint and splits on axis {@code depth % 3}.
+ */
+final class GeoKdTree {
+
+    // Radius of earthdistance's earth(), so both backends report the same distances
+    static final double EARTH_RADIUS_METERS = 6_378_168d;
+
+    private final long[] ids;
+    private final double[][] coords;
+
+    private GeoKdTree(long[] ids, double[][] coords) {
+        this.ids = ids;
+        this.coords = coords;
+    }
+
+    static GeoKdTree build(List<GeoPoint> points) {
+        int size = points.size();
+        double[][] unsorted = new double[3][size];
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            GeoPoint point = points.get(i);
+            double[] xyz = toUnitVector(point.lat(), point.lng());
+            unsorted[0][i] = xyz[0];
+            unsorted[1][i] = xyz[1];
+            unsorted[2][i] = xyz[2];
+            order[i] = i;
+        }
+        arrange(order, unsorted, 0, size, 0);
+
+        long[] ids = new long[size];
+        double[][] coords = new double[3][size];
+        for (int i = 0; i < size; i++) {
+            ids[i] = points.get(order[i]).id();
+            for (int axis = 0; axis < 3; axis++) {
+                coords[axis][i] = unsorted[axis][order[i]];
+            }
+        }
+        return new GeoKdTree(ids, coords);
+    }
+
+    int size() {
+        return ids.length;
+    }
+
+    /**
+     * Up to {@code limit} points nearest to the given location, closest first,
+     * skipping any farther than {@code radiusMeters} when it is not null.
+     */
+    List<GeoHit> nearest(double lat, double lng, Double radiusMeters, int limit) {
+        double maxChordSquared = 4.0;
+        if (radiusMeters != null) {
+            double chord = 2 * Math.sin(Math.min(Math.PI, radiusMeters / EARTH_RADIUS_METERS) / 2);
+            maxChordSquared = chord * chord;
+        }
+        Search search = new Search(toUnitVector(lat, lng), limit, maxChordSquared);
+        search.visit(0, ids.length, 0);
+
+        List<GeoHit> hits = new ArrayList<>(search.size);
+        for (int i = search.size - 1; i >= 0; i--) {
+            search.popInto(i);
+        }
+        for (int i = 0; i < search.size; i++) {
+            double chord = Math.sqrt(search.distances[i]);
+            double meters = 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1.0, chord / 2));
+            hits.add(new GeoHit(ids[search.indexes[i]], meters));
+        }
+        return hits;
+    }
+
+    private static double[] toUnitVector(double lat, double lng) {
+        double phi = Math.toRadians(lat);
+        double lambda = Math.toRadians(lng);
+        return new double[] {
+            Math.cos(phi) * Math.cos(lambda),
+            Math.cos(phi) * Math.sin(lambda),
+            Math.sin(phi)
+        };
+    }
+
+    private static void arrange(int[] order, double[][] coords, int lo, int hi, int depth) {
+        if (hi - lo < 2) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        select(order, coords[depth % 3], lo, hi - 1, mid);
+        arrange(order, coords, lo, mid, depth + 1);
+        arrange(order, coords, mid + 1, hi, depth + 1);
+    }
+
+    /**
+     * Quickselect: moves the element of rank {@code k} to {@code order[k]}, with
+     * no larger element before it and no smaller one after it.
+     */
+    private static void select(int[] order, double[] values, int left, int right, int k) {
+        while (left < right) {
+            double pivot = values[order[(left + right) >>> 1]];
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (values[order[i]] < pivot) {
+                    i++;
+                }
+                while (values[order[j]] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    int swap = order[i];
+                    order[i] = order[j];
+                    order[j] = swap;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                right = j;
+            } else if (k >= i) {
+                left = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Depth-first search keeping the best matches in a bounded max-heap of
+     * squared chord distances.
+     */
+    private final class Search {
+        private final double[] query;
+        private final int limit;
+        private final double maxChordSquared;
+        private final double[] distances;
+        private final int[] indexes;
+        private int size;
+
+        Search(double[] query, int limit, double maxChordSquared) {
+            this.query = query;
+            this.limit = limit;
+            this.maxChordSquared = maxChordSquared;
+            this.distances = new double[limit];
+            this.indexes = new int[limit];
+        }
+
+        void visit(int lo, int hi, int depth) {
+            if (lo >= hi) {
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            double dx = coords[0][mid] - query[0];
+            double dy = coords[1][mid] - query[1];
+            double dz = coords[2][mid] - query[2];
+            offer(mid, dx * dx + dy * dy + dz * dz);
+
+            double split = query[depth % 3] - coords[depth % 3][mid];
+            boolean queryBelow = split < 0;
+            visit(queryBelow ? lo : mid + 1, queryBelow ? mid : hi, depth + 1);
+            if (split * split <= bound()) {
+                visit(queryBelow ? mid + 1 : lo, queryBelow ? hi : mid, depth + 1);
+            }
+        }
+
+        private double bound() {
+            return size == limit ? Math.min(distances[0], maxChordSquared) : maxChordSquared;
+        }
+
+        private void offer(int index, double distance) {
+            if (distance > maxChordSquared) {
+                return;
+            }
+            if (size < limit) {
+                distances[size] = distance;
+                indexes[size] = index;
+                siftUp(size++);
+            } else if (distance < distances[0]) {
+                distances[0] = distance;
+                indexes[0] = index;
+                siftDown(0, size);
+            }
+        }
+
+        /**
+         * Heap-sort step: swaps the current maximum to {@code last} so the arrays
+         * end up in ascending order once every slot has been popped.
+         */
+        void popInto(int last) {
+            swap(0, last);
+            siftDown(0, last);
+        }
+
+        private void siftUp(int child) {
+            while (child > 0) {
+                int parent = (child - 1) / 2;
+                if (distances[parent] >= distances[child]) {
+                    return;
+                }
+                swap(parent, child);
+                child = parent;
+            }
+        }
+
+        private void siftDown(int parent, int end) {
+            while (true) {
+                int largest = parent;
+                int left = 2 * parent + 1;
+                int right = left + 1;
+                if (left < end && distances[left] > distances[largest]) {
+                    largest = left;
+                }
+                if (right < end && distances[right] > distances[largest]) {
+                    largest = right;
+                }
+                if (largest == parent) {
+                    return;
+                }
+                swap(parent, largest);
+                parent = largest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            double distance = distances[a];
+            distances[a] = distances[b];
+            distances[b] = distance;
+            int index = indexes[a];
+            indexes[a] = indexes[b];
+            indexes[b] = index;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.backend.service;
+
+import com.example.backend.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque page cursors handed to clients. Keyset cursors encode the last id of
+ * the page that was returned, so the next page can seek straight to it; offset
+ * cursors are used where results are ordered by a computed rank. Public so the
+ * reactive read API hands out the same cursors.
+ */
+public final class PageCursor {
+
+    private static final String ID_PREFIX = "id:";
+    private static final String OFFSET_PREFIX = "off:";
+
+    private PageCursor() {
+    }
+
+    public static String encode(long lastId) {
+        return encode(ID_PREFIX, lastId);
+    }
+
+    public static long decode(String cursor) {
+        return decode(ID_PREFIX, cursor);
+    }
+
+    static String encodeOffset(long offset) {
+        return encode(OFFSET_PREFIX, offset);
+    }
+
+    static long decodeOffset(String cursor) {
+        long offset = decode(OFFSET_PREFIX, cursor);
+        if (offset < 0) {
+            throw new BadRequestException("Invalid cursor: '" + cursor + "'");
+        }
+        return offset;
+    }
+
+    private static String encode(String prefix, long value) {
+        byte[] raw = (prefix + value).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+    }
+
+    private static long decode(String prefix, String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!raw.startsWith(prefix)) {
+                throw new BadRequestException("Invalid cursor: '" + cursor + "'");
+            }
+            return Long.parseLong(raw.substring(prefix.length()));
+        } catch (IllegalArgumentException ex) {
+            throw new BadRequestException("Invalid cursor: '" + cursor + "'");
+        }
+    }
+}
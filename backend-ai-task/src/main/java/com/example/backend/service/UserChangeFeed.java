@@ -0,0 +1,396 @@
+package com.example.backend.service;
+
+import com.example.backend.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes committed user changes to Server-Sent Events subscribers.
+ *
+ * <p>Changes are appended to a ring buffer of the last {@code bufferSize}
+ * events, each with a sequence number, and writers return as soon as their
+ * event is in the ring. A small pool of sender threads then copies events from
+ * the ring to each subscriber, starting at the subscriber's own position, so
+ * no thread is held by an idle connection and a slow connection only delays
+ * itself. A subscriber that falls a whole buffer behind is dropped; its client
+ * reconnects with {@code Last-Event-ID}.
+ *
+ * <p>A send that has not returned within {@code sendTimeout} drops its
+ * subscriber too, and the sender pool gets a thread in its place until the
+ * stuck write gives up, so stalled clients cannot starve the others. Only the
+ * subscriber's own drain touches its emitter, whose methods share one monitor;
+ * it completes a dropped subscriber's emitter once its last send returns.
+ *
+ * <p>Event ids are {@code <epoch>-<sequence>}, the epoch identifying this
+ * process. A reconnect whose id is still in the ring resumes right after it.
+ * Otherwise, for an id that is too old or from before a restart, the
+ * subscriber gets a {@code reset} event and should re-read the users before
+ * following the feed again.
+ */
+@Component
+public class UserChangeFeed implements DisposableBean {
+
+    private static final int BATCH_SIZE = 64;
+
+    private final Object ringLock = new Object();
+    private final UserChangedEvent[] ring;
+    private long nextSequence;
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean fanOutScheduled = new AtomicBoolean();
+    private final int maxSubscribers;
+    private final Duration timeout;
+    private final Duration retry;
+    private final long sendTimeoutNanos;
+    private final Executor senders;
+    private final ScheduledExecutorService heartbeats;
+    private final Counter dropped;
+
+    @Autowired
+    public UserChangeFeed(@Value("${users.changes.buffer-size:4096}") int bufferSize,
+                          @Value("${users.changes.max-subscribers:5000}") int maxSubscribers,
+                          @Value("${users.changes.sender-threads:4}") int senderThreads,
+                          @Value("${users.changes.heartbeat:15s}") Duration heartbeat,
+                          @Value("${users.changes.timeout:30m}") Duration timeout,
+                          @Value("${users.changes.retry:2s}") Duration retry,
+                          @Value("${users.changes.send-timeout:5s}") Duration sendTimeout,
+                          MeterRegistry meterRegistry) {
+        this(bufferSize, maxSubscribers, timeout, retry, sendTimeout, senderPool(senderThreads), meterRegistry,
+                Executors.newSingleThreadScheduledExecutor(daemon("user-changes-heartbeat")));
+        heartbeats.scheduleAtFixedRate(this::heartbeat, heartbeat.toMillis(), heartbeat.toMillis(),
+                TimeUnit.MILLISECONDS);
+        long checkMillis = Math.max(sendTimeout.toMillis() / 2, 1);
+        heartbeats.scheduleAtFixedRate(this::checkSends, checkMillis, checkMillis, TimeUnit.MILLISECONDS);
+    }
+
+    UserChangeFeed(int bufferSize, int maxSubscribers, Duration timeout, Duration retry, Duration sendTimeout,
+                   Executor senders, MeterRegistry meterRegistry) {
+        this(bufferSize, maxSubscribers, timeout, retry, sendTimeout, senders, meterRegistry, null);
+    }
+
+    private UserChangeFeed(int bufferSize, int maxSubscribers, Duration timeout, Duration retry,
+                           Duration sendTimeout, Executor senders, MeterRegistry meterRegistry,
+                           ScheduledExecutorService heartbeats) {
+        this.ring = new UserChangedEvent[bufferSize];
+        this.maxSubscribers = maxSubscribers;
+        this.timeout = timeout;
+        this.retry = retry;
+        this.sendTimeoutNanos = sendTimeout.toNanos();
+        this.senders = senders;
+        this.heartbeats = heartbeats;
+        this.dropped = Counter.builder("users.changes.dropped")
+                .description("Change feed subscribers cut off for falling a whole buffer behind or stalling a send")
+                .register(meterRegistry);
+        Gauge.builder("users.changes.subscribers", subscribers, Set::size)
+                .description("Open change feed connections")
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        publish(event);
+    }
+
+    /**
+     * Appends the event to the ring and hands the fan-out to the sender pool;
+     * never waits for a subscriber.
+     */
+    public void publish(UserChangedEvent event) {
+        synchronized (ringLock) {
+            ring[(int) (nextSequence % ring.length)] = event;
+            nextSequence++;
+        }
+        if (fanOutScheduled.compareAndSet(false, true)) {
+            senders.execute(this::fanOut);
+        }
+    }
+
+    /**
+     * Opens a feed that starts after {@code lastEventId}, or with the next
+     * change when there is none. Refused with 503 beyond
+     * {@code users.changes.max-subscribers} open feeds.
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        return subscribe(new SseEmitter(timeout.toMillis()), lastEventId);
+    }
+
+    SseEmitter subscribe(SseEmitter emitter, String lastEventId) {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new ServiceUnavailableException("Too many change feed subscribers, try again later");
+        }
+        Subscriber subscriber = new Subscriber(emitter);
+        synchronized (ringLock) {
+            long resumeAt = resumePosition(lastEventId);
+            if (resumeAt < oldestSequence() || resumeAt > nextSequence) {
+                subscriber.resetDue = true;
+                resumeAt = nextSequence;
+            }
+            subscriber.next = resumeAt;
+        }
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        schedule(subscriber);
+        return emitter;
+    }
+
+    /**
+     * Ends every open feed; clients reconnect elsewhere or after the restart
+     * and get a {@code reset}.
+     */
+    @Override
+    public void destroy() {
+        if (heartbeats != null) {
+            heartbeats.shutdownNow();
+        }
+        if (senders instanceof ExecutorService pool) {
+            pool.shutdownNow();
+        }
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+    }
+
+    void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.heartbeatDue = true;
+            schedule(subscriber);
+        }
+    }
+
+    /**
+     * Drops the subscribers whose current send has run past the deadline and
+     * lends the pool a thread for each, returned once that send comes back.
+     */
+    void checkSends() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            long since = subscriber.sendingSince;
+            if (since != 0 && now - since > sendTimeoutNanos && subscriber.stalled.compareAndSet(false, true)) {
+                drop(subscriber);
+                resizeSenders(1);
+                // The send may have returned in the meantime and found nothing to give back
+                if (subscriber.sendingSince == 0) {
+                    returnLentSender(subscriber);
+                }
+            }
+        }
+    }
+
+    String eventId(long sequence) {
+        return epoch + "-" + sequence;
+    }
+
+    private long resumePosition(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return nextSequence;
+        }
+        int dash = lastEventId.indexOf('-');
+        if (dash <= 0 || !lastEventId.substring(0, dash).equals(epoch)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(lastEventId.substring(dash + 1)) + 1;
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
+    }
+
+    private long oldestSequence() {
+        return Math.max(0, nextSequence - ring.length);
+    }
+
+    private void fanOut() {
+        fanOutScheduled.set(false);
+        long head;
+        synchronized (ringLock) {
+            head = nextSequence;
+        }
+        for (Subscriber subscriber : subscribers) {
+            // Its drain completes the emitter, after any send it is stuck in
+            if (head - subscriber.next > ring.length) {
+                drop(subscriber);
+            }
+            schedule(subscriber);
+        }
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.scheduled.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    /**
+     * Sends the subscriber everything it has not seen yet. At most one drain
+     * runs per subscriber at a time, so its events go out in order.
+     */
+    private void drain(Subscriber subscriber) {
+        SseEmitter emitter = subscriber.emitter;
+        try {
+            if (!subscriber.opened) {
+                subscriber.opened = true;
+                send(subscriber, SseEmitter.event().reconnectTime(retry.toMillis()).comment("user changes"));
+            }
+            if (subscriber.resetDue) {
+                subscriber.resetDue = false;
+                send(subscriber, SseEmitter.event().id(eventId(subscriber.next - 1)).name("reset").data(""));
+            }
+            while (true) {
+                List<UserChangedEvent> batch = new ArrayList<>(BATCH_SIZE);
+                boolean overrun;
+                synchronized (ringLock) {
+                    overrun = subscriber.next < oldestSequence();
+                    for (long sequence = subscriber.next; !overrun && sequence < nextSequence
+                            && batch.size() < BATCH_SIZE; sequence++) {
+                        batch.add(ring[(int) (sequence % ring.length)]);
+                    }
+                }
+                if (overrun || subscriber.dropped.get()) {
+                    drop(subscriber);
+                    emitter.complete();
+                    return;
+                }
+                if (batch.isEmpty()) {
+                    if (subscriber.heartbeatDue) {
+                        subscriber.heartbeatDue = false;
+                        send(subscriber, SseEmitter.event().comment("heartbeat"));
+                    }
+                    subscriber.scheduled.set(false);
+                    // Re-check for events published after the batch was taken
+                    if (!hasPending(subscriber) || !subscriber.scheduled.compareAndSet(false, true)) {
+                        return;
+                    }
+                    continue;
+                }
+                for (UserChangedEvent event : batch) {
+                    send(subscriber, SseEmitter.event()
+                            .id(eventId(subscriber.next))
+                            .name(event.type().name().toLowerCase(Locale.ROOT))
+                            .data(event, MediaType.APPLICATION_JSON));
+                    subscriber.next++;
+                }
+            }
+        } catch (IOException | IllegalStateException ex) {
+            // The client went away or the emitter already completed
+            subscribers.remove(subscriber);
+            subscriber.scheduled.set(false);
+        }
+    }
+
+    /**
+     * Sends the event unless the subscriber was dropped; the drain then finds
+     * it dropped and completes it.
+     */
+    private void send(Subscriber subscriber, SseEmitter.SseEventBuilder event) throws IOException {
+        if (subscriber.dropped.get()) {
+            return;
+        }
+        subscriber.sendingSince = Math.max(System.nanoTime(), 1);
+        try {
+            subscriber.emitter.send(event);
+        } finally {
+            subscriber.sendingSince = 0;
+            returnLentSender(subscriber);
+        }
+    }
+
+    private void returnLentSender(Subscriber subscriber) {
+        if (subscriber.stalled.compareAndSet(true, false)) {
+            resizeSenders(-1);
+        }
+    }
+
+    /**
+     * Grows or shrinks the sender pool by one; the fixed pool only starts
+     * threads up to its core size.
+     */
+    private void resizeSenders(int delta) {
+        if (!(senders instanceof ThreadPoolExecutor pool)) {
+            return;
+        }
+        synchronized (pool) {
+            if (delta > 0) {
+                pool.setMaximumPoolSize(pool.getMaximumPoolSize() + delta);
+                pool.setCorePoolSize(pool.getCorePoolSize() + delta);
+            } else {
+                pool.setCorePoolSize(pool.getCorePoolSize() + delta);
+                pool.setMaximumPoolSize(pool.getMaximumPoolSize() + delta);
+            }
+        }
+    }
+
+    private boolean hasPending(Subscriber subscriber) {
+        synchronized (ringLock) {
+            return subscriber.next < nextSequence || subscriber.heartbeatDue || subscriber.dropped.get();
+        }
+    }
+
+    private void drop(Subscriber subscriber) {
+        if (subscriber.dropped.compareAndSet(false, true)) {
+            dropped.increment();
+        }
+        subscribers.remove(subscriber);
+    }
+
+    private static ThreadPoolExecutor senderPool(int threads) {
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), daemon("user-changes-sender"));
+    }
+
+    private static ThreadFactory daemon(String name) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static final class Subscriber {
+
+        final SseEmitter emitter;
+        final AtomicBoolean scheduled = new AtomicBoolean();
+        final AtomicBoolean dropped = new AtomicBoolean();
+        // Set while the pool has an extra thread standing in for a send that ran past the deadline
+        final AtomicBoolean stalled = new AtomicBoolean();
+        // System.nanoTime() when the current send started, 0 between sends
+        volatile long sendingSince;
+        // Only read and written by the drain holding 'scheduled', except as noted
+        volatile long next;
+        volatile boolean heartbeatDue;
+        boolean resetDue;
+        boolean opened;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+    }
+}
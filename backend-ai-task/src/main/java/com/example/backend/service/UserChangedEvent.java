@@ -0,0 +1,29 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.UserDto;
+
+/**
+ * Published by {@link UserService} for every user write. Listeners that keep
+ * derived state should use {@code @TransactionalEventListener} so they only see
+ * committed changes. {@code user} is null for deletions.
+ */
+public record UserChangedEvent(Type type, Long id, UserDto user) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    static UserChangedEvent created(UserDto user) {
+        return new UserChangedEvent(Type.CREATED, user.getId(), user);
+    }
+
+    static UserChangedEvent updated(UserDto user) {
+        return new UserChangedEvent(Type.UPDATED, user.getId(), user);
+    }
+
+    static UserChangedEvent deleted(Long id) {
+        return new UserChangedEvent(Type.DELETED, id, null);
+    }
+}
@@ -0,0 +1,213 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.UserDto;
+import com.example.backend.exception.ServiceUnavailableException;
+import com.example.backend.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group commit for single-user creates. Callers put their user on a bounded
+ * queue and get a future; one flusher thread takes whatever has queued up, to
+ * {@code maxBatchSize} users or for at most {@code maxDelay} after the first,
+ * and writes it as one JDBC batch of single-row inserts in one transaction.
+ * Each future completes once its row has committed, so a burst of creates
+ * pays for one commit per batch instead of one per user.
+ *
+ * <p>When the queue is full, callers are refused with
+ * {@link TooManyRequestsException} (429) rather than made to wait.
+ */
+@Slf4j
+@Component
+public class UserCreateBatcher implements SmartLifecycle {
+
+    private static final long IDLE_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final UserService userService;
+    private final BlockingQueue<PendingCreate> queue;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final Duration shutdownTimeout;
+    // Both written under 'lifecycle', so no create is queued after stop() has drained the queue
+    private final Object lifecycle = new Object();
+    private volatile Thread flusher;
+    private volatile boolean accepting;
+
+    private final Counter rejected;
+    private final DistributionSummary batchSize;
+    private final Timer batchLatency;
+
+    public UserCreateBatcher(UserService userService,
+                             @Value("${users.write-behind.queue-capacity:10000}") int queueCapacity,
+                             @Value("${users.write-behind.max-batch-size:500}") int maxBatchSize,
+                             @Value("${users.write-behind.max-delay:5ms}") Duration maxDelay,
+                             @Value("${users.write-behind.shutdown-timeout:10s}") Duration shutdownTimeout,
+                             MeterRegistry meterRegistry) {
+        this.userService = userService;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.shutdownTimeout = shutdownTimeout;
+
+        this.rejected = Counter.builder("users.create.queue.rejected")
+                .description("Creates refused with 429 because the write-behind queue was full")
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("users.create.batch.size")
+                .description("Users written per group commit")
+                .baseUnit("users")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.batchLatency = Timer.builder("users.create.batch.latency")
+                .description("Time to insert and commit one group of users")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("users.create.queue.depth", queue, BlockingQueue::size)
+                .description("Creates waiting for the next group commit")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        synchronized (lifecycle) {
+            if (flusher != null) {
+                return;
+            }
+            accepting = true;
+            flusher = new Thread(this::run, "user-create-batcher");
+            flusher.setDaemon(true);
+            flusher.start();
+        }
+    }
+
+    /**
+     * Queues the user for the next group commit. The future completes with the
+     * created user once its row has committed, or with the reason it could not
+     * be written; while the batcher is not running it fails with {@link ServiceUnavailableException}.
+     *
+     * @throws TooManyRequestsException when the queue is full
+     */
+    public CompletableFuture<UserDto> submit(UserDto userDto) {
+        PendingCreate pending = new PendingCreate(userDto, new CompletableFuture<>());
+        synchronized (lifecycle) {
+            if (!accepting) {
+                return CompletableFuture.failedFuture(new ServiceUnavailableException("Shutting down, try again shortly"));
+            }
+            if (!queue.offer(pending)) {
+                rejected.increment();
+                throw new TooManyRequestsException("Too many pending creates, try again shortly");
+            }
+        }
+        return pending.future();
+    }
+
+    /**
+     * Stops taking new creates and writes those already queued before the
+     * database goes away.
+     */
+    @Override
+    public void stop() {
+        Thread stopping;
+        synchronized (lifecycle) {
+            accepting = false;
+            stopping = flusher;
+            flusher = null;
+        }
+        if (stopping != null) {
+            try {
+                stopping.join(shutdownTimeout.toMillis());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        PendingCreate left;
+        while ((left = queue.poll()) != null) {
+            left.future().completeExceptionally(new ServiceUnavailableException("Shutting down, try again shortly"));
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return flusher != null;
+    }
+
+    /**
+     * Below the web server's phases, so the flusher is started before the
+     * server takes requests and stopped after it has drained them.
+     */
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    private void run() {
+        List<PendingCreate> batch = new ArrayList<>(maxBatchSize);
+        try {
+            while (accepting || !queue.isEmpty()) {
+                PendingCreate first = queue.poll(IDLE_POLL_NANOS, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                collect(batch, System.nanoTime() + maxDelayNanos);
+                flush(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            batch.forEach(pending -> pending.future().completeExceptionally(
+                    new ServiceUnavailableException("Shutting down, try again shortly")));
+        }
+    }
+
+    /**
+     * Adds what is already queued and then waits for more until the batch is
+     * full or the deadline passes; on shutdown it stops waiting.
+     */
+    private void collect(List<PendingCreate> batch, long deadline) throws InterruptedException {
+        while (batch.size() < maxBatchSize) {
+            queue.drainTo(batch, maxBatchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= maxBatchSize || remaining <= 0) {
+                return;
+            }
+            PendingCreate next = queue.poll(Math.min(remaining, IDLE_POLL_NANOS), TimeUnit.NANOSECONDS);
+            if (next != null) {
+                batch.add(next);
+            } else if (!accepting) {
+                return;
+            }
+        }
+    }
+
+    private void flush(List<PendingCreate> batch) {
+        batchSize.record(batch.size());
+        List<UserDto> users = batch.stream().map(PendingCreate::user).toList();
+        try {
+            batchLatency.record(() -> userService.createUserGroup(users,
+                    (created, i) -> batch.get(i).future().complete(created),
+                    (failure, i) -> batch.get(i).future().completeExceptionally(failure)));
+        } catch (RuntimeException ex) {
+            log.warn("Group commit of {} users failed", batch.size(), ex);
+            // Futures already completed keep their result
+            batch.forEach(pending -> pending.future().completeExceptionally(ex));
+        }
+    }
+
+    private record PendingCreate(UserDto user, CompletableFuture<UserDto> future) {
+    }
+}
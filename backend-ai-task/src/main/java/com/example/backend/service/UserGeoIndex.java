@@ -0,0 +1,63 @@
+package com.example.backend.service;
+
+import com.example.backend.repository.GeoHit;
+import com.example.backend.repository.GeoPoint;
+import com.example.backend.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Nearby-user lookups for databases without a spatial index (H2 in tests and
+ * local runs). Keeps a {@link GeoKdTree} of every located user, rebuilt from the
+ * database on the first query after a write made through {@link UserService}.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserGeoIndex {
+
+    private final UserRepository userRepository;
+    private final UserShards shards;
+
+    private final AtomicLong version = new AtomicLong();
+    private volatile Snapshot snapshot;
+
+    public List<GeoHit> findNearby(double lat, double lng, Double radiusMeters, int limit) {
+        Snapshot current = snapshot;
+        if (current == null || current.version() != version.get()) {
+            long buildVersion = version.get();
+            List<GeoPoint> points = shards.scatter(userRepository::findAllGeoPoints).stream()
+                    .flatMap(List::stream)
+                    .toList();
+            current = new Snapshot(buildVersion, GeoKdTree.build(points));
+            // A write that landed during the build leaves the new snapshot stale
+            if (version.get() == buildVersion) {
+                snapshot = current;
+            }
+        }
+        return current.tree().nearest(lat, lng, radiusMeters, limit);
+    }
+
+    /**
+     * Invalidates on publication, so a query later in the same transaction sees
+     * its own write, and again once the transaction is over, whether it
+     * committed or rolled back.
+     */
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        version.incrementAndGet();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION)
+    public void onUserChangeCompleted(UserChangedEvent event) {
+        version.incrementAndGet();
+    }
+
+    private record Snapshot(long version, GeoKdTree tree) {
+    }
+}
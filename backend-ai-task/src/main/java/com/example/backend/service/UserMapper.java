@@ -0,0 +1,244 @@
+package com.example.backend.service;
+
+import com.example.backend.domain.Address;
+import com.example.backend.domain.Company;
+import com.example.backend.domain.Geo;
+import com.example.backend.domain.User;
+import com.example.backend.dto.AddressDto;
+import com.example.backend.dto.CompanyDto;
+import com.example.backend.dto.GeoDto;
+import com.example.backend.dto.UserDto;
+import com.example.backend.exception.BadRequestException;
+import com.example.backend.repository.UserRow;
+
+import java.math.BigDecimal;
+
+/**
+ * Conversions between users and their API representation. Stateless, so the
+ * benchmarks can measure them without an application context.
+ */
+public final class UserMapper {
+
+    private UserMapper() {
+    }
+
+    public static UserDto convertToDto(User user) {
+        UserDto dto = new UserDto();
+        dto.setId(user.getId());
+        dto.setName(user.getName());
+        dto.setUsername(user.getUsername());
+        dto.setEmail(user.getEmail());
+        dto.setPhone(user.getPhone());
+        dto.setWebsite(user.getWebsite());
+        dto.setVersion(user.getVersion());
+        dto.setUpdatedAt(user.getUpdatedAt());
+        
+        if (user.getAddress() != null) {
+            AddressDto addressDto = new AddressDto();
+            addressDto.setStreet(user.getAddress().getStreet());
+            addressDto.setSuite(user.getAddress().getSuite());
+            addressDto.setCity(user.getAddress().getCity());
+            addressDto.setZipcode(user.getAddress().getZipcode());
+            
+            if (user.getAddress().getGeo() != null) {
+                GeoDto geoDto = new GeoDto();
+                geoDto.setLat(formatCoordinate(user.getAddress().getGeo().getLat()));
+                geoDto.setLng(formatCoordinate(user.getAddress().getGeo().getLng()));
+                addressDto.setGeo(geoDto);
+            }
+            
+            dto.setAddress(addressDto);
+        }
+        
+        if (user.getCompany() != null) {
+            CompanyDto companyDto = new CompanyDto();
+            companyDto.setName(user.getCompany().getName());
+            companyDto.setCatchPhrase(user.getCompany().getCatchPhrase());
+            companyDto.setBs(user.getCompany().getBs());
+            dto.setCompany(companyDto);
+        }
+        
+        return dto;
+    }
+
+    public static UserDto convertToDto(UserRow row) {
+        UserDto dto = new UserDto();
+        dto.setId(row.id());
+        dto.setName(row.name());
+        dto.setUsername(row.username());
+        dto.setEmail(row.email());
+        dto.setPhone(row.phone());
+        dto.setWebsite(row.website());
+        dto.setVersion(row.version());
+        dto.setUpdatedAt(row.updatedAt());
+
+        // Mirror Hibernate's embeddable handling: an all-null group maps to null
+        boolean hasGeo = row.geoLat() != null || row.geoLng() != null;
+        if (hasGeo || row.street() != null || row.suite() != null || row.city() != null || row.zipcode() != null) {
+            AddressDto addressDto = new AddressDto();
+            addressDto.setStreet(row.street());
+            addressDto.setSuite(row.suite());
+            addressDto.setCity(row.city());
+            addressDto.setZipcode(row.zipcode());
+
+            if (hasGeo) {
+                GeoDto geoDto = new GeoDto();
+                geoDto.setLat(formatCoordinate(row.geoLat()));
+                geoDto.setLng(formatCoordinate(row.geoLng()));
+                addressDto.setGeo(geoDto);
+            }
+
+            dto.setAddress(addressDto);
+        }
+
+        if (row.companyName() != null || row.companyCatchPhrase() != null || row.companyBs() != null) {
+            CompanyDto companyDto = new CompanyDto();
+            companyDto.setName(row.companyName());
+            companyDto.setCatchPhrase(row.companyCatchPhrase());
+            companyDto.setBs(row.companyBs());
+            dto.setCompany(companyDto);
+        }
+
+        return dto;
+    }
+
+    public static User convertToEntity(UserDto dto) {
+        User user = new User();
+        user.setName(dto.getName());
+        user.setUsername(dto.getUsername());
+        user.setEmail(dto.getEmail());
+        user.setPhone(dto.getPhone());
+        user.setWebsite(dto.getWebsite());
+        
+        if (dto.getAddress() != null) {
+            Address address = new Address();
+            address.setStreet(dto.getAddress().getStreet());
+            address.setSuite(dto.getAddress().getSuite());
+            address.setCity(dto.getAddress().getCity());
+            address.setZipcode(dto.getAddress().getZipcode());
+            
+            if (dto.getAddress().getGeo() != null) {
+                Geo geo = new Geo();
+                geo.setLat(parseCoordinate(dto.getAddress().getGeo().getLat(), "lat", 90));
+                geo.setLng(parseCoordinate(dto.getAddress().getGeo().getLng(), "lng", 180));
+                address.setGeo(geo);
+            }
+            
+            user.setAddress(address);
+        }
+        
+        if (dto.getCompany() != null) {
+            Company company = new Company();
+            company.setName(dto.getCompany().getName());
+            company.setCatchPhrase(dto.getCompany().getCatchPhrase());
+            company.setBs(dto.getCompany().getBs());
+            user.setCompany(company);
+        }
+        
+        return user;
+    }
+
+    public static void updateUserFromDto(User user, UserDto dto) {
+        user.setName(dto.getName());
+        user.setUsername(dto.getUsername());
+        user.setEmail(dto.getEmail());
+        user.setPhone(dto.getPhone());
+        user.setWebsite(dto.getWebsite());
+        
+        if (dto.getAddress() != null) {
+            if (user.getAddress() == null) {
+                user.setAddress(new Address());
+            }
+            user.getAddress().setStreet(dto.getAddress().getStreet());
+            user.getAddress().setSuite(dto.getAddress().getSuite());
+            user.getAddress().setCity(dto.getAddress().getCity());
+            user.getAddress().setZipcode(dto.getAddress().getZipcode());
+            
+            if (dto.getAddress().getGeo() != null) {
+                if (user.getAddress().getGeo() == null) {
+                    user.getAddress().setGeo(new Geo());
+                }
+                user.getAddress().getGeo().setLat(parseCoordinate(dto.getAddress().getGeo().getLat(), "lat", 90));
+                user.getAddress().getGeo().setLng(parseCoordinate(dto.getAddress().getGeo().getLng(), "lng", 180));
+            }
+        }
+        
+        if (dto.getCompany() != null) {
+            if (user.getCompany() == null) {
+                user.setCompany(new Company());
+            }
+            user.getCompany().setName(dto.getCompany().getName());
+            user.getCompany().setCatchPhrase(dto.getCompany().getCatchPhrase());
+            user.getCompany().setBs(dto.getCompany().getBs());
+        }
+    }
+
+    /**
+     * Sets every field from the DTO, removing nested objects it leaves out.
+     * Unchanged values are written back as they were, which dirty checking
+     * treats as clean.
+     */
+    public static void replaceUserFromDto(User user, UserDto dto) {
+        user.setName(dto.getName());
+        user.setUsername(dto.getUsername());
+        user.setEmail(dto.getEmail());
+        user.setPhone(dto.getPhone());
+        user.setWebsite(dto.getWebsite());
+
+        AddressDto addressDto = dto.getAddress();
+        if (addressDto == null) {
+            user.setAddress(null);
+        } else {
+            Address address = user.getAddress() != null ? user.getAddress() : new Address();
+            address.setStreet(addressDto.getStreet());
+            address.setSuite(addressDto.getSuite());
+            address.setCity(addressDto.getCity());
+            address.setZipcode(addressDto.getZipcode());
+            if (addressDto.getGeo() == null) {
+                address.setGeo(null);
+            } else {
+                Geo geo = address.getGeo() != null ? address.getGeo() : new Geo();
+                geo.setLat(parseCoordinate(addressDto.getGeo().getLat(), "lat", 90));
+                geo.setLng(parseCoordinate(addressDto.getGeo().getLng(), "lng", 180));
+                address.setGeo(geo);
+            }
+            user.setAddress(address);
+        }
+
+        CompanyDto companyDto = dto.getCompany();
+        if (companyDto == null) {
+            user.setCompany(null);
+        } else {
+            Company company = user.getCompany() != null ? user.getCompany() : new Company();
+            company.setName(companyDto.getName());
+            company.setCatchPhrase(companyDto.getCatchPhrase());
+            company.setBs(companyDto.getBs());
+            user.setCompany(company);
+        }
+    }
+
+    // Coordinates are stored as numbers but keep their string form in the API
+    public static String formatCoordinate(Double value) {
+        return value == null ? null : BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
+    }
+
+    static Double parseCoordinate(String value, String field, double bound) {
+        if (isBlank(value)) {
+            return null;
+        }
+        double coordinate;
+        try {
+            coordinate = Double.parseDouble(value.trim());
+        } catch (NumberFormatException ex) {
+            throw new BadRequestException("Invalid " + field + ": '" + value + "'");
+        }
+        if (!(Math.abs(coordinate) <= bound)) {
+            throw new BadRequestException("Invalid " + field + ": '" + value + "'");
+        }
+        return coordinate;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
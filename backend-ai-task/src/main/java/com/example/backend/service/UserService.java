@@ -1,169 +1,673 @@
 package com.example.backend.service;
 
-import com.example.backend.domain.Address;
-import com.example.backend.domain.Company;
-import com.example.backend.domain.Geo;
+import com.example.backend.config.CacheConfig;
 import com.example.backend.domain.User;
-import com.example.backend.dto.AddressDto;
-import com.example.backend.dto.CompanyDto;
-import com.example.backend.dto.GeoDto;
+import com.example.backend.dto.BulkChangeResponse;
+import com.example.backend.dto.BulkCreateResponse;
+import com.example.backend.dto.BulkDeleteRequest;
+import com.example.backend.dto.BulkItemResult;
+import com.example.backend.dto.BulkUpdateRequest;
+import com.example.backend.dto.NearbyUserDto;
 import com.example.backend.dto.UserDto;
+import com.example.backend.dto.UserFilterDto;
+import com.example.backend.dto.UserPageDto;
+import com.example.backend.dto.UserSearchPageDto;
+import com.example.backend.dto.UserSuggestionDto;
+import com.example.backend.exception.BadRequestException;
+import com.example.backend.exception.ConflictException;
+import com.example.backend.exception.PreconditionFailedException;
 import com.example.backend.exception.ResourceNotFoundException;
+import com.example.backend.repository.GeoHit;
+import com.example.backend.repository.SearchHit;
+import com.example.backend.repository.UserCriteria;
 import com.example.backend.repository.UserRepository;
+import com.example.backend.repository.UserRow;
+import com.example.backend.repository.UserVersion;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.NestedRuntimeException;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ObjIntConsumer;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 @Transactional
 public class UserService {
 
+    // Fields a bulk update may set, by their path in the user JSON
+    private static final Map<String, String> BULK_UPDATABLE_COLUMNS = Map.ofEntries(
+            Map.entry("phone", "phone"),
+            Map.entry("website", "website"),
+            Map.entry("address.street", "street"),
+            Map.entry("address.suite", "suite"),
+            Map.entry("address.city", "city"),
+            Map.entry("address.zipcode", "zipcode"),
+            Map.entry("address.geo.lat", "geo_lat"),
+            Map.entry("address.geo.lng", "geo_lng"),
+            Map.entry("company.name", "company_name"),
+            Map.entry("company.catchPhrase", "company_catch_phrase"),
+            Map.entry("company.bs", "company_bs"));
+
+    private static final Comparator<UserRow> BY_ID = Comparator.comparing(UserRow::id);
+    private static final Comparator<SearchHit> BY_RANK = Comparator.comparingDouble(SearchHit::score).reversed()
+            .thenComparing(hit -> hit.row().id());
+    private static final Comparator<GeoHit> BY_DISTANCE = Comparator.comparingDouble(GeoHit::distanceMeters)
+            .thenComparing(GeoHit::id);
+
     private final UserRepository userRepository;
+    private final UserShards shards;
+    private final TransactionTemplate transactionTemplate;
+    private final UserTypeaheadIndex typeaheadIndex;
+    private final UserGeoIndex geoIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+
+    @Value("${users.pagination.default-limit:20}")
+    private int defaultPageLimit;
+
+    @Value("${users.pagination.max-limit:100}")
+    private int maxPageLimit;
+
+    @Value("${users.export.fetch-size:1000}")
+    private int exportFetchSize;
+
+    @Value("${users.bulk.chunk-size:500}")
+    private int bulkChunkSize;
+
+    @Value("${users.typeahead.default-limit:10}")
+    private int defaultTypeaheadLimit;
+
+    @Value("${users.typeahead.max-limit:50}")
+    private int maxTypeaheadLimit;
 
+    @Transactional(readOnly = true)
     public List<UserDto> getAllUsers() {
-        return userRepository.findAll().stream()
-                .map(this::convertToDto)
+        return UserShards.merge(shards.scatter(userRepository::findAllRows), BY_ID, UserRow::id, Integer.MAX_VALUE)
+                .stream()
+                .map(UserMapper::convertToDto)
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
+    public UserPageDto getUsersPage(String cursor, Integer limit) {
+        int pageLimit = resolvePageLimit(limit);
+        long afterId = cursor == null || cursor.isBlank() ? 0L : PageCursor.decode(cursor);
+
+        // Fetch one extra row to learn whether another page follows without counting
+        List<UserRow> rows = UserShards.merge(
+                shards.scatter(() -> userRepository.findRowsAfter(afterId, Limit.of(pageLimit + 1))),
+                BY_ID, UserRow::id, pageLimit + 1);
+        boolean hasMore = rows.size() > pageLimit;
+        List<UserDto> items = rows.stream()
+                .limit(pageLimit)
+                .map(UserMapper::convertToDto)
+                .collect(Collectors.toList());
+
+        String next = hasMore ? PageCursor.encode(items.get(items.size() - 1).getId()) : null;
+        long total = shards.scatter(userRepository::estimateCount).stream().mapToLong(Long::longValue).sum();
+        return new UserPageDto(items, next, total);
+    }
+
+    @Transactional(readOnly = true)
+    public UserSearchPageDto searchUsers(String query, String cursor, Integer limit) {
+        if (query == null || query.isBlank()) {
+            throw new BadRequestException("Search query must not be empty");
+        }
+        int pageLimit = resolvePageLimit(limit);
+        long offset = cursor == null || cursor.isBlank() ? 0L : PageCursor.decodeOffset(cursor);
+
+        // Ranks only compare once merged, so with several shards each one ranks from the top
+        // and the offset is skipped after the merge
+        long shardOffset = shards.isSharded() ? 0 : offset;
+        int shardLimit = (int) Math.min(offset - shardOffset + pageLimit + 1, Integer.MAX_VALUE);
+        List<UserRow> rows = UserShards.merge(
+                        shards.scatter(() -> userRepository.search(query, shardLimit, shardOffset)),
+                        BY_RANK, hit -> hit.row().id(), shardLimit)
+                .stream()
+                .skip(offset - shardOffset)
+                .map(SearchHit::row)
+                .toList();
+        boolean hasMore = rows.size() > pageLimit;
+        List<UserDto> items = rows.stream()
+                .limit(pageLimit)
+                .map(UserMapper::convertToDto)
+                .collect(Collectors.toList());
+
+        String next = hasMore ? PageCursor.encodeOffset(offset + pageLimit) : null;
+        return new UserSearchPageDto(items, next);
+    }
+
+    /**
+     * Users nearest to the point, closest first: the {@code limit} nearest
+     * overall, or only those within {@code radiusKm} when it is given. Uses the
+     * database's spatial index where there is one and the in-memory k-d tree
+     * otherwise.
+     */
+    @Transactional(readOnly = true)
+    public List<NearbyUserDto> findNearby(double lat, double lng, Double radiusKm, Integer limit) {
+        if (lat < -90 || lat > 90 || lng < -180 || lng > 180) {
+            throw new BadRequestException("Latitude must be within [-90, 90] and longitude within [-180, 180]");
+        }
+        if (radiusKm != null && !(radiusKm > 0)) {
+            throw new BadRequestException("Radius must be positive");
+        }
+        int pageLimit = resolvePageLimit(limit);
+        Double radiusMeters = radiusKm == null ? null : radiusKm * 1000;
+
+        List<GeoHit> hits = userRepository.supportsNearbyQueries()
+                ? UserShards.merge(shards.scatter(() -> userRepository.findNearby(lat, lng, radiusMeters, pageLimit)),
+                        BY_DISTANCE, GeoHit::id, pageLimit)
+                : geoIndex.findNearby(lat, lng, radiusMeters, pageLimit);
+        if (hits.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> ids = hits.stream().map(GeoHit::id).toList();
+        Map<Long, UserRow> rows = shards.scatter(() -> userRepository.findRowsByIds(ids)).stream()
+                .flatMap(List::stream)
+                .collect(Collectors.toMap(UserRow::id, Function.identity(), (first, second) -> first));
+        return hits.stream()
+                .filter(hit -> rows.containsKey(hit.id()))
+                .map(hit -> new NearbyUserDto(UserMapper.convertToDto(rows.get(hit.id())),
+                        hit.distanceMeters() / 1000))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Hands every user to the sink in id order: over one streamed query, or
+     * with several shards, over their pages merged.
+     */
+    @Transactional(readOnly = true)
+    public void exportUsers(Consumer<UserDto> sink) {
+        if (shards.isSharded()) {
+            forEachRowAcrossShards(row -> sink.accept(UserMapper.convertToDto(row)));
+        } else {
+            userRepository.forEachUser(exportFetchSize, user -> sink.accept(UserMapper.convertToDto(user)));
+        }
+    }
+
+    /**
+     * Loads the typeahead index with one streaming scan once the application is up.
+     * Writes keep it current afterwards through {@link UserChangedEvent}.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void buildTypeaheadIndex() {
+        typeaheadIndex.rebuild(entries -> {
+            if (shards.isSharded()) {
+                forEachRowAcrossShards(row -> entries.add(row.id(), row.name(), row.username(), row.email()));
+            } else {
+                userRepository.forEachUser(exportFetchSize, user ->
+                        entries.add(user.getId(), user.getName(), user.getUsername(), user.getEmail()));
+            }
+        });
+    }
+
+    private void forEachRowAcrossShards(Consumer<UserRow> action) {
+        shards.forEachInIdOrder(afterId -> userRepository.findRowsAfter(afterId, Limit.of(exportFetchSize)),
+                UserRow::id, action);
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<UserSuggestionDto> typeahead(String query, Integer limit) {
+        return typeaheadIndex.suggest(query, resolveLimit(limit, defaultTypeaheadLimit, maxTypeaheadLimit));
+    }
+
+    private int resolvePageLimit(Integer limit) {
+        return resolveLimit(limit, defaultPageLimit, maxPageLimit);
+    }
+
+    private static int resolveLimit(Integer limit, int defaultLimit, int maxLimit) {
+        if (limit == null) {
+            return defaultLimit;
+        }
+        if (limit < 1) {
+            throw new BadRequestException("Page limit must be positive");
+        }
+        return Math.min(limit, maxLimit);
+    }
+
+    @Cacheable(cacheNames = CacheConfig.USERS_CACHE, key = "#id")
+    @Transactional(readOnly = true)
     public UserDto getUserById(Long id) {
-        return userRepository.findById(id)
-                .map(this::convertToDto)
+        shards.route(id);
+        return userRepository.findRowById(id)
+                .map(UserMapper::convertToDto)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id : '" + id + "'"));
+    }
+
+    /**
+     * Current version and modification time of a user, read without loading the
+     * entity, for answering conditional requests.
+     */
+    @Transactional(readOnly = true)
+    public UserVersion getUserVersion(Long id) {
+        shards.route(id);
+        return userRepository.findVersionById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id : '" + id + "'"));
     }
 
     public UserDto createUser(UserDto userDto) {
-        User user = convertToEntity(userDto);
+        User user = UserMapper.convertToEntity(userDto);
+        shards.place(user);
         User savedUser = userRepository.save(user);
-        return convertToDto(savedUser);
+        UserDto created = UserMapper.convertToDto(savedUser);
+        eventPublisher.publishEvent(UserChangedEvent.created(created));
+        return created;
+    }
+
+    /**
+     * Creates users in chunks of users.bulk.chunk-size, each written as one JDBC
+     * batch in its own transaction. If a chunk fails, its rows are retried one
+     * at a time so a single bad row does not fail its neighbours.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public BulkCreateResponse createUsers(Iterator<UserDto> userDtos) {
+        List<BulkItemResult> results = new ArrayList<>();
+        List<User> chunk = new ArrayList<>(bulkChunkSize);
+        List<Integer> chunkIndexes = new ArrayList<>(bulkChunkSize);
+        int index = 0;
+
+        while (userDtos.hasNext()) {
+            UserDto userDto = userDtos.next();
+            if (isBlank(userDto.getName()) || isBlank(userDto.getUsername()) || isBlank(userDto.getEmail())) {
+                results.add(BulkItemResult.failed(index, "name, username and email are required"));
+            } else {
+                try {
+                    chunk.add(UserMapper.convertToEntity(userDto));
+                    chunkIndexes.add(index);
+                } catch (BadRequestException ex) {
+                    results.add(BulkItemResult.failed(index, ex.getMessage()));
+                }
+            }
+            index++;
+
+            if (chunk.size() == bulkChunkSize) {
+                writeChunk(chunk, chunkIndexes, results);
+                chunk.clear();
+                chunkIndexes.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            writeChunk(chunk, chunkIndexes, results);
+        }
+
+        results.sort(Comparator.comparingInt(BulkItemResult::getIndex));
+        int created = (int) results.stream()
+                .filter(result -> result.getStatus() == BulkItemResult.Status.CREATED)
+                .count();
+        return new BulkCreateResponse(created, results.size() - created, results);
+    }
+
+    /**
+     * Creates the users as one JDBC batch in a single transaction, falling back
+     * to one transaction per user if the batch fails. Each user is reported to
+     * {@code created} once its row has committed, or to {@code failed}, with
+     * its position in the list.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void createUserGroup(List<UserDto> userDtos, ObjIntConsumer<UserDto> created,
+                                ObjIntConsumer<RuntimeException> failed) {
+        List<User> chunk = new ArrayList<>(userDtos.size());
+        List<Integer> chunkIndexes = new ArrayList<>(userDtos.size());
+        for (int i = 0; i < userDtos.size(); i++) {
+            try {
+                chunk.add(UserMapper.convertToEntity(userDtos.get(i)));
+                chunkIndexes.add(i);
+            } catch (BadRequestException ex) {
+                failed.accept(ex, i);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            writeChunk(chunk,
+                    (user, i) -> created.accept(UserMapper.convertToDto(user), chunkIndexes.get(i)),
+                    (ex, i) -> failed.accept(ex, chunkIndexes.get(i)));
+        }
     }
 
+    private void writeChunk(List<User> chunk, List<Integer> chunkIndexes, List<BulkItemResult> results) {
+        writeChunk(chunk,
+                (user, i) -> results.add(BulkItemResult.created(chunkIndexes.get(i), user.getId())),
+                (ex, i) -> {
+                    log.warn("Bulk create of item {} failed", chunkIndexes.get(i), ex);
+                    results.add(BulkItemResult.failed(chunkIndexes.get(i), describeWriteFailure(ex)));
+                });
+    }
+
+    /**
+     * A fixed message for a failed insert, by the SQLState the database gave;
+     * the driver's own text names tables and constraints, so it stays in the log.
+     */
+    private static String describeWriteFailure(NestedRuntimeException ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException && sqlException.getSQLState() != null) {
+                return switch (sqlException.getSQLState()) {
+                    case "23505" -> "username or email is already in use";
+                    case "23502" -> "a required field is missing";
+                    case "23513", "23514" -> "a value is out of range";
+                    case "22001" -> "a value is longer than 255 characters";
+                    default -> "the user could not be stored";
+                };
+            }
+        }
+        return "the user could not be stored";
+    }
+
+    /**
+     * Writes the chunk with one batch per shard it spreads over, each in its
+     * own transaction.
+     */
+    private void writeChunk(List<User> chunk, ObjIntConsumer<User> created,
+                            ObjIntConsumer<NestedRuntimeException> failed) {
+        shards.assignIds(chunk);
+        List<Integer> positions = IntStream.range(0, chunk.size()).boxed().toList();
+        shards.withPlacementFixed(() -> shards.groupByShard(positions, i -> chunk.get(i).getId())
+                .forEach((shard, shardPositions) -> writeShardChunk(shard, chunk, shardPositions, created, failed)));
+    }
+
+    private void writeShardChunk(int shard, List<User> chunk, List<Integer> positions, ObjIntConsumer<User> created,
+                                 ObjIntConsumer<NestedRuntimeException> failed) {
+        List<User> users = positions.stream().map(chunk::get).toList();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                shards.routeTo(shard);
+                userRepository.persistBatch(users);
+                users.forEach(user ->
+                        eventPublisher.publishEvent(UserChangedEvent.created(UserMapper.convertToDto(user))));
+            });
+            for (int i : positions) {
+                created.accept(chunk.get(i), i);
+            }
+        } catch (DataAccessException | TransactionException ex) {
+            for (int i : positions) {
+                User user = chunk.get(i);
+                // The failed flush already set the version, which would make a user with a preassigned id look detached
+                user.setId(null);
+                user.setVersion(null);
+                try {
+                    transactionTemplate.executeWithoutResult(status -> {
+                        shards.place(user);
+                        userRepository.persistBatch(List.of(user));
+                        eventPublisher.publishEvent(UserChangedEvent.created(UserMapper.convertToDto(user)));
+                    });
+                    created.accept(user, i);
+                } catch (DataAccessException | TransactionException itemEx) {
+                    failed.accept(itemEx, i);
+                }
+            }
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    @CacheEvict(cacheNames = CacheConfig.USERS_CACHE, key = "#id")
     public UserDto updateUser(Long id, UserDto userDto) {
-        return userRepository.findById(id)
-                .map(existingUser -> {
-                    updateUserFromDto(existingUser, userDto);
-                    User updatedUser = userRepository.save(existingUser);
-                    return convertToDto(updatedUser);
-                })
+        return updateUser(id, userDto, null);
+    }
+
+    /**
+     * Updates the user only if it is still at {@code expectedVersion} (any version
+     * when null). The version is checked again by the flush, so a write that
+     * commits in between fails too, rather than being overwritten.
+     */
+    @CacheEvict(cacheNames = CacheConfig.USERS_CACHE, key = "#id")
+    public UserDto updateUser(Long id, UserDto userDto, Long expectedVersion) {
+        shards.route(id);
+        User existingUser = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id : '" + id + "'"));
+        if (expectedVersion != null && !expectedVersion.equals(existingUser.getVersion())) {
+            throw new PreconditionFailedException("User " + id + " is no longer at version " + expectedVersion);
+        }
+        UserMapper.updateUserFromDto(existingUser, userDto);
+
+        User updatedUser;
+        try {
+            updatedUser = userRepository.saveAndFlush(existingUser);
+        } catch (OptimisticLockingFailureException ex) {
+            String message = "User " + id + " was modified concurrently";
+            throw expectedVersion != null ? new PreconditionFailedException(message) : new ConflictException(message);
+        }
+        UserDto updated = UserMapper.convertToDto(updatedUser);
+        eventPublisher.publishEvent(UserChangedEvent.updated(updated));
+        return updated;
     }
 
+    /**
+     * Applies a JSON Merge Patch to the user. Only members present in the patch
+     * change, and the entity's dynamic update writes just the columns whose
+     * values actually differ; a patch that changes nothing issues no UPDATE and
+     * keeps the version.
+     */
+    @CacheEvict(cacheNames = CacheConfig.USERS_CACHE, key = "#id")
+    public UserDto patchUser(Long id, JsonNode patch, Long expectedVersion) {
+        if (patch == null || !patch.isObject()) {
+            throw new BadRequestException("A merge patch must be a JSON object");
+        }
+        shards.route(id);
+        User existingUser = userRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id : '" + id + "'"));
+        if (expectedVersion != null && !expectedVersion.equals(existingUser.getVersion())) {
+            throw new PreconditionFailedException("User " + id + " is no longer at version " + expectedVersion);
+        }
+
+        UserDto patched;
+        try {
+            JsonNode current = objectMapper.valueToTree(UserMapper.convertToDto(existingUser));
+            patched = objectMapper.treeToValue(JsonMergePatch.apply(current, patch), UserDto.class);
+        } catch (JsonProcessingException ex) {
+            throw new BadRequestException("Invalid merge patch: " + ex.getOriginalMessage());
+        }
+        if (isBlank(patched.getName()) || isBlank(patched.getUsername()) || isBlank(patched.getEmail())) {
+            throw new BadRequestException("name, username and email cannot be removed");
+        }
+        UserMapper.replaceUserFromDto(existingUser, patched);
+
+        Long versionBefore = existingUser.getVersion();
+        try {
+            userRepository.flush();
+        } catch (OptimisticLockingFailureException ex) {
+            String message = "User " + id + " was modified concurrently";
+            throw expectedVersion != null ? new PreconditionFailedException(message) : new ConflictException(message);
+        }
+        UserDto updated = UserMapper.convertToDto(existingUser);
+        if (!versionBefore.equals(existingUser.getVersion())) {
+            eventPublisher.publishEvent(UserChangedEvent.updated(updated));
+        }
+        return updated;
+    }
+
+    @CacheEvict(cacheNames = CacheConfig.USERS_CACHE, key = "#id")
     public void deleteUser(Long id) {
-        if (!userRepository.existsById(id)) {
+        shards.route(id);
+        if (userRepository.deleteRowById(id) == 0) {
             throw new ResourceNotFoundException("User not found with id : '" + id + "'");
         }
-        userRepository.deleteById(id);
-    }
-
-    private UserDto convertToDto(User user) {
-        UserDto dto = new UserDto();
-        dto.setId(user.getId());
-        dto.setName(user.getName());
-        dto.setUsername(user.getUsername());
-        dto.setEmail(user.getEmail());
-        dto.setPhone(user.getPhone());
-        dto.setWebsite(user.getWebsite());
-        
-        if (user.getAddress() != null) {
-            AddressDto addressDto = new AddressDto();
-            addressDto.setStreet(user.getAddress().getStreet());
-            addressDto.setSuite(user.getAddress().getSuite());
-            addressDto.setCity(user.getAddress().getCity());
-            addressDto.setZipcode(user.getAddress().getZipcode());
-            
-            if (user.getAddress().getGeo() != null) {
-                GeoDto geoDto = new GeoDto();
-                geoDto.setLat(user.getAddress().getGeo().getLat());
-                geoDto.setLng(user.getAddress().getGeo().getLng());
-                addressDto.setGeo(geoDto);
-            }
-            
-            dto.setAddress(addressDto);
-        }
-        
-        if (user.getCompany() != null) {
-            CompanyDto companyDto = new CompanyDto();
-            companyDto.setName(user.getCompany().getName());
-            companyDto.setCatchPhrase(user.getCompany().getCatchPhrase());
-            companyDto.setBs(user.getCompany().getBs());
-            dto.setCompany(companyDto);
-        }
-        
-        return dto;
-    }
-
-    private User convertToEntity(UserDto dto) {
-        User user = new User();
-        user.setName(dto.getName());
-        user.setUsername(dto.getUsername());
-        user.setEmail(dto.getEmail());
-        user.setPhone(dto.getPhone());
-        user.setWebsite(dto.getWebsite());
-        
-        if (dto.getAddress() != null) {
-            Address address = new Address();
-            address.setStreet(dto.getAddress().getStreet());
-            address.setSuite(dto.getAddress().getSuite());
-            address.setCity(dto.getAddress().getCity());
-            address.setZipcode(dto.getAddress().getZipcode());
-            
-            if (dto.getAddress().getGeo() != null) {
-                Geo geo = new Geo();
-                geo.setLat(dto.getAddress().getGeo().getLat());
-                geo.setLng(dto.getAddress().getGeo().getLng());
-                address.setGeo(geo);
+        eventPublisher.publishEvent(UserChangedEvent.deleted(id));
+    }
+
+    /**
+     * Deletes the listed users, or every user matching the filter, with one
+     * DELETE per chunk of users.bulk.chunk-size ids, each chunk in its own
+     * transaction.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    @CacheEvict(cacheNames = CacheConfig.USERS_CACHE, allEntries = true)
+    public BulkChangeResponse deleteUsers(BulkDeleteRequest request) {
+        return applyInChunks(request.getIds(), request.getFilter(), chunk -> {
+            List<Long> deleted = userRepository.deleteByIds(chunk);
+            deleted.forEach(id -> eventPublisher.publishEvent(UserChangedEvent.deleted(id)));
+            return new ChunkResult(deleted.size(), deleted);
+        });
+    }
+
+    /**
+     * Sets the same values on the listed users, or on every user matching the
+     * filter, with one UPDATE per chunk of users.bulk.chunk-size ids. Rows that
+     * already hold the values are left alone and not counted as affected.
+     * Name, username and email are not bulk-updatable.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    @CacheEvict(cacheNames = CacheConfig.USERS_CACHE, allEntries = true)
+    public BulkChangeResponse updateUsers(BulkUpdateRequest request) {
+        Map<String, Object> columnValues = toColumnValues(request.getSet());
+        return applyInChunks(request.getIds(), request.getFilter(), chunk -> {
+            List<Long> found = userRepository.findExistingIds(chunk);
+            List<Long> changed = userRepository.updateByIds(found, columnValues);
+            if (!changed.isEmpty()) {
+                userRepository.findRowsByIds(changed).stream()
+                        .map(UserMapper::convertToDto)
+                        .forEach(user -> eventPublisher.publishEvent(UserChangedEvent.updated(user)));
             }
-            
-            user.setAddress(address);
-        }
-        
-        if (dto.getCompany() != null) {
-            Company company = new Company();
-            company.setName(dto.getCompany().getName());
-            company.setCatchPhrase(dto.getCompany().getCatchPhrase());
-            company.setBs(dto.getCompany().getBs());
-            user.setCompany(company);
-        }
-        
-        return user;
-    }
-
-    private void updateUserFromDto(User user, UserDto dto) {
-        user.setName(dto.getName());
-        user.setUsername(dto.getUsername());
-        user.setEmail(dto.getEmail());
-        user.setPhone(dto.getPhone());
-        user.setWebsite(dto.getWebsite());
-        
-        if (dto.getAddress() != null) {
-            if (user.getAddress() == null) {
-                user.setAddress(new Address());
+            return new ChunkResult(changed.size(), found);
+        });
+    }
+
+    private BulkChangeResponse applyInChunks(List<Long> ids, UserFilterDto filter,
+                                             Function<List<Long>, ChunkResult> writer) {
+        boolean byIds = ids != null && !ids.isEmpty();
+        UserCriteria criteria = filter == null ? null
+                : new UserCriteria(filter.getCity(), filter.getCompanyName(), filter.getUpdatedBefore());
+        boolean byFilter = criteria != null && !criteria.isEmpty();
+        if (byIds == byFilter) {
+            throw new BadRequestException("Provide either a non-empty ids list or a filter, not both");
+        }
+
+        if (byIds) {
+            int affected = 0;
+            List<Long> notFound = new ArrayList<>();
+            List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+            for (int from = 0; from < distinctIds.size(); from += bulkChunkSize) {
+                List<Long> chunk = distinctIds.subList(from, Math.min(from + bulkChunkSize, distinctIds.size()));
+                ChunkResult result = writeByShard(chunk, writer);
+                affected += result.affected();
+                LinkedHashSet<Long> missing = new LinkedHashSet<>(chunk);
+                result.found().forEach(missing::remove);
+                notFound.addAll(missing);
             }
-            user.getAddress().setStreet(dto.getAddress().getStreet());
-            user.getAddress().setSuite(dto.getAddress().getSuite());
-            user.getAddress().setCity(dto.getAddress().getCity());
-            user.getAddress().setZipcode(dto.getAddress().getZipcode());
-            
-            if (dto.getAddress().getGeo() != null) {
-                if (user.getAddress().getGeo() == null) {
-                    user.getAddress().setGeo(new Geo());
+            return new BulkChangeResponse(affected, notFound);
+        }
+
+        // Walk each shard's matches in turn; no bucket moves until the walk is over
+        return shards.withPlacementFixed(() -> {
+            int affected = 0;
+            for (int shard : shards.shards()) {
+                long afterId = 0L;
+                while (true) {
+                    long cursor = afterId;
+                    List<Long> chunk = new ArrayList<>();
+                    ChunkResult result = transactionTemplate.execute(status -> {
+                        shards.routeTo(shard);
+                        chunk.addAll(userRepository.findIdsMatching(criteria, cursor, bulkChunkSize));
+                        return chunk.isEmpty() ? new ChunkResult(0, List.of()) : writer.apply(chunk);
+                    });
+                    affected += result.affected();
+                    if (chunk.size() < bulkChunkSize) {
+                        break;
+                    }
+                    afterId = chunk.get(chunk.size() - 1);
                 }
-                user.getAddress().getGeo().setLat(dto.getAddress().getGeo().getLat());
-                user.getAddress().getGeo().setLng(dto.getAddress().getGeo().getLng());
             }
+            return new BulkChangeResponse(affected, List.of());
+        });
+    }
+
+    /**
+     * Applies the writer to the ids each shard holds, in one transaction per
+     * shard.
+     */
+    private ChunkResult writeByShard(List<Long> ids, Function<List<Long>, ChunkResult> writer) {
+        return shards.withPlacementFixed(() -> {
+            int affected = 0;
+            List<Long> found = new ArrayList<>();
+            for (Map.Entry<Integer, List<Long>> part : shards.groupByShard(ids, Long::longValue).entrySet()) {
+                ChunkResult result = transactionTemplate.execute(status -> {
+                    shards.routeTo(part.getKey());
+                    return writer.apply(part.getValue());
+                });
+                affected += result.affected();
+                found.addAll(result.found());
+            }
+            return new ChunkResult(affected, found);
+        });
+    }
+
+    private record ChunkResult(int affected, List<Long> found) {
+    }
+
+    /**
+     * Flattens the merge-patch style {@code set} object into column values.
+     * A null nested object clears every column beneath it.
+     */
+    private Map<String, Object> toColumnValues(JsonNode set) {
+        if (set == null || !set.isObject() || set.isEmpty()) {
+            throw new BadRequestException("set must be a non-empty JSON object");
         }
-        
-        if (dto.getCompany() != null) {
-            if (user.getCompany() == null) {
-                user.setCompany(new Company());
+        Map<String, Object> columnValues = new LinkedHashMap<>();
+        collectColumnValues("", set, columnValues);
+        return columnValues;
+    }
+
+    private void collectColumnValues(String prefix, JsonNode node, Map<String, Object> columnValues) {
+        Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            String path = prefix + field.getKey();
+            JsonNode value = field.getValue();
+            String column = BULK_UPDATABLE_COLUMNS.get(path);
+            if (value.isObject() && column == null) {
+                collectColumnValues(path + ".", value, columnValues);
+            } else if (value.isNull() && column == null) {
+                List<String> nested = BULK_UPDATABLE_COLUMNS.keySet().stream()
+                        .filter(key -> key.startsWith(path + "."))
+                        .sorted()
+                        .toList();
+                if (nested.isEmpty()) {
+                    throw new BadRequestException("Field '" + path + "' cannot be bulk-updated");
+                }
+                nested.forEach(key -> columnValues.put(BULK_UPDATABLE_COLUMNS.get(key), null));
+            } else if (column == null || !value.isValueNode()) {
+                throw new BadRequestException("Field '" + path + "' cannot be bulk-updated");
+            } else if (value.isNull()) {
+                columnValues.put(column, null);
+            } else if (column.equals("geo_lat")) {
+                columnValues.put(column, UserMapper.parseCoordinate(value.asText(), "lat", 90));
+            } else if (column.equals("geo_lng")) {
+                columnValues.put(column, UserMapper.parseCoordinate(value.asText(), "lng", 180));
+            } else {
+                columnValues.put(column, value.asText());
             }
-            user.getCompany().setName(dto.getCompany().getName());
-            user.getCompany().setCatchPhrase(dto.getCompany().getCatchPhrase());
-            user.getCompany().setBs(dto.getCompany().getBs());
         }
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,324 @@
+package com.example.backend.service;
+
+import com.example.backend.config.ShardDirectory;
+import com.example.backend.config.ShardRoutingDataSource;
+import com.example.backend.domain.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * The sharding layer between {@link UserService} and the repository. Work on
+ * one user is routed to the shard holding it; reads over all users are
+ * scattered to every shard in parallel, each in its own read-only transaction,
+ * and the ordered results gathered with a k-way merge.
+ *
+ * <p>Without {@code db.shards.enabled} there is a single database: routing
+ * does nothing, and a scatter runs its query once, in the caller's
+ * transaction.
+ */
+@Component
+public class UserShards implements DisposableBean {
+
+    private final ShardDirectory directory;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ExecutorService scatterPool;
+    private final Timer scatterLatency;
+
+    @Autowired
+    public UserShards(ObjectProvider<ShardDirectory> directory, PlatformTransactionManager transactionManager,
+                      @Value("${db.shards.scatter-threads:8}") int scatterThreads, MeterRegistry meterRegistry) {
+        this.directory = directory.getIfAvailable();
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.scatterPool = this.directory == null ? null : scatterPool(scatterThreads);
+        this.scatterLatency = Timer.builder("users.shards.scatter")
+                .description("Time to query every shard and merge the results")
+                .register(meterRegistry);
+    }
+
+    public boolean isSharded() {
+        return directory != null;
+    }
+
+    /**
+     * Routes the current transaction to the shard holding the user.
+     */
+    public void route(long id) {
+        if (directory != null) {
+            holdPlacement();
+            ShardRoutingDataSource.useShard(directory.shardOf(id));
+        }
+    }
+
+    /**
+     * Routes the current transaction to the shard.
+     */
+    public void routeTo(int shard) {
+        if (directory != null) {
+            holdPlacement();
+            ShardRoutingDataSource.useShard(shard);
+        }
+    }
+
+    /**
+     * Gives new users their ids, so they can be routed before they are
+     * written. With a single database the ids are left to Hibernate's sequence.
+     */
+    public void assignIds(List<User> users) {
+        if (directory != null) {
+            users.forEach(user -> user.setId(directory.nextId()));
+        }
+    }
+
+    /**
+     * Gives a new user its id and routes the current transaction to the shard
+     * that will hold it.
+     */
+    public void place(User user) {
+        if (directory != null) {
+            user.setId(directory.nextId());
+            route(user.getId());
+        }
+    }
+
+    /**
+     * Runs the work with no bucket moving meanwhile, for writes that group
+     * users by shard first and then open a transaction per shard.
+     */
+    public <T> T withPlacementFixed(Supplier<T> work) {
+        if (directory == null) {
+            return work.get();
+        }
+        Lock lock = directory.placementLock().readLock();
+        lock.lock();
+        try {
+            return work.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void withPlacementFixed(Runnable work) {
+        withPlacementFixed(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * The items grouped by the shard holding them, in shard order.
+     */
+    public <T> Map<Integer, List<T>> groupByShard(List<T> items, ToLongFunction<T> id) {
+        if (directory == null) {
+            return Map.of(0, items);
+        }
+        Map<Integer, List<T>> groups = new TreeMap<>();
+        for (T item : items) {
+            groups.computeIfAbsent(directory.shardOf(id.applyAsLong(item)), shard -> new ArrayList<>()).add(item);
+        }
+        return groups;
+    }
+
+    /**
+     * The shards holding users, in shard order.
+     */
+    public List<Integer> shards() {
+        return directory == null ? List.of(0) : directory.owningShards();
+    }
+
+    /**
+     * The query's result from every shard holding users, in shard order.
+     */
+    public <T> List<T> scatter(Supplier<T> query) {
+        if (directory == null) {
+            return List.of(query.get());
+        }
+        Timer.Sample sample = Timer.start();
+        try {
+            List<CompletableFuture<T>> results = directory.owningShards().stream()
+                    .map(shard -> readAsync(shard, query))
+                    .toList();
+            return results.stream().map(UserShards::join).toList();
+        } finally {
+            sample.stop(scatterLatency);
+        }
+    }
+
+    /**
+     * Hands every item to the action in id order, walking all shards at once:
+     * each is read a page at a time, after the last id seen from it, and the
+     * pages are merged. {@code pageAfter} returns the page after an id, and an
+     * empty page once the shard has no more.
+     */
+    public <T> void forEachInIdOrder(LongFunction<List<T>> pageAfter, ToLongFunction<T> id, Consumer<T> action) {
+        List<Integer> shards = shards();
+        List<CompletableFuture<List<T>>> firstPages = shards.stream()
+                .map(shard -> directory == null
+                        ? CompletableFuture.completedFuture(pageAfter.apply(0L))
+                        : readAsync(shard, () -> pageAfter.apply(0L)))
+                .toList();
+
+        PriorityQueue<ShardCursor<T>> heads = new PriorityQueue<>(
+                Comparator.comparingLong((ShardCursor<T> cursor) -> id.applyAsLong(cursor.head())));
+        for (int i = 0; i < shards.size(); i++) {
+            List<T> page = join(firstPages.get(i));
+            if (!page.isEmpty()) {
+                heads.add(new ShardCursor<>(shards.get(i), page));
+            }
+        }
+        long lastId = Long.MIN_VALUE;
+        while (!heads.isEmpty()) {
+            ShardCursor<T> cursor = heads.poll();
+            T item = cursor.head();
+            long itemId = id.applyAsLong(item);
+            // A row seen on two shards while its bucket moves
+            if (itemId != lastId) {
+                action.accept(item);
+                lastId = itemId;
+            }
+            cursor.position++;
+            if (cursor.position == cursor.page.size()) {
+                List<T> next = directory == null
+                        ? pageAfter.apply(itemId)
+                        : join(readAsync(cursor.shard, () -> pageAfter.apply(itemId)));
+                if (next.isEmpty()) {
+                    continue;
+                }
+                cursor.page = next;
+                cursor.position = 0;
+            }
+            heads.add(cursor);
+        }
+    }
+
+    /**
+     * Merges lists that are each sorted by {@code order} into the first
+     * {@code limit} items overall. An item whose id equals the one before it,
+     * a row seen on two shards while its bucket moves, is kept once.
+     */
+    public static <T> List<T> merge(List<List<T>> sorted, Comparator<? super T> order, ToLongFunction<T> id,
+                                    int limit) {
+        PriorityQueue<ShardCursor<T>> heads = new PriorityQueue<>((a, b) -> order.compare(a.head(), b.head()));
+        for (List<T> list : sorted) {
+            if (!list.isEmpty()) {
+                heads.add(new ShardCursor<>(0, list));
+            }
+        }
+        List<T> merged = new ArrayList<>(Math.min(limit, sorted.stream().mapToInt(List::size).sum()));
+        long lastId = 0;
+        while (!heads.isEmpty() && merged.size() < limit) {
+            ShardCursor<T> cursor = heads.poll();
+            T item = cursor.head();
+            if (++cursor.position < cursor.page.size()) {
+                heads.add(cursor);
+            }
+            long itemId = id.applyAsLong(item);
+            if (merged.isEmpty() || itemId != lastId) {
+                merged.add(item);
+                lastId = itemId;
+            }
+        }
+        return merged;
+    }
+
+    @Override
+    public void destroy() {
+        if (scatterPool != null) {
+            scatterPool.shutdownNow();
+        }
+    }
+
+    /**
+     * Holds the placement lock until the current write completes, so the
+     * rebalancer does not move a bucket under it. Read-only transactions do
+     * not wait for moves.
+     */
+    private void holdPlacement() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Only a transaction can be routed to a shard");
+        }
+        Lock lock = directory.placementLock().readLock();
+        lock.lock();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lock.unlock();
+            }
+        });
+    }
+
+    private <T> CompletableFuture<T> readAsync(int shard, Supplier<T> query) {
+        return CompletableFuture.supplyAsync(() -> readOnlyTransaction.execute(status -> {
+            ShardRoutingDataSource.useShard(shard);
+            return query.get();
+        }), scatterPool);
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    private static ExecutorService scatterPool(int threads) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "user-shards-scatter-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    private static final class ShardCursor<T> {
+
+        final int shard;
+        List<T> page;
+        int position;
+
+        ShardCursor(int shard, List<T> page) {
+            this.shard = shard;
+            this.page = page;
+        }
+
+        T head() {
+            return page.get(position);
+        }
+    }
+}
@@ -0,0 +1,616 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.UserSuggestionDto;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * In-process inverted n-gram index over user name, username and email, used for
+ * typeahead so that keystrokes never reach the database.
+ *
+ * <p>Every token is indexed under its trigrams plus two boundary grams marking
+ * the token start, so a query term of any length matches token prefixes. Users
+ * are addressed by a dense int ordinal; each gram maps to a sorted {@code int[]}
+ * posting list of ordinals and ids live in a {@code long[]}. Entries of the
+ * word-start grams also carry the weight of the word they start in their low
+ * bits, which bounds a user's score before its text is looked at, so users that
+ * cannot enter the top results are skipped cheaply. An update retires
+ * the user's old ordinal and appends a new one, which keeps posting lists sorted
+ * without inserting in the middle; retired ordinals are compacted away once they
+ * outnumber live ones.
+ */
+@Component
+public class UserTypeaheadIndex {
+
+    private static final char BOUNDARY = '\u0001';
+    private static final char FIELD_SEPARATOR = '\u001F';
+
+    // Per-term match weights; a prefix of the first word of the name ranks highest
+    private static final int NAME_START = 4;
+    private static final int NAME_TOKEN = 3;
+    private static final int USERNAME_TOKEN = 2;
+    private static final int EMAIL_TOKEN = 1;
+
+    // Posting entries are (ordinal << WEIGHT_BITS) | (weight - 1)
+    private static final int WEIGHT_BITS = 2;
+    private static final int WEIGHT_MASK = (1 << WEIGHT_BITS) - 1;
+    private static final int MAX_ORDINALS = Integer.MAX_VALUE >>> WEIGHT_BITS;
+
+    private static final int MIN_DEAD_FOR_COMPACTION = 1024;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long[] ids;
+    private String[] docs;
+    private BitSet live;
+    private int ordinals;
+    private int deadCount;
+    private LongIntHashMap ordinalById;
+
+    private LongIntHashMap slotByGram;
+    private int[][] postings;
+    private int[] postingSizes;
+    private int slots;
+
+    // Changes applied while a rebuild scans, replayed onto the rebuilt index; null otherwise
+    private List<PendingChange> pending;
+
+    public UserTypeaheadIndex() {
+        clear();
+    }
+
+    /**
+     * Replaces the index contents with the users the scan hands over. The scan
+     * fills a separate index while queries keep reading this one; changes made
+     * meanwhile are recorded and replayed onto the new index before it is
+     * swapped in, so they win over the scanned state.
+     */
+    public synchronized void rebuild(Consumer<Entries> scan) {
+        UserTypeaheadIndex rebuilt = new UserTypeaheadIndex();
+        lock.writeLock().lock();
+        try {
+            pending = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        boolean scanned = false;
+        try {
+            scan.accept(rebuilt::putLocked);
+            for (int slot = 0; slot < rebuilt.slots; slot++) {
+                rebuilt.trimPosting(slot);
+            }
+            scanned = true;
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (scanned) {
+                    pending.forEach(change -> change.applyTo(rebuilt));
+                    swapIn(rebuilt);
+                }
+                pending = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Receives the users a rebuild scan hands over.
+     */
+    @FunctionalInterface
+    public interface Entries {
+
+        void add(long id, String name, String username, String email);
+    }
+
+    public void put(long id, String name, String username, String email) {
+        lock.writeLock().lock();
+        try {
+            putLocked(id, name, username, email);
+            if (pending != null) {
+                pending.add(new PendingChange(id, name, username, email, false));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            if (pending != null) {
+                pending.add(new PendingChange(id, null, null, null, true));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.type() == UserChangedEvent.Type.DELETED) {
+            remove(event.id());
+        } else {
+            put(event.id(), event.user().getName(), event.user().getUsername(), event.user().getEmail());
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinalById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Top {@code limit} users where every query term is a prefix of a word in the
+     * name, username or email. Ranked by where the terms matched (name first,
+     * email last); ties go to the user indexed earliest.
+     */
+    public List<UserSuggestionDto> suggest(String query, int limit) {
+        List<String> terms = new ArrayList<>();
+        forEachToken(query, (value, start, end, word) -> terms.add(lowerCase(value, start, end)));
+        if (terms.isEmpty() || limit < 1) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            int[] boundarySlots = new int[terms.size()];
+            int[] querySlots = querySlots(terms, boundarySlots);
+            if (querySlots == null) {
+                return List.of();
+            }
+            int[] boundaryPositions = new int[terms.size()];
+            for (int t = 0; t < terms.size(); t++) {
+                boundaryPositions[t] = indexOf(querySlots, boundarySlots[t]);
+            }
+
+            Comparator<Match> worstFirst = Comparator.comparingInt(Match::score)
+                    .thenComparing(Comparator.comparingInt(Match::ordinal).reversed());
+            PriorityQueue<Match> top = new PriorityQueue<>(limit + 1, worstFirst);
+            int bestPossible = bestPossibleScore(terms);
+
+            // Walk the shortest posting list and gallop through the others
+            int[] driver = postings[querySlots[0]];
+            int driverSize = postingSizes[querySlots[0]];
+            int[] cursors = new int[querySlots.length];
+            candidates:
+            for (int i = 0; i < driverSize; i++) {
+                cursors[0] = i;
+                int ordinal = driver[i] >>> WEIGHT_BITS;
+                for (int j = 1; j < querySlots.length; j++) {
+                    int slot = querySlots[j];
+                    cursors[j] = advance(postings[slot], postingSizes[slot], cursors[j], ordinal << WEIGHT_BITS);
+                    if (cursors[j] == postingSizes[slot]) {
+                        break candidates;
+                    }
+                    if (postings[slot][cursors[j]] >>> WEIGHT_BITS != ordinal) {
+                        continue candidates;
+                    }
+                }
+                if (!live.get(ordinal)) {
+                    continue;
+                }
+                if (top.size() == limit) {
+                    int bound = 0;
+                    for (int position : boundaryPositions) {
+                        bound += (postings[querySlots[position]][cursors[position]] & WEIGHT_MASK) + 1;
+                    }
+                    // Ties keep the earlier user, so an equal bound cannot get in either
+                    if (bound <= top.peek().score()) {
+                        continue;
+                    }
+                }
+                int score = score(docs[ordinal], terms);
+                if (score == 0) {
+                    continue;
+                }
+                if (top.size() < limit) {
+                    top.add(new Match(ordinal, score));
+                } else if (score > top.peek().score()) {
+                    top.poll();
+                    top.add(new Match(ordinal, score));
+                }
+                if (top.size() == limit && top.peek().score() == bestPossible) {
+                    break;
+                }
+            }
+
+            List<Match> ranked = new ArrayList<>(top);
+            ranked.sort(worstFirst.reversed());
+            List<UserSuggestionDto> suggestions = new ArrayList<>(ranked.size());
+            for (Match match : ranked) {
+                suggestions.add(toSuggestion(ids[match.ordinal()], docs[match.ordinal()]));
+            }
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Rough retained size of the index, assuming compressed oops and compact
+     * Latin-1 strings.
+     */
+    public long estimatedHeapBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = 16L + ids.length * 8L + 16L + docs.length * 4L + live.size() / 8;
+            for (int ordinal = 0; ordinal < ordinals; ordinal++) {
+                if (docs[ordinal] != null) {
+                    bytes += 24L + 16L + docs[ordinal].length();
+                }
+            }
+            bytes += 16L + postings.length * 4L + 16L + postingSizes.length * 4L;
+            for (int slot = 0; slot < slots; slot++) {
+                bytes += 16L + postings[slot].length * 4L;
+            }
+            return bytes + ordinalById.heapBytes() + slotByGram.heapBytes();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void clear() {
+        ids = new long[1024];
+        docs = new String[1024];
+        live = new BitSet();
+        ordinals = 0;
+        deadCount = 0;
+        ordinalById = new LongIntHashMap(1024);
+        slotByGram = new LongIntHashMap(4096);
+        postings = new int[4096][];
+        postingSizes = new int[4096];
+        slots = 0;
+    }
+
+    private void swapIn(UserTypeaheadIndex rebuilt) {
+        ids = rebuilt.ids;
+        docs = rebuilt.docs;
+        live = rebuilt.live;
+        ordinals = rebuilt.ordinals;
+        deadCount = rebuilt.deadCount;
+        ordinalById = rebuilt.ordinalById;
+        slotByGram = rebuilt.slotByGram;
+        postings = rebuilt.postings;
+        postingSizes = rebuilt.postingSizes;
+        slots = rebuilt.slots;
+    }
+
+    private void removeLocked(long id) {
+        int ordinal = ordinalById.remove(id);
+        if (ordinal != LongIntHashMap.MISSING) {
+            retire(ordinal);
+            compactIfSparse();
+        }
+    }
+
+    private void putLocked(long id, String name, String username, String email) {
+        int previous = ordinalById.remove(id);
+        if (previous != LongIntHashMap.MISSING) {
+            retire(previous);
+        }
+
+        if (ordinals == MAX_ORDINALS) {
+            throw new IllegalStateException("Typeahead index is full");
+        }
+        int ordinal = ordinals++;
+        if (ordinal == ids.length) {
+            ids = Arrays.copyOf(ids, ordinal + (ordinal >> 1));
+            docs = Arrays.copyOf(docs, ids.length);
+        }
+        ids[ordinal] = id;
+        docs[ordinal] = nullToEmpty(name) + FIELD_SEPARATOR + nullToEmpty(username) + FIELD_SEPARATOR + nullToEmpty(email);
+        live.set(ordinal);
+        ordinalById.put(id, ordinal);
+
+        forEachToken(name, (value, start, end, word) ->
+                indexToken(value, start, end, ordinal, word == 0 ? NAME_START : NAME_TOKEN));
+        forEachToken(username, (value, start, end, word) -> indexToken(value, start, end, ordinal, USERNAME_TOKEN));
+        forEachToken(email, (value, start, end, word) -> indexToken(value, start, end, ordinal, EMAIL_TOKEN));
+
+        if (previous != LongIntHashMap.MISSING) {
+            compactIfSparse();
+        }
+    }
+
+    private void retire(int ordinal) {
+        live.clear(ordinal);
+        docs[ordinal] = null;
+        deadCount++;
+    }
+
+    private void indexToken(String value, int start, int end, int ordinal, int weight) {
+        char first = Character.toLowerCase(value.charAt(start));
+        addPosting(gram(BOUNDARY, first, '\0'), ordinal, weight);
+        char before = BOUNDARY;
+        char last = first;
+        for (int i = start + 1; i < end; i++) {
+            char c = Character.toLowerCase(value.charAt(i));
+            // Only the two grams that start with the boundary mark a word start
+            addPosting(gram(before, last, c), ordinal, before == BOUNDARY ? weight : 1);
+            before = last;
+            last = c;
+        }
+    }
+
+    private void addPosting(long gram, int ordinal, int weight) {
+        int slot = slotByGram.get(gram);
+        if (slot == LongIntHashMap.MISSING) {
+            slot = slots++;
+            if (slot == postings.length) {
+                postings = Arrays.copyOf(postings, slot * 2);
+                postingSizes = Arrays.copyOf(postingSizes, slot * 2);
+            }
+            postings[slot] = new int[2];
+            slotByGram.put(gram, slot);
+        }
+        int[] posting = postings[slot];
+        int size = postingSizes[slot];
+        int entry = (ordinal << WEIGHT_BITS) | (weight - 1);
+        // The ordinal being indexed is always the highest, so a repeat gram is the last entry
+        if (size > 0 && posting[size - 1] >>> WEIGHT_BITS == ordinal) {
+            posting[size - 1] = Math.max(posting[size - 1], entry);
+            return;
+        }
+        if (size == posting.length) {
+            posting = Arrays.copyOf(posting, size + (size >> 1) + 1);
+            postings[slot] = posting;
+        }
+        posting[size] = entry;
+        postingSizes[slot] = size + 1;
+    }
+
+    /**
+     * Posting slots for every gram of every term, shortest list first, or null
+     * when some gram has never been indexed. The slot of each term's word-start
+     * gram is written to {@code boundarySlots}.
+     */
+    private int[] querySlots(List<String> terms, int[] boundarySlots) {
+        int[] querySlots = new int[0];
+        for (int t = 0; t < terms.size(); t++) {
+            String term = terms.get(t);
+            // A one-letter term is only covered by the boundary bigram
+            long[] grams = new long[Math.max(1, term.length() - 1)];
+            if (term.length() == 1) {
+                grams[0] = gram(BOUNDARY, term.charAt(0), '\0');
+            } else {
+                grams[0] = gram(BOUNDARY, term.charAt(0), term.charAt(1));
+                for (int i = 2; i < term.length(); i++) {
+                    grams[i - 1] = gram(term.charAt(i - 2), term.charAt(i - 1), term.charAt(i));
+                }
+            }
+            for (int g = 0; g < grams.length; g++) {
+                int slot = slotByGram.get(grams[g]);
+                if (slot == LongIntHashMap.MISSING) {
+                    return null;
+                }
+                if (g == 0) {
+                    boundarySlots[t] = slot;
+                }
+                querySlots = Arrays.copyOf(querySlots, querySlots.length + 1);
+                querySlots[querySlots.length - 1] = slot;
+            }
+        }
+        return Arrays.stream(querySlots)
+                .distinct()
+                .boxed()
+                .sorted(Comparator.comparingInt(slot -> postingSizes[slot]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    /**
+     * Highest score any user can reach, so the scan can stop once the top list is
+     * full of them. Only terms that prefix one another can all match the first
+     * word of the name.
+     */
+    private static int bestPossibleScore(List<String> terms) {
+        for (int i = 0; i < terms.size(); i++) {
+            for (int j = 0; j < terms.size(); j++) {
+                if (i != j && terms.get(j).startsWith(terms.get(i))) {
+                    return terms.size() * NAME_START;
+                }
+            }
+        }
+        return NAME_START + (terms.size() - 1) * NAME_TOKEN;
+    }
+
+    private static int score(String doc, List<String> terms) {
+        int total = 0;
+        for (String term : terms) {
+            int termScore = termScore(doc, term);
+            if (termScore == 0) {
+                return 0;
+            }
+            total += termScore;
+        }
+        return total;
+    }
+
+    private static int termScore(String doc, String term) {
+        int best = 0;
+        int field = 0;
+        boolean firstWordInField = true;
+        boolean atWordStart = true;
+        for (int i = 0; i < doc.length(); i++) {
+            char c = doc.charAt(i);
+            if (c == FIELD_SEPARATOR) {
+                field++;
+                firstWordInField = true;
+                atWordStart = true;
+                continue;
+            }
+            boolean wordChar = Character.isLetterOrDigit(c);
+            if (wordChar && atWordStart) {
+                if (doc.regionMatches(true, i, term, 0, term.length())) {
+                    int weight = switch (field) {
+                        case 0 -> firstWordInField ? NAME_START : NAME_TOKEN;
+                        case 1 -> USERNAME_TOKEN;
+                        default -> EMAIL_TOKEN;
+                    };
+                    if (weight == NAME_START) {
+                        return weight;
+                    }
+                    best = Math.max(best, weight);
+                }
+                firstWordInField = false;
+            }
+            atWordStart = !wordChar;
+        }
+        return best;
+    }
+
+    private void compactIfSparse() {
+        if (deadCount < MIN_DEAD_FOR_COMPACTION || deadCount < ordinalById.size()) {
+            return;
+        }
+        int[] remap = new int[ordinals];
+        int next = 0;
+        for (int ordinal = 0; ordinal < ordinals; ordinal++) {
+            if (live.get(ordinal)) {
+                remap[ordinal] = next;
+                ids[next] = ids[ordinal];
+                docs[next] = docs[ordinal];
+                ordinalById.put(ids[next], next);
+                next++;
+            } else {
+                remap[ordinal] = -1;
+            }
+        }
+        Arrays.fill(docs, next, ordinals, null);
+        live.clear();
+        live.set(0, next);
+        ordinals = next;
+        deadCount = 0;
+
+        // Remapping is monotonic, so filtered posting lists stay sorted
+        for (int slot = 0; slot < slots; slot++) {
+            int[] posting = postings[slot];
+            int kept = 0;
+            for (int i = 0; i < postingSizes[slot]; i++) {
+                int mapped = remap[posting[i] >>> WEIGHT_BITS];
+                if (mapped >= 0) {
+                    posting[kept++] = (mapped << WEIGHT_BITS) | (posting[i] & WEIGHT_MASK);
+                }
+            }
+            postingSizes[slot] = kept;
+            trimPosting(slot);
+        }
+    }
+
+    private void trimPosting(int slot) {
+        if (postings[slot].length > postingSizes[slot]) {
+            postings[slot] = Arrays.copyOf(postings[slot], postingSizes[slot]);
+        }
+    }
+
+    /**
+     * First index at or after {@code from} whose entry is not below the target.
+     */
+    private static int advance(int[] posting, int size, int from, int target) {
+        int low = from;
+        int high = from;
+        int step = 1;
+        while (high < size && posting[high] < target) {
+            low = high + 1;
+            high += step;
+            step <<= 1;
+        }
+        int found = Arrays.binarySearch(posting, low, Math.min(high + 1, size), target);
+        return found >= 0 ? found : -found - 1;
+    }
+
+    private static int indexOf(int[] values, int value) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static long gram(char first, char second, char third) {
+        return ((long) first << 32) | ((long) second << 16) | third;
+    }
+
+    private static UserSuggestionDto toSuggestion(long id, String doc) {
+        int nameEnd = doc.indexOf(FIELD_SEPARATOR);
+        int usernameEnd = doc.indexOf(FIELD_SEPARATOR, nameEnd + 1);
+        return new UserSuggestionDto(id,
+                emptyToNull(doc.substring(0, nameEnd)),
+                emptyToNull(doc.substring(nameEnd + 1, usernameEnd)),
+                emptyToNull(doc.substring(usernameEnd + 1)));
+    }
+
+    private static void forEachToken(String value, TokenConsumer consumer) {
+        if (value == null) {
+            return;
+        }
+        int i = 0;
+        int word = 0;
+        while (i < value.length()) {
+            while (i < value.length() && !Character.isLetterOrDigit(value.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < value.length() && Character.isLetterOrDigit(value.charAt(i))) {
+                i++;
+            }
+            if (i > start) {
+                consumer.accept(value, start, i, word++);
+            }
+        }
+    }
+
+    // Lowercases char by char, exactly as tokens are when they are indexed
+    private static String lowerCase(String value, int start, int end) {
+        char[] chars = new char[end - start];
+        for (int i = start; i < end; i++) {
+            chars[i - start] = Character.toLowerCase(value.charAt(i));
+        }
+        return new String(chars);
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+
+    @FunctionalInterface
+    private interface TokenConsumer {
+        void accept(String value, int start, int end, int word);
+    }
+
+    private record Match(int ordinal, int score) {
+    }
+
+    private record PendingChange(long id, String name, String username, String email, boolean removed) {
+
+        void applyTo(UserTypeaheadIndex index) {
+            if (removed) {
+                index.removeLocked(id);
+            } else {
+                index.putLocked(id, name, username, email);
+            }
+        }
+    }
+}
@@ -0,0 +1,5 @@
+-- Only the application allocates user ids. Hibernate's pooled optimizer takes
+-- each users_id_seq value as the top of a block of 50, so an insert that fell
+-- back to the BIGSERIAL default would take one id from the next block handed
+-- out and collide with it. Inserts must now name their id.
+ALTER TABLE users ALTER COLUMN id DROP DEFAULT;
@@ -0,0 +1,3 @@
+-- Hand out user ids in blocks of 50 so Hibernate's pooled optimizer can assign
+-- them client-side and batch INSERTs (IDENTITY generation disables batching)
+ALTER SEQUENCE users_id_seq INCREMENT BY 50;
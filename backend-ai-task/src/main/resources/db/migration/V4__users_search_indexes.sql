@@ -0,0 +1,22 @@
+-- Indexed search over name, username, email, city and company name
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Weighted full-text document: names rank above email, company and city
+ALTER TABLE users ADD COLUMN search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('simple', coalesce(user_name, '')), 'A') ||
+        setweight(to_tsvector('simple', coalesce(username, '')), 'A') ||
+        setweight(to_tsvector('simple', coalesce(email, '')), 'B') ||
+        setweight(to_tsvector('simple', coalesce(company_name, '')), 'C') ||
+        setweight(to_tsvector('simple', coalesce(city, '')), 'D')
+    ) STORED;
+
+-- Lower-cased concatenation for trigram (fuzzy and substring) matching
+ALTER TABLE users ADD COLUMN search_text text
+    GENERATED ALWAYS AS (
+        lower(user_name || ' ' || username || ' ' || email || ' ' ||
+              coalesce(city, '') || ' ' || coalesce(company_name, ''))
+    ) STORED;
+
+CREATE INDEX idx_users_search_vector ON users USING GIN (search_vector);
+CREATE INDEX idx_users_search_text_trgm ON users USING GIN (search_text gin_trgm_ops);
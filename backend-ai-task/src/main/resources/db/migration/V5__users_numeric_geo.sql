@@ -0,0 +1,21 @@
+-- Numeric coordinates with a spatial index for nearby-user queries
+CREATE EXTENSION IF NOT EXISTS cube;
+CREATE EXTENSION IF NOT EXISTS earthdistance;
+
+-- Strings that are not plain decimals or lie outside the valid range become NULL
+ALTER TABLE users
+    ALTER COLUMN geo_lat TYPE double precision USING
+        CASE WHEN geo_lat ~ '^\s*[-+]?[0-9]+(\.[0-9]+)?\s*$' THEN
+            CASE WHEN geo_lat::double precision BETWEEN -90 AND 90 THEN geo_lat::double precision END
+        END,
+    ALTER COLUMN geo_lng TYPE double precision USING
+        CASE WHEN geo_lng ~ '^\s*[-+]?[0-9]+(\.[0-9]+)?\s*$' THEN
+            CASE WHEN geo_lng::double precision BETWEEN -180 AND 180 THEN geo_lng::double precision END
+        END;
+
+ALTER TABLE users
+    ADD CONSTRAINT chk_users_geo_lat CHECK (geo_lat BETWEEN -90 AND 90),
+    ADD CONSTRAINT chk_users_geo_lng CHECK (geo_lng BETWEEN -180 AND 180);
+
+-- Serves both earth_box() radius filters and <-> nearest-neighbour ordering
+CREATE INDEX idx_users_geo_earth ON users USING GIST (ll_to_earth(geo_lat, geo_lng));
@@ -0,0 +1,5 @@
+-- Row version for optimistic locking and the time of the last write; together
+-- they back the ETag and Last-Modified validators of the user endpoints
+ALTER TABLE users
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0,
+    ADD COLUMN updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now();
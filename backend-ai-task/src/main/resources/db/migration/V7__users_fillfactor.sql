@@ -0,0 +1,5 @@
+-- Leave room on each heap page so updates that touch no indexed column can be
+-- HOT: the new row version stays on the same page and no index entries are
+-- written. Applies to pages written from now on; existing ones gain the space
+-- as VACUUM frees it or when the table is rewritten.
+ALTER TABLE users SET (fillfactor = 90);
@@ -0,0 +1,9 @@
+-- Where each bucket of users lives when sharding is on (db.shards): a user's
+-- bucket is its id modulo 1024, and every bucket is on exactly one shard
+CREATE TABLE user_shard_buckets (
+    bucket INTEGER PRIMARY KEY,
+    shard INTEGER NOT NULL
+);
+
+-- Lets the rebalancer copy and delete one bucket's rows without scanning the table
+CREATE INDEX idx_users_shard_bucket ON users ((mod(id, 1024)), id);
@@ -0,0 +1,5 @@
+-- Only sharded deployments read users by bucket, so the index V8 created for
+-- the rebalancer moved to shard provisioning (ShardDirectory), which creates it
+-- on every shard when db.shards is enabled. Unsharded databases drop it and no
+-- longer maintain it on each write.
+DROP INDEX IF EXISTS idx_users_shard_bucket;
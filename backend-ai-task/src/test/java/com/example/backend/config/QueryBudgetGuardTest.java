@@ -0,0 +1,67 @@
+package com.example.backend.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class QueryBudgetGuardTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final QueryBudgetGuard guard = new QueryBudgetGuard(
+        new QueryBudgetGuard.Budgets(false, 10, 3, Map.of("GET /api/users/{id}", 1)), meterRegistry);
+
+    @AfterEach
+    void tearDown() {
+        RequestStatistics.end();
+    }
+
+    @Test
+    void shape_ShouldIgnoreLiteralsParameterListsAndWhitespace() {
+        assertEquals("select * from users where id in (?) and name = ? limit ?",
+            RequestStatistics.shape("select *\n  from users where id in (?, ?, ?) and name = 'O''Brien' limit 20"));
+        assertEquals(RequestStatistics.shape("select u1_0.id from users u1_0 where u1_0.id=?"),
+            RequestStatistics.shape("select u1_0.id from users u1_0 where u1_0.id=?"));
+    }
+
+    @Test
+    void violations_ShouldReportStatementsOverTheEndpointBudget() {
+        RequestStatistics statistics = RequestStatistics.begin();
+        statistics.statementExecuted("select * from users where id=?", 1_000);
+        statistics.statementExecuted("select version from users where id=?", 1_000);
+
+        assertEquals(List.of("GET /api/users/{id} ran 2 statements, over its budget of 1"),
+            guard.violations("GET /api/users/{id}", statistics));
+        assertTrue(guard.violations("GET /api/users/page", statistics).isEmpty());
+    }
+
+    @Test
+    void violations_ShouldReportTheSameShapeRunOncePerRow() {
+        RequestStatistics statistics = RequestStatistics.begin();
+        statistics.statementExecuted("select * from users limit 3", 1_000);
+        for (int id = 1; id <= 3; id++) {
+            statistics.statementExecuted("select * from company where user_id = " + id, 1_000);
+        }
+
+        List<String> violations = guard.violations("GET /api/users/page", statistics);
+        assertEquals(1, violations.size());
+        assertTrue(violations.get(0).contains("3 times"));
+        assertTrue(violations.get(0).endsWith("select * from company where user_id = ?"));
+    }
+
+    @Test
+    void check_ShouldCountViolatingRequests() {
+        RequestStatistics statistics = RequestStatistics.begin();
+        statistics.statementExecuted("select * from users where id=?", 1_000);
+        statistics.statementExecuted("select * from users where id=?", 1_000);
+
+        guard.check("GET", "/api/users/{id}", statistics);
+
+        assertEquals(1, meterRegistry.get("request.db.budget.violations")
+            .tag("uri", "/api/users/{id}").counter().count());
+    }
+}
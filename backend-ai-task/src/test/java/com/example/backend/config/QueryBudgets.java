@@ -0,0 +1,55 @@
+package com.example.backend.config;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+/**
+ * MockMvc matchers for the database work of a request, as counted by
+ * {@link RequestStatisticsFilter}. MockMvc must run with filters, and the test
+ * must not wrap requests in its own transaction, which would defer their
+ * writes to the end of the test.
+ *
+ * <pre>
+ * mockMvc.perform(get("/api/users/1")).andExpect(QueryBudgets.withinBudget(queryBudgetGuard));
+ * </pre>
+ */
+public final class QueryBudgets {
+
+    private QueryBudgets() {
+    }
+
+    /**
+     * Passes when the request stayed within the budget configured for its
+     * endpoint under {@code db.query-budget} and repeated no statement shape
+     * too often.
+     */
+    public static ResultMatcher withinBudget(QueryBudgetGuard guard) {
+        return result -> {
+            String endpoint = result.getRequest().getMethod() + " " + RequestStatisticsFilter.uri(result.getRequest());
+            List<String> violations = guard.violations(endpoint, statisticsOf(result));
+            assertTrue(violations.isEmpty(), () -> String.join("\n", violations));
+        };
+    }
+
+    /**
+     * Passes when the request executed no more than {@code statements} JDBC
+     * statements.
+     */
+    public static ResultMatcher statementsAtMost(int statements) {
+        return result -> {
+            int executed = statisticsOf(result).statements();
+            assertTrue(executed <= statements,
+                () -> "Expected at most " + statements + " statements but the request ran " + executed);
+        };
+    }
+
+    public static RequestStatistics statisticsOf(MvcResult result) {
+        RequestStatistics statistics = (RequestStatistics) result.getRequest().getAttribute(RequestStatistics.ATTRIBUTE);
+        assertNotNull(statistics, "No request statistics; is MockMvc running without filters?");
+        return statistics;
+    }
+}
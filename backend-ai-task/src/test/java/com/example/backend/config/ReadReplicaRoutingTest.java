@@ -0,0 +1,305 @@
+package com.example.backend.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.example.backend.BackendAiTaskApplication;
+import com.example.backend.dto.UserDto;
+import com.example.backend.exception.ResourceNotFoundException;
+import com.example.backend.repository.UserRepository;
+import com.example.backend.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+/**
+ * Routes between three H2 databases standing in for a primary and two
+ * replicas. Nothing replicates between them: each test copies what a replica
+ * should hold, so the data a read returns shows where it was routed.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1",
+    "db.replicas.enabled=true",
+    "db.replicas.urls[0]=" + ReadReplicaRoutingTest.REPLICA_1 + ";IFEXISTS=TRUE",
+    "db.replicas.urls[1]=" + ReadReplicaRoutingTest.REPLICA_2 + ";IFEXISTS=TRUE",
+    "db.replicas.username=sa",
+    "db.replicas.password=",
+    "db.replicas.health-check-interval=1h",
+    "db.replicas.read-your-writes=1m",
+    "spring.cache.type=none"
+})
+@AutoConfigureMockMvc
+@Import(TestSecurityConfig.class)
+@ActiveProfiles("test")
+class ReadReplicaRoutingTest {
+
+    static final String PRIMARY = "jdbc:h2:mem:routing-primary";
+    static final String REPLICA_1 = "jdbc:h2:mem:routing-replica-1";
+    static final String REPLICA_2 = "jdbc:h2:mem:routing-replica-2";
+
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Keep the in-memory replicas alive between connections
+    private final List<Connection> replicaHolders = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        userRepository.deleteAll();
+        replicaHolders.add(DriverManager.getConnection(REPLICA_1 + ";DB_CLOSE_DELAY=-1", "sa", ""));
+        replicaHolders.add(DriverManager.getConnection(REPLICA_2 + ";DB_CLOSE_DELAY=-1", "sa", ""));
+        copyPrimaryTo(REPLICA_1, false);
+        copyPrimaryTo(REPLICA_2, false);
+        awaitReplicasUp();
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        for (Connection holder : replicaHolders) {
+            try (Statement statement = holder.createStatement()) {
+                statement.execute("SHUTDOWN");
+            }
+        }
+        replicaHolders.clear();
+    }
+
+    @Test
+    void readOnlyTransactions_ShouldGoRoundRobinToTheReplicas() throws Exception {
+        Long id = userService.createUser(user("routed")).getId();
+        copyPrimaryTo(REPLICA_1, true);
+        double replica1Reads = reads("replica-1");
+        double replica2Reads = reads("replica-2");
+
+        // Only the first replica has the row, and consecutive reads alternate between them
+        int found = 0;
+        for (int i = 0; i < 4; i++) {
+            try {
+                assertEquals("routed", userService.getUserById(id).getUsername());
+                found++;
+            } catch (ResourceNotFoundException ex) {
+                // Read from the second replica
+            }
+        }
+
+        assertEquals(2, found);
+        assertEquals(replica1Reads + 2, reads("replica-1"));
+        assertEquals(replica2Reads + 2, reads("replica-2"));
+    }
+
+    @Test
+    void writesAfterAReadInTheSameRequest_ShouldStillGoToThePrimary() throws Exception {
+        Long id = userService.createUser(user("conditional")).getId();
+        copyPrimaryTo(REPLICA_1, true);
+        copyPrimaryTo(REPLICA_2, true);
+
+        // If-Match reads the version first, in a read-only transaction on a replica
+        mockMvc.perform(put("/api/users/" + id)
+                .with(client("10.0.0.1"))
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(user("conditional-updated"))))
+            .andExpect(status().isOk());
+
+        // Repository reads are read-only transactions too, so look at the primary directly
+        assertEquals("conditional-updated", usernameOnPrimary(id));
+    }
+
+    @Test
+    void readsAfterTheClientsOwnWrite_ShouldGoToThePrimary() throws Exception {
+        String body = mockMvc.perform(post("/api/users")
+                .with(client("10.0.0.1"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(user("writer"))))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        Long id = objectMapper.readValue(body, UserDto.class).getId();
+
+        // The replicas have not caught up: another client does not see the user yet, the writer does
+        mockMvc.perform(get("/api/users/" + id).with(client("10.0.0.2")))
+            .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/users/" + id).with(client("10.0.0.1")))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.username").value("writer"));
+    }
+
+    @Test
+    void readsWhileTheReplicasAreDown_ShouldFallBackToThePrimary() throws Exception {
+        Long id = userService.createUser(user("fallback")).getId();
+        tearDown();
+        routing().checkReplicas();
+        double primaryReads = reads("primary");
+
+        assertEquals("fallback", userService.getUserById(id).getUsername());
+        assertEquals(primaryReads + 1, reads("primary"));
+        assertEquals(0, meterRegistry.get("db.replica.up").tag("replica", "replica-1").gauge().value());
+
+        // Back in rotation once a health check passes again
+        setUp();
+        assertThrows(ResourceNotFoundException.class, () -> userService.getUserById(id));
+    }
+
+    @Test
+    void closingTheContext_ShouldCloseEveryPool() throws Exception {
+        // A context of its own, on databases of its own, so this class's shared one stays open
+        String primary = "jdbc:h2:mem:closing-primary";
+        String replica = "jdbc:h2:mem:closing-replica";
+        Set<Thread> healthChecks = healthCheckThreads();
+        try (Connection holder = DriverManager.getConnection(replica + ";DB_CLOSE_DELAY=-1", "sa", "")) {
+            // The startup index builds read from the replica
+            copyPrimaryTo(replica, false);
+            ConfigurableApplicationContext context = new SpringApplicationBuilder(BackendAiTaskApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .run("--spring.datasource.url=" + primary + ";DB_CLOSE_DELAY=-1",
+                    "--db.replicas.enabled=true",
+                    "--db.replicas.urls[0]=" + replica + ";IFEXISTS=TRUE",
+                    "--db.replicas.username=sa",
+                    "--db.replicas.password=",
+                    "--spring.cache.type=none");
+            context.getBean(DataSource.class).unwrap(ReadWriteRoutingDataSource.class).checkReplicas();
+            assertTrue(sessions(primary) > 1);
+            assertTrue(sessions(replica) > 2);
+            assertEquals(healthChecks.size() + 1, healthCheckThreads().size());
+
+            context.close();
+
+            // Only the asking session is left, and on the replica the one keeping it alive
+            assertEquals(1, sessions(primary));
+            assertEquals(2, sessions(replica));
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!healthCheckThreads().equals(healthChecks)) {
+            assertTrue(System.nanoTime() < deadline, "The replica health checks were not stopped");
+            Thread.sleep(50);
+        }
+    }
+
+    private static Set<Thread> healthCheckThreads() {
+        return Thread.getAllStackTraces().keySet().stream()
+            .filter(thread -> thread.getName().equals("db-replica-health"))
+            .collect(Collectors.toSet());
+    }
+
+    private void awaitReplicasUp() throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        // Check even if still marked up, so connections to the databases shut down last test are dropped
+        routing().checkReplicas();
+        while (!(up("replica-1") && up("replica-2"))) {
+            assertTrue(System.nanoTime() < deadline, "The replicas did not come up");
+            Thread.sleep(50);
+            routing().checkReplicas();
+        }
+    }
+
+    private ReadWriteRoutingDataSource routing() throws SQLException {
+        return dataSource.unwrap(ReadWriteRoutingDataSource.class);
+    }
+
+    private boolean up(String replica) {
+        return meterRegistry.get("db.replica.up").tag("replica", replica).gauge().value() == 1;
+    }
+
+    private double reads(String target) {
+        return meterRegistry.get("db.routing.reads").tag("target", target).counter().count();
+    }
+
+    private static String usernameOnPrimary(Long id) throws SQLException {
+        try (Connection primary = DriverManager.getConnection(PRIMARY, "sa", "");
+             Statement statement = primary.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT username FROM users WHERE id = " + id)) {
+            return rows.next() ? rows.getString(1) : null;
+        }
+    }
+
+    /**
+     * Open sessions on the database, counting the one asking.
+     */
+    private static int sessions(String url) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT COUNT(*) FROM INFORMATION_SCHEMA.SESSIONS")) {
+            rows.next();
+            return rows.getInt(1);
+        }
+    }
+
+    /**
+     * Replaces the replica's contents with the primary's schema, and its rows
+     * as well when {@code withData}.
+     */
+    private static void copyPrimaryTo(String replica, boolean withData) throws SQLException {
+        List<String> script = new ArrayList<>();
+        try (Connection primary = DriverManager.getConnection(PRIMARY, "sa", "");
+             Statement statement = primary.createStatement();
+             ResultSet rows = statement.executeQuery(withData ? "SCRIPT" : "SCRIPT NODATA")) {
+            while (rows.next()) {
+                script.add(rows.getString(1));
+            }
+        }
+        try (Connection target = DriverManager.getConnection(replica, "sa", "");
+             Statement statement = target.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+            for (String sql : script) {
+                if (!sql.startsWith("CREATE USER")) {
+                    statement.execute(sql);
+                }
+            }
+        }
+    }
+
+    private static RequestPostProcessor client(String address) {
+        return request -> {
+            request.setRemoteAddr(address);
+            return request;
+        };
+    }
+
+    private static UserDto user(String username) {
+        UserDto user = new UserDto();
+        user.setName("User " + username);
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        return user;
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.backend.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.example.backend.dto.AddressDto;
+import com.example.backend.dto.CompanyDto;
+import com.example.backend.dto.GeoDto;
+import com.example.backend.dto.UserDto;
+import com.example.backend.repository.UserRepository;
+import com.example.backend.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest(properties = {"db.slow-query.threshold=0ms", "db.slow-query.sample-rate=0"})
+@AutoConfigureMockMvc
+@Import(TestSecurityConfig.class)
+@ActiveProfiles("test")
+class RequestStatisticsFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        userId = userService.createUser(user("Jane Roe")).getId();
+    }
+
+    @Test
+    void update_ShouldRecordStatementsEntityLoadsAndFlushesUnderTheRoutePattern() throws Exception {
+        double slowBefore = meterRegistry.counter("db.queries.slow").count();
+
+        mockMvc.perform(put("/api/users/" + userId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(user("Jane Doe"))))
+            .andExpect(status().isOk());
+
+        DistributionSummary statements = summary("request.db.statements", "PUT");
+        assertEquals(1, statements.count());
+        // Loading the row and writing it back take at least two statements
+        assertTrue(statements.totalAmount() >= 2);
+        assertTrue(summary("request.hibernate.entity.loads", "PUT").totalAmount() >= 1);
+        assertTrue(summary("request.hibernate.flushes", "PUT").totalAmount() >= 1);
+        // A zero threshold makes every statement slow; a zero sample rate keeps them all out of the log
+        assertTrue(meterRegistry.counter("db.queries.slow").count() - slowBefore >= statements.totalAmount());
+    }
+
+    @Test
+    void requestWithoutDatabaseWork_ShouldRecordZero() throws Exception {
+        mockMvc.perform(get("/api/users/typeahead").param("q", "ja"))
+            .andExpect(status().isOk());
+
+        DistributionSummary statements = meterRegistry.get("request.db.statements")
+            .tag("uri", "/api/users/typeahead").summary();
+        assertEquals(0, statements.totalAmount());
+    }
+
+    private DistributionSummary summary(String name, String method) {
+        return meterRegistry.get(name).tag("method", method).tag("uri", "/api/users/{id}").summary();
+    }
+
+    private static UserDto user(String name) {
+        GeoDto geo = new GeoDto();
+        geo.setLat("40.7128");
+        geo.setLng("-74.0060");
+        AddressDto address = new AddressDto();
+        address.setStreet("1 Main St");
+        address.setSuite("Apt 1");
+        address.setCity("New York");
+        address.setZipcode("10001");
+        address.setGeo(geo);
+        CompanyDto company = new CompanyDto();
+        company.setName("Acme");
+        company.setCatchPhrase("Everything");
+        company.setBs("things");
+
+        UserDto dto = new UserDto();
+        dto.setName(name);
+        dto.setUsername("jane");
+        dto.setEmail("jane@example.com");
+        dto.setPhone("555-0100");
+        dto.setWebsite("jane.example.com");
+        dto.setAddress(address);
+        dto.setCompany(company);
+        return dto;
+    }
+}
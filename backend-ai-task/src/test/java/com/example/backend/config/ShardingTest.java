@@ -0,0 +1,360 @@
+package com.example.backend.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.example.backend.dto.AddressDto;
+import com.example.backend.dto.BulkChangeResponse;
+import com.example.backend.dto.BulkDeleteRequest;
+import com.example.backend.dto.UserDto;
+import com.example.backend.dto.UserFilterDto;
+import com.example.backend.dto.UserPageDto;
+import com.example.backend.dto.UserSearchPageDto;
+import com.example.backend.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Shards users over three H2 databases. Hibernate creates the schema on shard
+ * 0 only, so the first test copies it to the other two and, as Flyway is off,
+ * provisions the id ranges itself; every test starts with all buckets back on
+ * shard 0 and no users anywhere.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:shard-0;DB_CLOSE_DELAY=-1",
+    "db.shards.enabled=true",
+    "db.shards.urls[0]=jdbc:h2:mem:shard-1;DB_CLOSE_DELAY=-1",
+    "db.shards.urls[1]=jdbc:h2:mem:shard-2;DB_CLOSE_DELAY=-1",
+    "db.shards.username=sa",
+    "db.shards.password=",
+    "db.shards.copy-chunk-size=7",
+    "spring.cache.type=none"
+})
+@AutoConfigureMockMvc
+@Import(TestSecurityConfig.class)
+@ActiveProfiles("test")
+class ShardingTest {
+
+    private static boolean schemaCopied;
+
+    @Autowired
+    private ShardDirectory directory;
+    @Autowired
+    private ShardRebalancer rebalancer;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        if (!schemaCopied) {
+            copySchemaFromShard0();
+            directory.provisionShards();
+            schemaCopied = true;
+        }
+        for (int bucket = 0; bucket < ShardDirectory.BUCKETS; bucket++) {
+            if (directory.ownerOf(bucket) != 0) {
+                directory.assign(bucket, 0);
+            }
+        }
+        for (int shard = 0; shard < directory.shardCount(); shard++) {
+            jdbc(shard).update("DELETE FROM users");
+        }
+    }
+
+    @Test
+    void rebalance_ShouldSpreadTheBucketsAndMoveTheirUsers() {
+        List<Long> ids = createUsers("moved", 100);
+        assertEquals(100L, countOn(0));
+
+        Map<String, Object> result = rebalancer.rebalance();
+
+        assertEquals(682, result.get("movedBuckets"));
+        assertEquals(List.of(342, 341, 341), List.of(directory.bucketCount(0), directory.bucketCount(1),
+            directory.bucketCount(2)));
+        assertEquals(341.0, meterRegistry.get("db.shard.buckets").tag("shard", "2").gauge().value());
+        assertEquals(100L, countOn(0) + countOn(1) + countOn(2));
+        for (Long id : ids) {
+            assertEquals(1L, jdbc(directory.shardOf(id))
+                .queryForObject("SELECT COUNT(*) FROM users WHERE id = ?", Long.class, id));
+            assertEquals("moved" + ids.indexOf(id), userService.getUserById(id).getUsername());
+        }
+    }
+
+    @Test
+    void move_ShouldCatchUpOnWritesMadeWhileTheBucketWasCopied() {
+        int bucket = 7;
+        List<Long> inBucket = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            inBucket.add(insertUser(bucket + (long) i * ShardDirectory.BUCKETS));
+        }
+
+        rebalancer.copy(bucket, 0, 1);
+        // Writes still go to shard 0 until the switch-over
+        userService.updateUser(inBucket.get(0), user("renamed"));
+        userService.deleteUser(inBucket.get(1));
+        long added = insertUser(bucket + 4L * ShardDirectory.BUCKETS);
+
+        assertEquals(3, rebalancer.switchOver(bucket, 0, 1));
+
+        assertEquals(1, directory.ownerOf(bucket));
+        List<Long> expected = new ArrayList<>(inBucket);
+        expected.remove(inBucket.get(1));
+        expected.add(added);
+        assertEquals(expected.stream().sorted().toList(),
+            jdbc(1).queryForList("SELECT id FROM users ORDER BY id", Long.class));
+        assertEquals("renamed", jdbc(1)
+            .queryForObject("SELECT username FROM users WHERE id = ?", String.class, inBucket.get(0)));
+        assertEquals(0L, jdbc(0).queryForObject("SELECT COUNT(*) FROM users WHERE MOD(id, ?) = ?", Long.class,
+            ShardDirectory.BUCKETS, bucket));
+    }
+
+    @Test
+    void createdUsers_ShouldLandOnTheShardOwningTheirBucket() {
+        rebalancer.rebalance();
+
+        List<Long> ids = createUsers("placed", 30);
+
+        // Ids come from every shard's range in turn
+        assertEquals(Set.of(0L, 1L, 2L), ids.stream().map(id -> id >> 40).collect(Collectors.toSet()));
+        for (Long id : ids) {
+            assertEquals(1L, jdbc(directory.shardOf(id))
+                .queryForObject("SELECT COUNT(*) FROM users WHERE id = ?", Long.class, id));
+        }
+        assertEquals(30L, countOn(0) + countOn(1) + countOn(2));
+
+        Long id = ids.get(1);
+        UserDto update = user("renamed");
+        assertEquals("renamed", userService.updateUser(id, update).getUsername());
+        assertEquals("renamed", jdbc(directory.shardOf(id))
+            .queryForObject("SELECT username FROM users WHERE id = ?", String.class, id));
+    }
+
+    @Test
+    void bulkCreate_ShouldWriteEachChunkToEveryShardItSpansInOneRequest() throws Exception {
+        rebalancer.rebalance();
+        List<UserDto> users = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            users.add(user("batch" + i));
+        }
+
+        // The request's open session must not carry the first shard's connection into the others
+        mockMvc.perform(post("/api/users/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(users)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.created").value(12));
+
+        List<Long> ids = jdbc(0).queryForList("SELECT id FROM users", Long.class);
+        ids.addAll(jdbc(1).queryForList("SELECT id FROM users", Long.class));
+        ids.addAll(jdbc(2).queryForList("SELECT id FROM users", Long.class));
+        assertEquals(12, ids.size());
+        for (Long id : ids) {
+            assertEquals(1L, jdbc(directory.shardOf(id))
+                .queryForObject("SELECT COUNT(*) FROM users WHERE id = ?", Long.class, id));
+        }
+        assertTrue(countOn(0) > 0 && countOn(1) > 0 && countOn(2) > 0);
+    }
+
+    @Test
+    void bulkCreate_WhenAShardsBatchFails_ShouldStillCreateTheOtherUsersOnIt() throws Exception {
+        rebalancer.rebalance();
+        List<UserDto> users = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            users.add(user("retried" + i));
+        }
+        users.get(4).setUsername("x".repeat(300));
+
+        // The failing user's shard retries its users one by one
+        mockMvc.perform(post("/api/users/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(users)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.created").value(11))
+            .andExpect(jsonPath("$.failed").value(1))
+            .andExpect(jsonPath("$.results[4].error").value("a value is longer than 255 characters"));
+
+        assertEquals(11L, countOn(0) + countOn(1) + countOn(2));
+    }
+
+    @Test
+    void listsAndExports_ShouldMergeEveryShardInIdOrder() {
+        rebalancer.rebalance();
+        List<Long> ids = createUsers("listed", 25).stream().sorted().toList();
+
+        List<Long> paged = new ArrayList<>();
+        String cursor = null;
+        do {
+            UserPageDto page = userService.getUsersPage(cursor, 10);
+            page.getItems().forEach(user -> paged.add(user.getId()));
+            assertEquals(25L, page.getApproximateTotal());
+            cursor = page.getNext();
+        } while (cursor != null);
+        assertEquals(ids, paged);
+
+        assertEquals(ids, userService.getAllUsers().stream().map(UserDto::getId).toList());
+        List<Long> exported = new ArrayList<>();
+        userService.exportUsers(user -> exported.add(user.getId()));
+        assertEquals(ids, exported);
+    }
+
+    @Test
+    void search_ShouldRankHitsFromEveryShardTogether() {
+        rebalancer.rebalance();
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 9; i++) {
+            UserDto user = user("member" + i);
+            // Name prefix hits rank above the three that only mention the term in their email
+            if (i % 3 == 0) {
+                user.setName("Someone " + i);
+                user.setUsername("someone" + i);
+                user.setEmail("zeta" + i + "@example.com");
+            } else {
+                user.setName("Zeta " + i);
+            }
+            ids.add(userService.createUser(user).getId());
+        }
+        assertTrue(ids.stream().map(directory::shardOf).distinct().count() > 1);
+
+        List<Long> found = new ArrayList<>();
+        String cursor = null;
+        do {
+            UserSearchPageDto page = userService.searchUsers("zeta", cursor, 4);
+            page.getItems().forEach(user -> found.add(user.getId()));
+            cursor = page.getNext();
+        } while (cursor != null);
+
+        List<Long> byName = new ArrayList<>();
+        List<Long> byEmail = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            (i % 3 == 0 ? byEmail : byName).add(ids.get(i));
+        }
+        List<Long> expected = new ArrayList<>(byName.stream().sorted().toList());
+        expected.addAll(byEmail.stream().sorted().toList());
+        assertEquals(expected, found);
+    }
+
+    @Test
+    void bulkDeletes_ShouldReachEveryShard() {
+        rebalancer.rebalance();
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            UserDto user = user("bulk" + i);
+            AddressDto address = new AddressDto();
+            address.setCity(i % 2 == 0 ? "Gwenborough" : "Wisokyburgh");
+            user.setAddress(address);
+            ids.add(userService.createUser(user).getId());
+        }
+
+        BulkChangeResponse byFilter = userService.deleteUsers(
+            new BulkDeleteRequest(null, new UserFilterDto("Gwenborough", null, null)));
+        assertEquals(6, byFilter.getAffected());
+
+        List<Long> remaining = List.of(ids.get(1), ids.get(3), ids.get(5), ids.get(7), ids.get(9), ids.get(11));
+        List<Long> request = new ArrayList<>(remaining);
+        request.add(ids.get(0));
+        BulkChangeResponse byIds = userService.deleteUsers(new BulkDeleteRequest(request, null));
+        assertEquals(6, byIds.getAffected());
+        assertEquals(List.of(ids.get(0)), byIds.getNotFound());
+        assertEquals(0L, countOn(0) + countOn(1) + countOn(2));
+    }
+
+    @Test
+    void nextId_ShouldRefuseASequenceOutsideItsShardsRange() {
+        jdbc(1).execute("ALTER SEQUENCE users_id_seq RESTART WITH 1");
+        try {
+            IllegalStateException ex = assertThrows(IllegalStateException.class, () -> {
+                // Enough ids that shard 1 has to draw a new block
+                for (int i = 0; i < 3 * (ShardDirectory.ID_BLOCK_SIZE + 1); i++) {
+                    directory.nextId();
+                }
+            });
+            assertTrue(ex.getMessage().startsWith("Shard 1's users_id_seq is below its id range"));
+        } finally {
+            directory.provisionShards();
+        }
+        // Provisioning again leaves a sequence in range alone
+        long next = jdbc(1).queryForObject("SELECT NEXT VALUE FOR users_id_seq", Long.class);
+        directory.provisionShards();
+        assertTrue(jdbc(1).queryForObject("SELECT NEXT VALUE FOR users_id_seq", Long.class) > next);
+    }
+
+    private List<Long> createUsers(String prefix, int count) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ids.add(userService.createUser(user(prefix + i)).getId());
+        }
+        return ids;
+    }
+
+    private long insertUser(long id) {
+        jdbc(0).update("INSERT INTO users (id, user_name, username, email, version, updated_at) "
+            + "VALUES (?, 'Raw', 'raw', 'raw@example.com', 0, CURRENT_TIMESTAMP)", id);
+        return id;
+    }
+
+    private long countOn(int shard) {
+        return jdbc(shard).queryForObject("SELECT COUNT(*) FROM users", Long.class);
+    }
+
+    private JdbcTemplate jdbc(int shard) {
+        return new JdbcTemplate(directory.shard(shard));
+    }
+
+    private void copySchemaFromShard0() throws SQLException {
+        List<String> script = new ArrayList<>();
+        try (Connection first = directory.shard(0).getConnection();
+             Statement statement = first.createStatement();
+             ResultSet rows = statement.executeQuery("SCRIPT NODATA")) {
+            while (rows.next()) {
+                script.add(rows.getString(1));
+            }
+        }
+        for (int shard = 1; shard < directory.shardCount(); shard++) {
+            try (Connection target = directory.shard(shard).getConnection();
+                 Statement statement = target.createStatement()) {
+                for (String sql : script) {
+                    if (!sql.startsWith("CREATE USER")) {
+                        statement.execute(sql);
+                    }
+                }
+            }
+        }
+    }
+
+    private static UserDto user(String username) {
+        UserDto user = new UserDto();
+        user.setName("User " + username);
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        return user;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.backend.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class VirtualThreadPinningMonitorTest {
+
+    private final Object lock = new Object();
+
+    @Test
+    void pinning_ShouldReportTheSiteThatBlockedWhileHoldingAMonitor() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        VirtualThreadPinningMonitor monitor = new VirtualThreadPinningMonitor(meterRegistry, Duration.ofMillis(5));
+        monitor.afterPropertiesSet();
+        try {
+            long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+            while (sites(monitor).isEmpty() && System.nanoTime() < deadline) {
+                Thread.ofVirtual().start(this::sleepWhileHoldingLock).join();
+                Thread.sleep(200);
+            }
+
+            List<Map<String, Object>> sites = sites(monitor);
+            assertEquals(1, sites.size());
+            assertTrue(((String) sites.get(0).get("site")).startsWith(
+                VirtualThreadPinningMonitorTest.class.getName() + ".sleepWhileHoldingLock:"));
+            assertTrue(meterRegistry.get("jvm.threads.virtual.pinned").tag("library", "com.example").timer().count() > 0);
+        } finally {
+            monitor.destroy();
+        }
+    }
+
+    private void sleepWhileHoldingLock() {
+        synchronized (lock) {
+            try {
+                Thread.sleep(30);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> sites(VirtualThreadPinningMonitor monitor) {
+        return (List<Map<String, Object>>) monitor.pinning().get("sites");
+    }
+}
@@ -1,13 +1,16 @@
 package com.example.backend.controller;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.example.backend.config.TestSecurityConfig;
 import com.example.backend.dto.AuthResponse;
+import com.example.backend.dto.ChangePasswordRequest;
 import com.example.backend.dto.LoginRequest;
 import com.example.backend.dto.RegisterRequest;
 import com.example.backend.service.AuthService;
@@ -87,4 +90,19 @@ class AuthControllerTest {
             .andExpect(jsonPath("$.name").value("John Doe"));
     }
 
+    @Test
+    void changePassword_ShouldReturnNoContent() throws Exception {
+        ChangePasswordRequest request = new ChangePasswordRequest();
+        request.setEmail("john@example.com");
+        request.setCurrentPassword("password123");
+        request.setNewPassword("password456");
+
+        mockMvc.perform(put("/api/auth/password")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isNoContent());
+
+        verify(authService).changePassword(any(ChangePasswordRequest.class));
+    }
+
 } 
\ No newline at end of file
@@ -0,0 +1,216 @@
+package com.example.backend.controller;
+
+import static com.example.backend.config.QueryBudgets.statementsAtMost;
+import static com.example.backend.config.QueryBudgets.withinBudget;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.example.backend.config.QueryBudgetGuard;
+import com.example.backend.config.TestSecurityConfig;
+import com.example.backend.dto.AddressDto;
+import com.example.backend.dto.ChangePasswordRequest;
+import com.example.backend.dto.CompanyDto;
+import com.example.backend.dto.GeoDto;
+import com.example.backend.dto.LoginRequest;
+import com.example.backend.dto.RegisterRequest;
+import com.example.backend.dto.UserDto;
+import com.example.backend.repository.AuthUserRepository;
+import com.example.backend.repository.UserRepository;
+import com.example.backend.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+/**
+ * Holds the main endpoints to the statement budgets in {@code db.query-budget}.
+ * A failure here means a change made an endpoint do more database round trips;
+ * raise its budget only if that is intended.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(TestSecurityConfig.class)
+@ActiveProfiles("test")
+class QueryBudgetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private QueryBudgetGuard queryBudgetGuard;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private AuthUserRepository authUserRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private UserDto existing;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        authUserRepository.deleteAll();
+        existing = userService.createUser(user("existing"));
+    }
+
+    @Test
+    void registerAndLogin_ShouldStayWithinBudget() throws Exception {
+        RegisterRequest register = new RegisterRequest();
+        register.setName("Budget");
+        register.setUsername("budget");
+        register.setEmail("budget@example.com");
+        register.setPassword("password123");
+        mockMvc.perform(post("/api/auth/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(register)))
+            .andExpect(status().isOk())
+            .andExpect(withinBudget(queryBudgetGuard));
+
+        mockMvc.perform(login("password123"))
+            .andExpect(status().isOk())
+            .andExpect(withinBudget(queryBudgetGuard));
+
+        // The account is in the second-level cache now
+        mockMvc.perform(login("password123"))
+            .andExpect(status().isOk())
+            .andExpect(statementsAtMost(0));
+    }
+
+    @Test
+    void changePassword_ShouldStayWithinBudgetAndEvictTheCachedAccount() throws Exception {
+        RegisterRequest register = new RegisterRequest();
+        register.setName("Budget");
+        register.setEmail("budget@example.com");
+        register.setPassword("password123");
+        mockMvc.perform(post("/api/auth/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(register)))
+            .andExpect(status().isOk());
+        mockMvc.perform(login("password123")).andExpect(status().isOk());
+
+        ChangePasswordRequest change = new ChangePasswordRequest();
+        change.setEmail("budget@example.com");
+        change.setCurrentPassword("password123");
+        change.setNewPassword("password456");
+        mockMvc.perform(put("/api/auth/password")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(change)))
+            .andExpect(status().isNoContent())
+            .andExpect(withinBudget(queryBudgetGuard));
+
+        // The old hash is gone from the cache: the account is read again and only the new password works
+        mockMvc.perform(login("password456"))
+            .andExpect(status().isOk())
+            .andExpect(statementsAtMost(1));
+        mockMvc.perform(login("password123"))
+            .andExpect(status().is4xxClientError());
+    }
+
+    @Test
+    void reads_ShouldStayWithinBudget() throws Exception {
+        String etag = mockMvc.perform(get("/api/users/" + existing.getId()))
+            .andExpect(status().isOk())
+            .andExpect(withinBudget(queryBudgetGuard))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Revalidation only reads the version
+        mockMvc.perform(get("/api/users/" + existing.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified())
+            .andExpect(statementsAtMost(1));
+
+        mockMvc.perform(get("/api/users/page").param("limit", "10"))
+            .andExpect(status().isOk())
+            .andExpect(withinBudget(queryBudgetGuard));
+    }
+
+    @Test
+    void writes_ShouldStayWithinBudget() throws Exception {
+        mockMvc.perform(post("/api/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(user("created"))))
+            .andExpect(status().isOk())
+            .andExpect(withinBudget(queryBudgetGuard));
+
+        String etag = mockMvc.perform(put("/api/users/" + existing.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(user("replaced"))))
+            .andExpect(status().isOk())
+            .andExpect(withinBudget(queryBudgetGuard))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(patch("/api/users/" + existing.getId())
+                .header(HttpHeaders.IF_MATCH, etag)
+                .contentType(UserController.MERGE_PATCH_JSON_VALUE)
+                .content("{\"phone\":\"555-0199\"}"))
+            .andExpect(status().isOk())
+            .andExpect(withinBudget(queryBudgetGuard));
+
+        mockMvc.perform(delete("/api/users/" + existing.getId()))
+            .andExpect(status().isNoContent())
+            .andExpect(withinBudget(queryBudgetGuard));
+    }
+
+    @Test
+    void bulkCreate_ShouldNotRunOneInsertPerUser() throws Exception {
+        List<UserDto> users = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            users.add(user("bulk" + i));
+        }
+        mockMvc.perform(post("/api/users/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(users)))
+            .andExpect(status().isOk())
+            .andExpect(withinBudget(queryBudgetGuard));
+    }
+
+    private MockHttpServletRequestBuilder login(String password) throws Exception {
+        LoginRequest login = new LoginRequest();
+        login.setEmail("budget@example.com");
+        login.setPassword(password);
+        return post("/api/auth/login")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(login));
+    }
+
+    private static UserDto user(String handle) {
+        GeoDto geo = new GeoDto();
+        geo.setLat("40.7128");
+        geo.setLng("-74.0060");
+        AddressDto address = new AddressDto();
+        address.setStreet("1 Main St");
+        address.setSuite("Apt 1");
+        address.setCity("New York");
+        address.setZipcode("10001");
+        address.setGeo(geo);
+        CompanyDto company = new CompanyDto();
+        company.setName("Acme");
+        company.setCatchPhrase("Everything");
+        company.setBs("things");
+
+        UserDto dto = new UserDto();
+        dto.setName("User " + handle);
+        dto.setUsername(handle);
+        dto.setEmail(handle + "@example.com");
+        dto.setPhone("555-0100");
+        dto.setWebsite(handle + ".example.com");
+        dto.setAddress(address);
+        dto.setCompany(company);
+        return dto;
+    }
+}
@@ -1,9 +1,16 @@
 package com.example.backend.controller;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.example.backend.config.TestSecurityConfig;
@@ -13,7 +20,13 @@ import com.example.backend.domain.Geo;
 import com.example.backend.domain.User;
 import com.example.backend.dto.UserDto;
 import com.example.backend.repository.UserRepository;
+import com.example.backend.service.UserChangeFeed;
+import com.example.backend.service.UserChangedEvent;
+import com.example.backend.service.UserTypeaheadIndex;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -23,6 +36,7 @@ import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.result.MockMvcResultHandlers;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -38,6 +52,10 @@ class UserControllerTest {
     private UserRepository userRepository;
     @Autowired
     private ObjectMapper objectMapper;
+    @Autowired
+    private UserTypeaheadIndex typeaheadIndex;
+    @Autowired
+    private UserChangeFeed userChangeFeed;
 
     private User testUser;
     private UserDto testUserDto;
@@ -63,8 +81,8 @@ class UserControllerTest {
         address.setZipcode("10001");
 
         Geo geo = new Geo();
-        geo.setLat("40.7128");
-        geo.setLng("-74.0060");
+        geo.setLat(40.7128);
+        geo.setLng(-74.0060);
         address.setGeo(geo);
         testUser.setAddress(address);
 
@@ -128,6 +146,25 @@ class UserControllerTest {
             .andExpect(jsonPath("$.website").value(newUserDto.getWebsite()));
     }
 
+    @Test
+    void createUserBatched_ShouldAnswerOnceTheUserIsCommitted() throws Exception {
+        UserDto newUserDto = new UserDto();
+        newUserDto.setName("Batched User");
+        newUserDto.setUsername("batcheduser");
+        newUserDto.setEmail("batched@example.com");
+
+        MvcResult result = mockMvc.perform(post("/api/users/batched")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(newUserDto)))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.id").isNumber())
+            .andExpect(jsonPath("$.username").value("batcheduser"));
+    }
+
     @Test
     void updateUser_WhenUserExists_ShouldReturnUpdatedUser() throws Exception {
         UserDto updatedUserDto = new UserDto();
@@ -146,4 +183,232 @@ class UserControllerTest {
             .andExpect(jsonPath("$.name").value(updatedUserDto.getName()))
             .andExpect(jsonPath("$.email").value(updatedUserDto.getEmail()));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getUserById_WithMatchingIfNoneMatch_ShouldReturnNotModified() throws Exception {
+        MvcResult first = mockMvc.perform(get("/api/users/" + testUserId))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", "\"0\""))
+            .andExpect(header().exists("Last-Modified"))
+            .andReturn();
+
+        mockMvc.perform(get("/api/users/" + testUserId)
+                            .header("If-None-Match", first.getResponse().getHeader("ETag")))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string("ETag", "\"0\""))
+            .andExpect(content().string(""));
+
+        mockMvc.perform(get("/api/users/" + testUserId).header("If-None-Match", "\"7\""))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.id").value(testUserId));
+    }
+
+    @Test
+    void getAllUsers_WithMatchingIfNoneMatch_ShouldReturnNotModified() throws Exception {
+        String etag = mockMvc.perform(get("/api/users"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/users").header("If-None-Match", etag))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+
+        mockMvc.perform(post("/api/users")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"name\":\"Jane Roe\",\"username\":\"janeroe\",\"email\":\"jane@example.com\"}"))
+            .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/users").header("If-None-Match", etag))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(2));
+    }
+
+    @Test
+    void updateUser_WithIfMatch_ShouldRejectStaleVersion() throws Exception {
+        testUserDto.setName("Renamed Once");
+        mockMvc.perform(put("/api/users/" + testUserId)
+                            .header("If-Match", "\"0\"")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(testUserDto)))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", "\"1\""))
+            .andExpect(jsonPath("$.name").value("Renamed Once"));
+
+        testUserDto.setName("Renamed Twice");
+        mockMvc.perform(put("/api/users/" + testUserId)
+                            .header("If-Match", "\"0\"")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(testUserDto)))
+            .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(get("/api/users/" + testUserId))
+            .andExpect(jsonPath("$.name").value("Renamed Once"));
+    }
+
+    @Test
+    void patchUser_WithMergePatch_ShouldUpdateOnlyGivenFields() throws Exception {
+        mockMvc.perform(patch("/api/users/" + testUserId)
+                            .header("If-Match", "\"0\"")
+                            .contentType("application/merge-patch+json")
+                            .content("{\"phone\":\"555-0100\",\"address\":{\"geo\":null}}"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", "\"1\""))
+            .andExpect(jsonPath("$.phone").value("555-0100"))
+            .andExpect(jsonPath("$.name").value(testUserDto.getName()))
+            .andExpect(jsonPath("$.address.city").value("New York"))
+            .andExpect(jsonPath("$.address.geo").doesNotExist());
+    }
+
+    @Test
+    void bulkDelete_ShouldReturnAffectedCountAndMissingIds() throws Exception {
+        mockMvc.perform(post("/api/users/bulk/delete")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"ids\":[" + testUserId + ",424242]}"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.affected").value(1))
+            .andExpect(jsonPath("$.notFound[0]").value(424242));
+
+        mockMvc.perform(get("/api/users/" + testUserId))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getUsersPage_ShouldReturnPageWithCursor() throws Exception {
+        mockMvc.perform(get("/api/users/page").param("limit", "1"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.items[0].id").value(testUserId))
+            .andExpect(jsonPath("$.items[0].name").value(testUserDto.getName()))
+            .andExpect(jsonPath("$.next").doesNotExist())
+            .andExpect(jsonPath("$.approximateTotal").value(1));
+    }
+
+    @Test
+    void getUsersPage_WithInvalidCursor_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/users/page").param("cursor", "%%%"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void exportUsers_ShouldStreamOneJsonObjectPerLine() throws Exception {
+        User anotherUser = new User();
+        anotherUser.setName("Jane Doe");
+        anotherUser.setUsername("janedoe");
+        anotherUser.setEmail("jane@example.com");
+        userRepository.save(anotherUser);
+
+        MvcResult result = mockMvc.perform(get("/api/users/export"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+            .andReturn();
+
+        String[] lines = result.getResponse().getContentAsString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(testUserDto.getEmail(), objectMapper.readValue(lines[0], UserDto.class).getEmail());
+        assertEquals("jane@example.com", objectMapper.readValue(lines[1], UserDto.class).getEmail());
+    }
+
+    @Test
+    void createUsers_WithJsonArray_ShouldReturnPerItemResults() throws Exception {
+        UserDto newUserDto = new UserDto();
+        newUserDto.setName("Bulk User");
+        newUserDto.setUsername("bulkuser");
+        newUserDto.setEmail("bulk@example.com");
+
+        mockMvc.perform(post("/api/users/bulk")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(List.of(newUserDto, new UserDto()))))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.created").value(1))
+            .andExpect(jsonPath("$.failed").value(1))
+            .andExpect(jsonPath("$.results[0].status").value("CREATED"))
+            .andExpect(jsonPath("$.results[0].id").isNumber())
+            .andExpect(jsonPath("$.results[1].status").value("FAILED"));
+    }
+
+    @Test
+    void createUsers_WithNdjsonStream_ShouldCreateEveryLine() throws Exception {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 3; i++) {
+            UserDto newUserDto = new UserDto();
+            newUserDto.setName("Streamed User " + i);
+            newUserDto.setUsername("streamed" + i);
+            newUserDto.setEmail("streamed" + i + "@example.com");
+            body.append(objectMapper.writeValueAsString(newUserDto)).append('\n');
+        }
+
+        mockMvc.perform(post("/api/users/bulk")
+                            .contentType(MediaType.APPLICATION_NDJSON)
+                            .content(body.toString()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.created").value(3))
+            .andExpect(jsonPath("$.failed").value(0));
+    }
+
+    @Test
+    void searchUsers_ShouldReturnMatchingUsers() throws Exception {
+        userRepository.flush();
+
+        mockMvc.perform(get("/api/users/search").param("q", "doe"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.items[0].id").value(testUserId))
+            .andExpect(jsonPath("$.items.length()").value(1));
+    }
+
+    @Test
+    void typeahead_ShouldReturnIndexedSuggestions() throws Exception {
+        // The index follows committed writes only, and this test's transaction rolls back
+        typeaheadIndex.put(testUserId, testUser.getName(), testUser.getUsername(), testUser.getEmail());
+        try {
+            mockMvc.perform(get("/api/users/typeahead").param("q", "john d"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(testUserId))
+                .andExpect(jsonPath("$[0].email").value("john@example.com"));
+        } finally {
+            typeaheadIndex.remove(testUserId);
+        }
+    }
+
+    @Test
+    void findNearby_ShouldReturnUsersWithDistance() throws Exception {
+        String located = "{\"name\":\"Located\",\"username\":\"located\",\"email\":\"located@example.com\","
+            + "\"address\":{\"geo\":{\"lat\":\"40.6782\",\"lng\":\"-73.9440\"}}}";
+        MvcResult created = mockMvc.perform(post("/api/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(located))
+            .andExpect(status().isOk())
+            .andReturn();
+        Long locatedId = objectMapper.readValue(created.getResponse().getContentAsString(), UserDto.class).getId();
+
+        mockMvc.perform(get("/api/users/nearby")
+                .param("lat", "40.68")
+                .param("lng", "-73.95")
+                .param("limit", "1"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].user.id").value(locatedId))
+            .andExpect(jsonPath("$[0].user.address.geo.lng").value("-73.944"))
+            .andExpect(jsonPath("$[0].distanceKm").isNumber());
+
+        mockMvc.perform(get("/api/users/nearby").param("lat", "48.85").param("lng", "2.35").param("radiusKm", "10"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    void changes_ShouldStreamPublishedChanges() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/users/changes"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        userChangeFeed.publish(new UserChangedEvent(UserChangedEvent.Type.DELETED, testUserId, null));
+
+        String data = "\"type\":\"DELETED\",\"id\":" + testUserId;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!result.getResponse().getContentAsString().contains(data) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        String stream = result.getResponse().getContentAsString();
+        assertTrue(stream.contains("event:deleted"), stream);
+        assertTrue(stream.contains(data), stream);
+        assertEquals(MediaType.TEXT_EVENT_STREAM_VALUE, result.getResponse().getContentType());
+    }
+}
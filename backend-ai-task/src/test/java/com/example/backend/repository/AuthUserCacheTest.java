@@ -0,0 +1,92 @@
+package com.example.backend.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.backend.config.TestSecurityConfig;
+import com.example.backend.domain.AuthUser;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest
+@Import(TestSecurityConfig.class)
+@ActiveProfiles("test")
+class AuthUserCacheTest {
+
+    @Autowired
+    private AuthUserRepository authUserRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Statistics statistics;
+    private AuthUser account;
+
+    @BeforeEach
+    void setUp() {
+        authUserRepository.deleteAll();
+        AuthUser authUser = new AuthUser();
+        authUser.setName("Cached");
+        authUser.setEmail("cached@example.com");
+        authUser.setPasswordHash("hash");
+        account = authUserRepository.save(authUser);
+
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        sessionFactory.getCache().evictAllRegions();
+        statistics = sessionFactory.getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void findByEmail_ShouldBeServedFromTheCacheOnceLoaded() {
+        assertEquals(account.getId(), findByEmail().getId());
+        long statements = statistics.getPrepareStatementCount();
+        assertEquals(1, statements);
+
+        assertEquals(account.getId(), findByEmail().getId());
+        assertEquals(statements, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getNaturalIdCacheHitCount());
+        assertEquals(1, statistics.getDomainDataRegionStatistics(AuthUser.CACHE_REGION).getHitCount());
+    }
+
+    @Test
+    void evictFromCache_ShouldDropTheAccountAndItsEmail() {
+        findByEmail();
+        authUserRepository.evictFromCache(account.getEmail(), account.getId());
+
+        assertTrue(!entityManagerFactory.getCache().contains(AuthUser.class, account.getId()));
+        statistics.clear();
+        findByEmail();
+        assertEquals(1, statistics.getNaturalIdCacheMissCount());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void hitRatio_ShouldBePublishedPerRegion() {
+        findByEmail();
+        findByEmail();
+
+        double entityHitRatio = meterRegistry.get("hibernate.cache.region.hit.ratio")
+            .tag("region", AuthUser.CACHE_REGION).gauge().value();
+        double naturalIdHitRatio = meterRegistry.get("hibernate.cache.region.hit.ratio")
+            .tag("region", AuthUser.NATURAL_ID_CACHE_REGION).gauge().value();
+        assertEquals(0.5, naturalIdHitRatio);
+        assertTrue(entityHitRatio > 0);
+    }
+
+    private AuthUser findByEmail() {
+        return transactionTemplate.execute(status -> authUserRepository.findByEmail(account.getEmail()).orElseThrow());
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.backend.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.backend.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+class BoundedPasswordEncoderTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void encodeAndMatches_ShouldDelegateAndRecordHashTime() {
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(
+            new BCryptPasswordEncoder(4), 1, 1, Duration.ofSeconds(5), meterRegistry);
+        try {
+            String hash = encoder.encode("password123");
+
+            assertTrue(encoder.matches("password123", hash));
+            assertFalse(encoder.matches("wrong", hash));
+            assertEquals(1, meterRegistry.get("auth.password.hash").tag("operation", "encode").timer().count());
+            assertEquals(2, meterRegistry.get("auth.password.hash").tag("operation", "matches").timer().count());
+        } finally {
+            encoder.destroy();
+        }
+    }
+
+    @Test
+    void encode_WhenPoolAndQueueAreFull_ShouldFailFast() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        PasswordEncoder blocking = new BCryptPasswordEncoder(4) {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.encode(rawPassword);
+            }
+        };
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(
+            blocking, 1, 1, Duration.ofSeconds(5), meterRegistry);
+        try {
+            CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("a"));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("b"));
+            while (meterRegistry.get("auth.password.queue.depth").gauge().value() < 1) {
+                Thread.onSpinWait();
+            }
+
+            assertThrows(ServiceUnavailableException.class, () -> encoder.encode("c"));
+            assertEquals(1, meterRegistry.get("auth.password.rejected").counter().count());
+
+            release.countDown();
+            assertTrue(running.get(5, TimeUnit.SECONDS).startsWith("$2a$04$"));
+            assertTrue(queued.get(5, TimeUnit.SECONDS).startsWith("$2a$04$"));
+        } finally {
+            release.countDown();
+            encoder.destroy();
+        }
+    }
+
+    @Test
+    void encode_WhenTheWaitTimesOut_ShouldDropQueuedWorkAndCountRunningWorkAsAbandoned() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicInteger hashed = new AtomicInteger();
+        PasswordEncoder blocking = new BCryptPasswordEncoder(4) {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                hashed.incrementAndGet();
+                return super.encode(rawPassword);
+            }
+        };
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(
+            blocking, 1, 1, Duration.ofMillis(200), meterRegistry);
+        try {
+            CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("a"));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            // Queued behind the running hash until it times out, then taken off the queue
+            assertThrows(ServiceUnavailableException.class, () -> encoder.encode("b"));
+            assertEquals(0, meterRegistry.get("auth.password.queue.depth").gauge().value());
+
+            ExecutionException ex = assertThrows(ExecutionException.class, () -> running.get(5, TimeUnit.SECONDS));
+            assertTrue(ex.getCause() instanceof ServiceUnavailableException);
+            assertEquals(1, meterRegistry.get("auth.password.abandoned").counter().count());
+            assertEquals(1, meterRegistry.get("auth.password.abandoned.active").gauge().value());
+            assertEquals(2, meterRegistry.get("auth.password.rejected").counter().count());
+
+            // The abandoned hash still finishes and frees its thread; the dropped one never ran
+            release.countDown();
+            assertTrue(encoder.encode("c").startsWith("$2a$04$"));
+            assertEquals(0, meterRegistry.get("auth.password.abandoned.active").gauge().value());
+            assertEquals(2, hashed.get());
+        } finally {
+            release.countDown();
+            encoder.destroy();
+        }
+    }
+
+    @Test
+    void calibrateStrength_ShouldStayWithinBounds() {
+        assertEquals(4, BoundedPasswordEncoder.calibrateStrength(Duration.ZERO, 4, 8));
+        assertEquals(5, BoundedPasswordEncoder.calibrateStrength(Duration.ofMinutes(1), 4, 5));
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.backend.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.backend.config.TestSecurityConfig;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@SpringBootTest
+@Import(TestSecurityConfig.class)
+@ActiveProfiles("test")
+class JwtAuthenticationFilterTest {
+
+    @Autowired
+    private JwtAuthenticationFilter jwtAuthenticationFilter;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    @MockBean
+    private UserDetailsService userDetailsService;
+
+    private final UserDetails userDetails = new User(
+        "john@example.com", "hash", List.of(new SimpleGrantedAuthority("ROLE_USER")));
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        ReflectionTestUtils.setField(jwtAuthenticationFilter, "userLookupEnabled", false);
+        userDetailsCache.evict(userDetails.getUsername());
+    }
+
+    @Test
+    void doFilter_WithSignedRoles_ShouldAuthenticateWithoutLookup() throws Exception {
+        Authentication authentication = filter(jwtTokenProvider.generateToken(userDetails));
+
+        assertNotNull(authentication);
+        assertEquals("john@example.com", authentication.getName());
+        assertEquals(List.of(new SimpleGrantedAuthority("ROLE_USER")), List.copyOf(authentication.getAuthorities()));
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
+    }
+
+    @Test
+    void doFilter_WithUserLookupEnabled_ShouldLoadUserOnceThroughCache() throws Exception {
+        ReflectionTestUtils.setField(jwtAuthenticationFilter, "userLookupEnabled", true);
+        when(userDetailsService.loadUserByUsername("john@example.com")).thenReturn(userDetails);
+        String token = jwtTokenProvider.generateToken(userDetails);
+
+        assertNotNull(filter(token));
+        SecurityContextHolder.clearContext();
+        assertNotNull(filter(token));
+
+        verify(userDetailsService, times(1)).loadUserByUsername("john@example.com");
+    }
+
+    @Test
+    void doFilter_WithTamperedToken_ShouldNotAuthenticate() throws Exception {
+        String token = jwtTokenProvider.generateToken(userDetails);
+
+        assertNull(filter(token.substring(0, token.length() - 2) + "xx"));
+    }
+
+    private Authentication filter(String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + token);
+        jwtAuthenticationFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.backend.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+class JwtTokenProviderTest {
+
+    private static final String SECRET = "testSecretKey1234567890123456789012345678901234567890";
+
+    private final JwtTokenProvider tokenProvider = new JwtTokenProvider(SECRET, 86400000L);
+
+    private final UserDetails userDetails = new User(
+        "john@example.com", "hash", List.of(new SimpleGrantedAuthority("ROLE_USER")));
+
+    @Test
+    void parseToken_ShouldReturnAllClaimsFromOneParse() {
+        ValidatedToken token = tokenProvider.parseToken(tokenProvider.generateToken(userDetails));
+
+        assertEquals("john@example.com", token.username());
+        assertEquals(List.of("ROLE_USER"), token.roles());
+        assertEquals(86400000L, token.expiration().getTime() - token.issuedAt().getTime());
+        assertTrue(tokenProvider.validateToken(tokenProvider.generateToken(userDetails), userDetails));
+    }
+
+    @Test
+    void parseToken_WithoutRolesClaim_ShouldReturnNullRoles() {
+        String legacyToken = Jwts.builder()
+            .subject("john@example.com")
+            .expiration(new Date(System.currentTimeMillis() + 60_000))
+            .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)), Jwts.SIG.HS256)
+            .compact();
+
+        assertNull(tokenProvider.parseToken(legacyToken).roles());
+    }
+
+    @Test
+    void parseToken_WithExpiredToken_ShouldThrowException() {
+        JwtTokenProvider expiredProvider = new JwtTokenProvider(SECRET, -60_000L);
+
+        assertThrows(ExpiredJwtException.class,
+            () -> tokenProvider.parseToken(expiredProvider.generateToken(userDetails)));
+    }
+
+    @Test
+    void parseToken_WithForeignKey_ShouldThrowException() {
+        JwtTokenProvider otherProvider = new JwtTokenProvider(SECRET.replace('1', '9'), 86400000L);
+
+        assertThrows(SignatureException.class,
+            () -> tokenProvider.parseToken(otherProvider.generateToken(userDetails)));
+    }
+}
@@ -5,6 +5,8 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.example.backend.config.TestSecurityConfig;
@@ -107,6 +109,9 @@ class AuthServiceTest {
         assertEquals(request.getName(), savedUser.getName());
         assertEquals(request.getEmail(), savedUser.getEmail());
         assertTrue(passwordEncoder.matches(request.getPassword(), savedUser.getPasswordHash()));
+
+        // The freshly hashed password is not run through BCrypt a second time
+        verify(authenticationManager, never()).authenticate(any());
     }
 
     @Test
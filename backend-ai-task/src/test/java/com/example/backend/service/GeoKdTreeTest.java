@@ -0,0 +1,74 @@
+package com.example.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.example.backend.repository.GeoHit;
+import com.example.backend.repository.GeoPoint;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class GeoKdTreeTest {
+
+    private final Random random = new Random(7);
+    private final List<GeoPoint> points = randomPoints(5000);
+    private final GeoKdTree tree = GeoKdTree.build(points);
+
+    @Test
+    void nearest_ShouldMatchBruteForce() {
+        for (int i = 0; i < 200; i++) {
+            double lat = random.nextDouble() * 180 - 90;
+            double lng = random.nextDouble() * 360 - 180;
+            assertEquals(ids(bruteForce(lat, lng, null, 10)), ids(tree.nearest(lat, lng, null, 10)));
+        }
+    }
+
+    @Test
+    void nearest_WithRadius_ShouldMatchBruteForceAcrossTheAntimeridian() {
+        assertEquals(ids(bruteForce(0, 179.9, 800_000d, 100)), ids(tree.nearest(0, 179.9, 800_000d, 100)));
+        assertEquals(ids(bruteForce(89.9, 0, 1_500_000d, 100)), ids(tree.nearest(89.9, 0, 1_500_000d, 100)));
+    }
+
+    @Test
+    void nearest_ShouldReportGreatCircleDistance() {
+        GeoKdTree pair = GeoKdTree.build(List.of(new GeoPoint(1L, 51.5074, -0.1278), new GeoPoint(2L, 48.8566, 2.3522)));
+
+        GeoHit paris = pair.nearest(51.5074, -0.1278, null, 2).get(1);
+
+        assertEquals(2L, paris.id());
+        assertEquals(344_000, paris.distanceMeters(), 2_000);
+    }
+
+    private List<GeoHit> bruteForce(double lat, double lng, Double radiusMeters, int limit) {
+        return points.stream()
+            .map(point -> new GeoHit(point.id(), haversine(lat, lng, point.lat(), point.lng())))
+            .filter(hit -> radiusMeters == null || hit.distanceMeters() <= radiusMeters)
+            .sorted(Comparator.comparingDouble(GeoHit::distanceMeters))
+            .limit(limit)
+            .toList();
+    }
+
+    private static double haversine(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.pow(Math.sin(dLat / 2), 2)
+            + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.pow(Math.sin(dLng / 2), 2);
+        return 2 * GeoKdTree.EARTH_RADIUS_METERS * Math.asin(Math.sqrt(a));
+    }
+
+    private List<GeoPoint> randomPoints(int count) {
+        List<GeoPoint> result = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            // Uniform on the sphere rather than on the lat/lng rectangle
+            double lat = Math.toDegrees(Math.asin(random.nextDouble() * 2 - 1));
+            result.add(new GeoPoint(id, lat, random.nextDouble() * 360 - 180));
+        }
+        return result;
+    }
+
+    private static List<Long> ids(List<GeoHit> hits) {
+        return hits.stream().map(GeoHit::id).toList();
+    }
+}
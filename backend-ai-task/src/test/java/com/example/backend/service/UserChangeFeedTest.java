@@ -0,0 +1,212 @@
+package com.example.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.backend.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+class UserChangeFeedTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService senders = Executors.newFixedThreadPool(2);
+
+    @AfterEach
+    void tearDown() {
+        senders.shutdownNow();
+    }
+
+    @Test
+    void publish_ShouldFanOutToEverySubscriberInOrder() throws Exception {
+        UserChangeFeed feed = feed(16, Runnable::run);
+        RecordingEmitter first = new RecordingEmitter();
+        RecordingEmitter second = new RecordingEmitter();
+        feed.subscribe(first, null);
+        feed.subscribe(second, null);
+
+        feed.publish(UserChangedEvent.deleted(1L));
+        feed.publish(UserChangedEvent.deleted(2L));
+
+        List<String> expected = List.of("deleted " + feed.eventId(0), "deleted " + feed.eventId(1));
+        assertEquals(expected, first.events());
+        assertEquals(expected, second.events());
+    }
+
+    @Test
+    void subscribe_ShouldResumeAfterLastEventId() throws Exception {
+        UserChangeFeed feed = feed(16, Runnable::run);
+        for (long id = 1; id <= 3; id++) {
+            feed.publish(UserChangedEvent.deleted(id));
+        }
+
+        RecordingEmitter resumed = new RecordingEmitter();
+        feed.subscribe(resumed, feed.eventId(0));
+
+        assertEquals(List.of("deleted " + feed.eventId(1), "deleted " + feed.eventId(2)), resumed.events());
+    }
+
+    @Test
+    void subscribe_ShouldResetWhenTheLastEventIdIsNoLongerBuffered() throws Exception {
+        UserChangeFeed feed = feed(2, Runnable::run);
+        for (long id = 1; id <= 5; id++) {
+            feed.publish(UserChangedEvent.deleted(id));
+        }
+
+        RecordingEmitter tooOld = new RecordingEmitter();
+        feed.subscribe(tooOld, feed.eventId(0));
+        RecordingEmitter otherProcess = new RecordingEmitter();
+        feed.subscribe(otherProcess, "previous-3");
+        feed.publish(UserChangedEvent.deleted(6L));
+
+        List<String> expected = List.of("reset " + feed.eventId(4), "deleted " + feed.eventId(5));
+        assertEquals(expected, tooOld.events());
+        assertEquals(expected, otherProcess.events());
+    }
+
+    @Test
+    void publish_ShouldNotWaitForASlowSubscriberAndDropItOnceOverrun() throws Exception {
+        UserChangeFeed feed = feed(8, senders);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(release);
+        RecordingEmitter fast = new RecordingEmitter();
+        feed.subscribe(slow, null);
+        feed.subscribe(fast, null);
+
+        for (int id = 1; id <= 100; id++) {
+            long start = System.nanoTime();
+            feed.publish(UserChangedEvent.deleted((long) id));
+            assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(100), "The writer waited for a subscriber");
+            // The fast subscriber keeps up; the slow one is stuck in its first write
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (fast.events().size() < id && System.nanoTime() < deadline) {
+                Thread.onSpinWait();
+            }
+        }
+
+        release.countDown();
+        assertTrue(slow.completed.await(5, TimeUnit.SECONDS), "The overrun subscriber was not closed");
+        assertEquals(1, meterRegistry.get("users.changes.dropped").counter().count());
+        assertEquals(1, meterRegistry.get("users.changes.subscribers").gauge().value());
+        assertEquals(100, fast.events().size());
+    }
+
+    @Test
+    void checkSends_ShouldDropAStalledSubscriberAndKeepServingTheOthers() throws Exception {
+        ThreadPoolExecutor oneSender = (ThreadPoolExecutor) Executors.newFixedThreadPool(1);
+        try {
+            UserChangeFeed feed = new UserChangeFeed(16, 2, Duration.ofMinutes(1), Duration.ofSeconds(1),
+                Duration.ofMillis(50), oneSender, meterRegistry);
+            CountDownLatch release = new CountDownLatch(1);
+            RecordingEmitter stalled = new RecordingEmitter(release);
+            RecordingEmitter other = new RecordingEmitter();
+            feed.subscribe(stalled, null);
+            feed.subscribe(other, null);
+            feed.publish(UserChangedEvent.deleted(1L));
+
+            // The only sender is stuck writing to the stalled subscriber
+            Thread.sleep(200);
+            assertTrue(other.events().isEmpty());
+
+            feed.checkSends();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (other.events().isEmpty() && System.nanoTime() < deadline) {
+                Thread.onSpinWait();
+            }
+            assertEquals(List.of("deleted " + feed.eventId(0)), other.events());
+            assertEquals(1, meterRegistry.get("users.changes.dropped").counter().count());
+            assertEquals(1, meterRegistry.get("users.changes.subscribers").gauge().value());
+
+            release.countDown();
+            assertTrue(stalled.completed.await(5, TimeUnit.SECONDS), "The stalled subscriber was not closed");
+            assertEquals(1, oneSender.getCorePoolSize());
+        } finally {
+            oneSender.shutdownNow();
+        }
+    }
+
+    @Test
+    void subscribe_ShouldRefuseSubscribersBeyondTheLimit() throws Exception {
+        UserChangeFeed feed = feed(16, Runnable::run);
+        feed.subscribe(new RecordingEmitter(), null);
+        feed.subscribe(new RecordingEmitter(), null);
+
+        assertThrows(ServiceUnavailableException.class, () -> feed.subscribe(new RecordingEmitter(), null));
+    }
+
+    private UserChangeFeed feed(int bufferSize, Executor executor) {
+        return new UserChangeFeed(bufferSize, 2, Duration.ofMinutes(1), Duration.ofSeconds(1), Duration.ofMinutes(1),
+            executor, meterRegistry);
+    }
+
+    /**
+     * Records the name and id of each event sent; comments are left out.
+     * With a latch, every send blocks until it is released, like a client that
+     * stopped reading.
+     */
+    private static final class RecordingEmitter extends SseEmitter {
+
+        private final List<String> events = new CopyOnWriteArrayList<>();
+        private final CountDownLatch release;
+        private final CountDownLatch completed = new CountDownLatch(1);
+
+        RecordingEmitter() {
+            this(new CountDownLatch(0));
+        }
+
+        RecordingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IOException(ex);
+            }
+            Set<ResponseBodyEmitter.DataWithMediaType> parts = builder.build();
+            String text = parts.stream()
+                .map(part -> part.getData() instanceof String string ? string : "")
+                .collect(Collectors.joining());
+            String name = field(text, "event:");
+            if (name != null) {
+                events.add(name + " " + field(text, "id:"));
+            }
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+        }
+
+        List<String> events() {
+            return events;
+        }
+
+        private static String field(String text, String prefix) {
+            return text.lines()
+                .filter(line -> line.startsWith(prefix))
+                .map(line -> line.substring(prefix.length()))
+                .findFirst()
+                .orElse(null);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import com.example.backend.dto.UserDto;
+import com.example.backend.exception.ServiceUnavailableException;
+import com.example.backend.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ObjIntConsumer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+class UserCreateBatcherTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final UserService userService = mock(UserService.class);
+    private final List<Integer> groupSizes = new CopyOnWriteArrayList<>();
+    private final AtomicLong ids = new AtomicLong();
+    private UserCreateBatcher batcher;
+
+    @AfterEach
+    void tearDown() {
+        if (batcher != null) {
+            batcher.stop();
+        }
+    }
+
+    @Test
+    void submit_ShouldCommitConcurrentCreatesTogether() throws Exception {
+        writeGroups(null);
+        batcher = batcher(1000, 50, Duration.ofMillis(50));
+
+        List<CompletableFuture<UserDto>> futures = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            futures.add(batcher.submit(user("user" + i)));
+        }
+
+        for (int i = 0; i < futures.size(); i++) {
+            UserDto created = futures.get(i).get(5, TimeUnit.SECONDS);
+            assertEquals("user" + i, created.getUsername());
+        }
+        assertEquals(120, groupSizes.stream().mapToInt(Integer::intValue).sum());
+        assertTrue(groupSizes.size() <= 4, () -> "Expected a few full groups but got " + groupSizes);
+        assertTrue(groupSizes.stream().allMatch(size -> size <= 50), () -> "Group over the limit: " + groupSizes);
+        assertEquals(groupSizes.size(), meterRegistry.get("users.create.batch.size").summary().count());
+        assertEquals(groupSizes.size(), meterRegistry.get("users.create.batch.latency").timer().count());
+    }
+
+    @Test
+    void submit_ShouldFailOnlyTheCreateThatCouldNotBeWritten() throws Exception {
+        writeGroups(null);
+        batcher = batcher(100, 10, Duration.ofMillis(50));
+
+        CompletableFuture<UserDto> good = batcher.submit(user("good"));
+        CompletableFuture<UserDto> bad = batcher.submit(user("bad"));
+
+        assertEquals("good", good.get(5, TimeUnit.SECONDS).getUsername());
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> bad.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(DataIntegrityViolationException.class, failure.getCause());
+    }
+
+    @Test
+    void submit_WhenTheQueueIsFull_ShouldRefuseWith429() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch writing = new CountDownLatch(1);
+        writeGroups(() -> {
+            writing.countDown();
+            release.await();
+        });
+        batcher = batcher(2, 1, Duration.ZERO);
+        try {
+            CompletableFuture<UserDto> inFlight = batcher.submit(user("first"));
+            assertTrue(writing.await(5, TimeUnit.SECONDS));
+            CompletableFuture<UserDto> queued1 = batcher.submit(user("second"));
+            CompletableFuture<UserDto> queued2 = batcher.submit(user("third"));
+
+            assertThrows(TooManyRequestsException.class, () -> batcher.submit(user("fourth")));
+            assertEquals(1, meterRegistry.get("users.create.queue.rejected").counter().count());
+            assertEquals(2, meterRegistry.get("users.create.queue.depth").gauge().value());
+
+            release.countDown();
+            assertEquals("first", inFlight.get(5, TimeUnit.SECONDS).getUsername());
+            assertEquals("second", queued1.get(5, TimeUnit.SECONDS).getUsername());
+            assertEquals("third", queued2.get(5, TimeUnit.SECONDS).getUsername());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void stop_ShouldWriteWhatIsQueued() throws Exception {
+        writeGroups(null);
+        batcher = batcher(100, 10, Duration.ofSeconds(1));
+        CompletableFuture<UserDto> pending = batcher.submit(user("pending"));
+
+        batcher.stop();
+
+        assertEquals("pending", pending.getNow(null).getUsername());
+    }
+
+    @Test
+    void submit_AfterStop_ShouldFailTheFuture() throws Exception {
+        writeGroups(null);
+        batcher = batcher(100, 10, Duration.ofMillis(50));
+        batcher.stop();
+
+        CompletableFuture<UserDto> late = batcher.submit(user("late"));
+
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> late.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(ServiceUnavailableException.class, failure.getCause());
+        assertEquals(0, meterRegistry.get("users.create.queue.depth").gauge().value());
+    }
+
+    @Test
+    void submit_BeforeStart_ShouldFailTheFuture() {
+        batcher = new UserCreateBatcher(userService, 100, 10, Duration.ofMillis(50), Duration.ofSeconds(5),
+            meterRegistry);
+
+        assertFalse(batcher.isRunning());
+        ExecutionException failure = assertThrows(ExecutionException.class,
+            () -> batcher.submit(user("early")).get(5, TimeUnit.SECONDS));
+        assertInstanceOf(ServiceUnavailableException.class, failure.getCause());
+    }
+
+    private UserCreateBatcher batcher(int queueCapacity, int maxBatchSize, Duration maxDelay) {
+        UserCreateBatcher started = new UserCreateBatcher(userService, queueCapacity, maxBatchSize, maxDelay,
+            Duration.ofSeconds(5), meterRegistry);
+        started.start();
+        return started;
+    }
+
+    /**
+     * Stands in for the database: assigns ids, fails users named "bad" and
+     * runs {@code gate} before each group.
+     */
+    @SuppressWarnings("unchecked")
+    private void writeGroups(Gate gate) {
+        doAnswer(invocation -> {
+            if (gate != null) {
+                gate.pass();
+            }
+            List<UserDto> users = invocation.getArgument(0);
+            ObjIntConsumer<UserDto> created = invocation.getArgument(1);
+            ObjIntConsumer<RuntimeException> failed = invocation.getArgument(2);
+            groupSizes.add(users.size());
+            for (int i = 0; i < users.size(); i++) {
+                if (users.get(i).getUsername().equals("bad")) {
+                    failed.accept(new DataIntegrityViolationException("duplicate email"), i);
+                } else {
+                    users.get(i).setId(ids.incrementAndGet());
+                    created.accept(users.get(i), i);
+                }
+            }
+            return null;
+        }).when(userService).createUserGroup(any(), any(), any());
+    }
+
+    private static UserDto user(String username) {
+        UserDto user = new UserDto();
+        user.setName("User " + username);
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        return user;
+    }
+
+    private interface Gate {
+        void pass() throws InterruptedException;
+    }
+}
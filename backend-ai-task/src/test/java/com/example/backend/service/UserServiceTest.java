@@ -1,21 +1,42 @@
 package com.example.backend.service;
 
+import com.example.backend.config.CacheConfig;
 import com.example.backend.config.TestSecurityConfig;
 import com.example.backend.domain.Address;
 import com.example.backend.domain.Company;
 import com.example.backend.domain.Geo;
 import com.example.backend.domain.User;
+import com.example.backend.dto.AddressDto;
+import com.example.backend.dto.BulkChangeResponse;
+import com.example.backend.dto.BulkCreateResponse;
+import com.example.backend.dto.BulkDeleteRequest;
+import com.example.backend.dto.BulkItemResult;
+import com.example.backend.dto.BulkUpdateRequest;
+import com.example.backend.dto.CompanyDto;
+import com.example.backend.dto.GeoDto;
+import com.example.backend.dto.NearbyUserDto;
 import com.example.backend.dto.UserDto;
+import com.example.backend.dto.UserFilterDto;
+import com.example.backend.dto.UserPageDto;
+import com.example.backend.dto.UserSearchPageDto;
+import com.example.backend.exception.BadRequestException;
+import com.example.backend.exception.PreconditionFailedException;
 import com.example.backend.exception.ResourceNotFoundException;
 import com.example.backend.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.Import;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -32,6 +53,12 @@ class UserServiceTest {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     private User testUser;
 
     @BeforeEach
@@ -53,8 +80,8 @@ class UserServiceTest {
         address.setZipcode("10001");
 
         Geo geo = new Geo();
-        geo.setLat("40.7128");
-        geo.setLng("-74.0060");
+        geo.setLat(40.7128);
+        geo.setLng(-74.0060);
         address.setGeo(geo);
         testUser.setAddress(address);
 
@@ -160,6 +187,62 @@ class UserServiceTest {
         assertEquals("User not found with id : '999'", exception.getMessage());
     }
 
+    @Test
+    void updateUser_WithExpectedVersion_ShouldBumpVersionAndRejectStaleOne() {
+        assertEquals(0L, userService.getUserVersion(testUser.getId()).version());
+
+        UserDto updateDto = new UserDto();
+        updateDto.setName("Versioned User");
+        updateDto.setUsername("versioneduser");
+        updateDto.setEmail("versioned@example.com");
+
+        UserDto updated = userService.updateUser(testUser.getId(), updateDto, 0L);
+        assertEquals(1L, updated.getVersion());
+        assertEquals(1L, userService.getUserVersion(testUser.getId()).version());
+
+        assertThrows(PreconditionFailedException.class,
+            () -> userService.updateUser(testUser.getId(), updateDto, 0L));
+    }
+
+    @Test
+    void patchUser_ShouldChangeOnlySuppliedFields() throws Exception {
+        UserDto patched = userService.patchUser(testUser.getId(),
+            objectMapper.readTree("{\"phone\":\"555-0100\",\"address\":{\"city\":\"Boston\",\"geo\":{\"lat\":42.36}}}"), null);
+
+        assertEquals("555-0100", patched.getPhone());
+        assertEquals("John Doe", patched.getName());
+        assertEquals("Boston", patched.getAddress().getCity());
+        assertEquals("123 Main St", patched.getAddress().getStreet());
+        assertEquals("42.36", patched.getAddress().getGeo().getLat());
+        assertEquals("-74.006", patched.getAddress().getGeo().getLng());
+        assertEquals("Acme Inc", patched.getCompany().getName());
+        assertEquals(1L, patched.getVersion());
+    }
+
+    @Test
+    void patchUser_WithoutChanges_ShouldKeepVersion() throws Exception {
+        UserDto patched = userService.patchUser(testUser.getId(),
+            objectMapper.readTree("{\"phone\":\"123-456-7890\",\"company\":{\"name\":\"Acme Inc\"}}"), null);
+
+        assertEquals(0L, patched.getVersion());
+        assertEquals(0L, userService.getUserVersion(testUser.getId()).version());
+    }
+
+    @Test
+    void patchUser_WithNullMember_ShouldRemoveIt() throws Exception {
+        UserDto patched = userService.patchUser(testUser.getId(),
+            objectMapper.readTree("{\"company\":null,\"website\":null}"), null);
+
+        assertNull(patched.getCompany());
+        assertNull(patched.getWebsite());
+        assertEquals("New York", patched.getAddress().getCity());
+
+        assertThrows(BadRequestException.class,
+            () -> userService.patchUser(testUser.getId(), objectMapper.readTree("{\"email\":null}"), null));
+        assertThrows(BadRequestException.class,
+            () -> userService.patchUser(testUser.getId(), objectMapper.readTree("[]"), null));
+    }
+
     @Test
     void deleteUser_WhenUserExists_ShouldDeleteUser() {
         userService.deleteUser(testUser.getId());
@@ -176,6 +259,64 @@ class UserServiceTest {
         assertEquals("User not found with id : '999'", exception.getMessage());
     }
 
+    @Test
+    void deleteUsers_ByIds_ShouldReportMissingIds() {
+        User other = new User();
+        other.setName("Jane Doe");
+        other.setUsername("janedoe");
+        other.setEmail("jane@example.com");
+        other = userRepository.save(other);
+
+        BulkChangeResponse response = userService.deleteUsers(
+            new BulkDeleteRequest(List.of(testUser.getId(), 999_999L, other.getId(), testUser.getId()), null));
+
+        assertEquals(2, response.getAffected());
+        assertEquals(List.of(999_999L), response.getNotFound());
+        assertEquals(0, userRepository.count());
+    }
+
+    @Test
+    void updateUsers_ByFilter_ShouldWalkMatchesInChunks() throws Exception {
+        List<UserDto> userDtos = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            UserDto dto = new UserDto();
+            dto.setName("Bulk " + i);
+            dto.setUsername("bulk" + i);
+            dto.setEmail("bulk" + i + "@example.com");
+            dto.setCompany(new CompanyDto("Initech", null, null));
+            userDtos.add(dto);
+        }
+        userService.createUsers(userDtos.iterator());
+
+        int chunkSize = (int) ReflectionTestUtils.getField(userService, "bulkChunkSize");
+        ReflectionTestUtils.setField(userService, "bulkChunkSize", 2);
+        try {
+            BulkUpdateRequest request = new BulkUpdateRequest(null, new UserFilterDto(null, "Initech", null),
+                objectMapper.readTree("{\"website\":\"initech.com\",\"company\":{\"bs\":\"TPS reports\"}}"));
+            BulkChangeResponse response = userService.updateUsers(request);
+            assertEquals(5, response.getAffected());
+            assertTrue(response.getNotFound().isEmpty());
+
+            // Rows that already hold the values are not rewritten
+            assertEquals(0, userService.updateUsers(request).getAffected());
+        } finally {
+            ReflectionTestUtils.setField(userService, "bulkChunkSize", chunkSize);
+        }
+
+        List<UserDto> users = userService.getAllUsers();
+        assertEquals(6, users.size());
+        assertEquals("www.example.com", users.get(0).getWebsite());
+        for (UserDto user : users.subList(1, 6)) {
+            assertEquals("initech.com", user.getWebsite());
+            assertEquals("TPS reports", user.getCompany().getBs());
+            assertEquals(1L, user.getVersion());
+        }
+
+        assertThrows(BadRequestException.class, () -> userService.updateUsers(new BulkUpdateRequest(
+            List.of(testUser.getId()), null, objectMapper.readTree("{\"email\":\"x@example.com\"}"))));
+        assertThrows(BadRequestException.class, () -> userService.deleteUsers(new BulkDeleteRequest(null, new UserFilterDto())));
+    }
+
     @Test
     void shouldCreateUserWithFullDetails() {
         // Create test data
@@ -203,4 +344,274 @@ class UserServiceTest {
         assertEquals(newUserDto.getName(), savedUser.getName());
         assertEquals(newUserDto.getEmail(), savedUser.getEmail());
     }
-} 
\ No newline at end of file
+
+    @Test
+    void getUsersPage_ShouldWalkAllUsersWithCursor() {
+        for (int i = 0; i < 4; i++) {
+            User user = new User();
+            user.setName("Paged User " + i);
+            user.setUsername("paged" + i);
+            user.setEmail("paged" + i + "@example.com");
+            userRepository.save(user);
+        }
+
+        UserPageDto first = userService.getUsersPage(null, 2);
+        assertEquals(2, first.getItems().size());
+        assertEquals(testUser.getId(), first.getItems().get(0).getId());
+        assertNotNull(first.getNext());
+        assertEquals(5, first.getApproximateTotal());
+
+        UserPageDto second = userService.getUsersPage(first.getNext(), 2);
+        assertEquals(2, second.getItems().size());
+        assertTrue(second.getItems().get(0).getId() > first.getItems().get(1).getId());
+        assertNotNull(second.getNext());
+
+        UserPageDto last = userService.getUsersPage(second.getNext(), 2);
+        assertEquals(1, last.getItems().size());
+        assertNull(last.getNext());
+    }
+
+    @Test
+    void getUsersPage_ShouldCapLimit() {
+        // 150 users on top of the fixture, past users.pagination.max-limit (100)
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            User user = new User();
+            user.setName("Capped User " + i);
+            user.setUsername("capped" + i);
+            user.setEmail("capped" + i + "@example.com");
+            users.add(user);
+        }
+        userRepository.saveAll(users);
+
+        UserPageDto page = userService.getUsersPage(null, 10_000);
+        assertEquals(100, page.getItems().size());
+        assertNotNull(page.getNext());
+
+        UserPageDto rest = userService.getUsersPage(page.getNext(), 10_000);
+        assertEquals(51, rest.getItems().size());
+        assertNull(rest.getNext());
+    }
+
+    @Test
+    void getUsersPage_WithInvalidCursor_ShouldThrowException() {
+        assertThrows(BadRequestException.class, () -> userService.getUsersPage("not-a-cursor", 10));
+        assertThrows(BadRequestException.class, () -> userService.getUsersPage(null, 0));
+    }
+
+    @Test
+    void createUsers_ShouldReportPerItemResults() {
+        List<UserDto> userDtos = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            UserDto dto = new UserDto();
+            dto.setName("Bulk User " + i);
+            dto.setUsername("bulk" + i);
+            dto.setEmail("bulk" + i + "@example.com");
+            userDtos.add(dto);
+        }
+        UserDto invalid = new UserDto();
+        invalid.setName("No Email");
+        invalid.setUsername("noemail");
+        userDtos.add(1, invalid);
+
+        BulkCreateResponse response = userService.createUsers(userDtos.iterator());
+
+        assertEquals(3, response.getCreated());
+        assertEquals(1, response.getFailed());
+        assertEquals(4, response.getResults().size());
+        assertEquals(BulkItemResult.Status.FAILED, response.getResults().get(1).getStatus());
+        for (int i : new int[] {0, 2, 3}) {
+            BulkItemResult result = response.getResults().get(i);
+            assertEquals(i, result.getIndex());
+            assertEquals(BulkItemResult.Status.CREATED, result.getStatus());
+            assertTrue(userRepository.existsById(result.getId()));
+        }
+        assertEquals(4, userRepository.count());
+    }
+
+    @Test
+    void createUsers_WithMalformedCoordinateMidStream_ShouldFailOnlyThatItem() {
+        List<UserDto> userDtos = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            UserDto dto = new UserDto();
+            dto.setName("Streamed User " + i);
+            dto.setUsername("streamed" + i);
+            dto.setEmail("streamed" + i + "@example.com");
+            userDtos.add(dto);
+        }
+        AddressDto address = new AddressDto();
+        GeoDto geo = new GeoDto();
+        geo.setLat("abc");
+        geo.setLng("1");
+        address.setGeo(geo);
+        userDtos.get(2).setAddress(address);
+
+        int chunkSize = (int) ReflectionTestUtils.getField(userService, "bulkChunkSize");
+        ReflectionTestUtils.setField(userService, "bulkChunkSize", 2);
+        BulkCreateResponse response;
+        try {
+            response = userService.createUsers(userDtos.iterator());
+        } finally {
+            ReflectionTestUtils.setField(userService, "bulkChunkSize", chunkSize);
+        }
+
+        assertEquals(4, response.getCreated());
+        assertEquals(1, response.getFailed());
+        BulkItemResult failed = response.getResults().get(2);
+        assertEquals(BulkItemResult.Status.FAILED, failed.getStatus());
+        assertEquals("Invalid lat: 'abc'", failed.getError());
+        assertEquals(5, userRepository.count());
+    }
+
+    @Test
+    // Each chunk commits on its own, which a surrounding test transaction would hide
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void createUsers_ShouldNotLeakDatabaseErrorsIntoResults() {
+        UserDto tooLong = new UserDto();
+        tooLong.setName("Long Name");
+        tooLong.setUsername("x".repeat(300));
+        tooLong.setEmail("long@example.com");
+        UserDto fine = new UserDto();
+        fine.setName("Fine User");
+        fine.setUsername("fine");
+        fine.setEmail("fine@example.com");
+
+        BulkCreateResponse response = userService.createUsers(List.of(tooLong, fine).iterator());
+
+        assertEquals(1, response.getCreated());
+        BulkItemResult failed = response.getResults().get(0);
+        assertEquals(BulkItemResult.Status.FAILED, failed.getStatus());
+        assertEquals("a value is longer than 255 characters", failed.getError());
+        assertEquals(BulkItemResult.Status.CREATED, response.getResults().get(1).getStatus());
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void getUserById_ShouldBeCachedUntilUpdateOrDelete() {
+        Cache cache = cacheManager.getCache(CacheConfig.USERS_CACHE);
+        assertNotNull(cache);
+
+        UserDto first = userService.getUserById(testUser.getId());
+        assertSame(first, userService.getUserById(testUser.getId()));
+
+        UserDto updateDto = new UserDto();
+        updateDto.setName("Updated User");
+        updateDto.setUsername("updateduser");
+        updateDto.setEmail("updated@example.com");
+        userService.updateUser(testUser.getId(), updateDto);
+        assertNull(cache.get(testUser.getId()));
+        assertEquals("Updated User", userService.getUserById(testUser.getId()).getName());
+
+        userService.deleteUser(testUser.getId());
+        assertNull(cache.get(testUser.getId()));
+    }
+
+    @Test
+    void getAllUsers_ShouldMapNestedGroupsFromProjection() {
+        User bareUser = new User();
+        bareUser.setName("Bare User");
+        bareUser.setUsername("bare");
+        bareUser.setEmail("bare@example.com");
+        userRepository.save(bareUser);
+
+        List<UserDto> users = userService.getAllUsers();
+
+        UserDto full = users.get(0);
+        assertEquals("New York", full.getAddress().getCity());
+        assertEquals("40.7128", full.getAddress().getGeo().getLat());
+        assertEquals("-74.006", full.getAddress().getGeo().getLng());
+        assertEquals("Enterprise solutions", full.getCompany().getBs());
+
+        UserDto bare = users.get(1);
+        assertNull(bare.getAddress());
+        assertNull(bare.getCompany());
+    }
+
+    @Test
+    void searchUsers_ShouldMatchTermsAcrossColumnsAndRankNamesFirst() {
+        User cityMatch = new User();
+        cityMatch.setName("Someone Else");
+        cityMatch.setUsername("someone");
+        cityMatch.setEmail("someone@example.com");
+        Address address = new Address();
+        address.setCity("Johnstown");
+        cityMatch.setAddress(address);
+        userRepository.save(cityMatch);
+        // Search runs plain SQL, which does not trigger Hibernate's auto-flush
+        userRepository.flush();
+
+        UserSearchPageDto byName = userService.searchUsers("john", null, 10);
+        assertEquals(2, byName.getItems().size());
+        assertEquals(testUser.getId(), byName.getItems().get(0).getId());
+
+        assertEquals(1, userService.searchUsers("ACME", null, 10).getItems().size());
+        assertEquals(1, userService.searchUsers("john new", null, 10).getItems().size());
+        assertTrue(userService.searchUsers("nobody", null, 10).getItems().isEmpty());
+        // Terms match the start of a word, not the middle of one
+        assertEquals(1, userService.searchUsers("york", null, 10).getItems().size());
+        assertTrue(userService.searchUsers("ohn", null, 10).getItems().isEmpty());
+    }
+
+    @Test
+    void searchUsers_ShouldPageThroughResults() {
+        for (int i = 0; i < 3; i++) {
+            User user = new User();
+            user.setName("Johnny " + i);
+            user.setUsername("johnny" + i);
+            user.setEmail("johnny" + i + "@example.com");
+            userRepository.save(user);
+        }
+        userRepository.flush();
+
+        UserSearchPageDto first = userService.searchUsers("john", null, 3);
+        assertEquals(3, first.getItems().size());
+        assertNotNull(first.getNext());
+
+        UserSearchPageDto second = userService.searchUsers("john", first.getNext(), 3);
+        assertEquals(1, second.getItems().size());
+        assertNull(second.getNext());
+    }
+
+    @Test
+    void searchUsers_WithBlankQuery_ShouldThrowException() {
+        assertThrows(BadRequestException.class, () -> userService.searchUsers(" ", null, 10));
+    }
+
+    @Test
+    void findNearby_ShouldReturnClosestUsersFirst() {
+        Long london = userService.createUser(locatedUser("london", "51.5074", "-0.1278")).getId();
+        Long paris = userService.createUser(locatedUser("paris", "48.8566", "2.3522")).getId();
+        userService.createUser(locatedUser("tokyo", "35.6762", "139.6503"));
+
+        List<NearbyUserDto> nearest = userService.findNearby(51.5, -0.12, null, 2);
+        assertEquals(List.of(london, paris), nearest.stream().map(hit -> hit.getUser().getId()).toList());
+        assertEquals(343, nearest.get(1).getDistanceKm(), 5);
+
+        List<NearbyUserDto> withinRadius = userService.findNearby(51.5, -0.12, 500.0, 10);
+        assertEquals(List.of(london, paris), withinRadius.stream().map(hit -> hit.getUser().getId()).toList());
+        assertEquals("-0.1278", withinRadius.get(0).getUser().getAddress().getGeo().getLng());
+    }
+
+    @Test
+    void findNearby_WithInvalidArguments_ShouldThrowException() {
+        assertThrows(BadRequestException.class, () -> userService.findNearby(91, 0, null, null));
+        assertThrows(BadRequestException.class, () -> userService.findNearby(0, 0, -1.0, null));
+        assertThrows(BadRequestException.class,
+            () -> userService.createUser(locatedUser("nowhere", "north", "0")));
+    }
+
+    private static UserDto locatedUser(String username, String lat, String lng) {
+        GeoDto geo = new GeoDto();
+        geo.setLat(lat);
+        geo.setLng(lng);
+        AddressDto address = new AddressDto();
+        address.setGeo(geo);
+
+        UserDto dto = new UserDto();
+        dto.setName(username);
+        dto.setUsername(username);
+        dto.setEmail(username + "@example.com");
+        dto.setAddress(address);
+        return dto;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.example.backend.repository.GeoHit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class UserShardsTest {
+
+    private static final Comparator<GeoHit> BY_DISTANCE = Comparator.comparingDouble(GeoHit::distanceMeters)
+        .thenComparing(GeoHit::id);
+
+    @Test
+    void merge_ShouldMatchSortingTheConcatenation() {
+        Random random = new Random(11);
+        List<List<GeoHit>> shards = new ArrayList<>();
+        List<GeoHit> all = new ArrayList<>();
+        long id = 0;
+        for (int shard = 0; shard < 4; shard++) {
+            List<GeoHit> hits = new ArrayList<>();
+            for (int i = random.nextInt(50); i > 0; i--) {
+                hits.add(new GeoHit(++id, random.nextInt(1000)));
+            }
+            hits.sort(BY_DISTANCE);
+            shards.add(hits);
+            all.addAll(hits);
+        }
+        all.sort(BY_DISTANCE);
+
+        assertEquals(all, UserShards.merge(shards, BY_DISTANCE, GeoHit::id, Integer.MAX_VALUE));
+        assertEquals(all.subList(0, 10), UserShards.merge(shards, BY_DISTANCE, GeoHit::id, 10));
+    }
+
+    @Test
+    void merge_ShouldKeepARowSeenOnTwoShardsOnce() {
+        // Mid-move, bucket 5's rows are on both shards
+        List<GeoHit> source = List.of(new GeoHit(5L, 10), new GeoHit(1029L, 30));
+        List<GeoHit> target = List.of(new GeoHit(2L, 5), new GeoHit(5L, 10), new GeoHit(1029L, 30));
+
+        List<GeoHit> merged = UserShards.merge(List.of(source, target), BY_DISTANCE, GeoHit::id, 3);
+
+        assertEquals(List.of(2L, 5L, 1029L), merged.stream().map(GeoHit::id).toList());
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.backend.dto.UserSuggestionDto;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class UserTypeaheadIndexTest {
+
+    private final UserTypeaheadIndex index = new UserTypeaheadIndex();
+
+    @Test
+    void suggest_ShouldMatchWordPrefixesOfAnyLength() {
+        index.put(1L, "Leanne Graham", "Bret", "Sincere@april.biz");
+        index.put(2L, "Ervin Howell", "Antonette", "Shanna@melissa.tv");
+
+        assertEquals(List.of(1L), ids(index.suggest("l", 10)));
+        assertEquals(List.of(1L), ids(index.suggest("gra", 10)));
+        assertEquals(List.of(2L), ids(index.suggest("MELISSA", 10)));
+        assertEquals(List.of(), ids(index.suggest("raham", 10)));
+    }
+
+    @Test
+    void suggest_ShouldRequireEveryTermAndRankNameMatchesFirst() {
+        index.put(1L, "Anna Smith", "asmith", "anna@example.com");
+        index.put(2L, "Bob Jones", "anna_fan", "bob@example.com");
+        index.put(3L, "Carl Anna", "carl", "carl@example.com");
+
+        assertEquals(List.of(1L, 3L, 2L), ids(index.suggest("ann", 10)));
+        assertEquals(List.of(1L), ids(index.suggest("ann smi", 10)));
+        assertEquals(List.of(1L, 3L), ids(index.suggest("ann", 2)));
+    }
+
+    @Test
+    void putAndRemove_ShouldReplaceAndDropEntries() {
+        index.put(1L, "Leanne Graham", "Bret", "Sincere@april.biz");
+        index.put(1L, "Clementine Bauch", "Samantha", "Nathan@yesenia.net");
+
+        assertEquals(List.of(), ids(index.suggest("leanne", 10)));
+        UserSuggestionDto suggestion = index.suggest("clem", 10).get(0);
+        assertEquals("Samantha", suggestion.getUsername());
+
+        index.remove(1L);
+        assertEquals(List.of(), ids(index.suggest("clem", 10)));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void compaction_ShouldKeepResultsAfterManyUpdates() {
+        for (long id = 1; id <= 3000; id++) {
+            index.put(id, "User " + id, "user" + id, "user" + id + "@example.com");
+        }
+        for (long id = 1; id <= 3000; id++) {
+            index.put(id, "Renamed " + id, "user" + id, "user" + id + "@example.com");
+        }
+
+        assertEquals(3000, index.size());
+        assertEquals(List.of(1234L), ids(index.suggest("renamed 1234", 10)));
+        assertEquals("Renamed 1234", index.suggest("user1234", 10).get(0).getName());
+        assertTrue(index.estimatedHeapBytes() > 0);
+    }
+
+    @Test
+    void rebuild_ShouldKeepAnsweringAndLetConcurrentChangesWin() throws Exception {
+        index.put(1L, "Leanne Graham", "Bret", "Sincere@april.biz");
+
+        index.rebuild(entries -> {
+            entries.add(2L, "Ervin Howell", "Antonette", "Shanna@melissa.tv");
+            entries.add(3L, "Clementine Bauch", "Samantha", "Nathan@yesenia.net");
+            // Another thread reads the old contents and changes users mid-scan
+            CompletableFuture.runAsync(() -> {
+                assertEquals(List.of(1L), ids(index.suggest("leanne", 10)));
+                index.put(2L, "Ervin Renamed", "Antonette", "Shanna@melissa.tv");
+                index.remove(3L);
+            }).orTimeout(5, TimeUnit.SECONDS).join();
+        });
+
+        assertEquals(List.of(), ids(index.suggest("leanne", 10)));
+        assertEquals(List.of(2L), ids(index.suggest("renamed", 10)));
+        assertEquals(List.of(), ids(index.suggest("clem", 10)));
+        assertEquals(1, index.size());
+    }
+
+    private static List<Long> ids(List<UserSuggestionDto> suggestions) {
+        return suggestions.stream().map(UserSuggestionDto::getId).toList();
+    }
+}